@@ -35,12 +35,17 @@
 package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.sql.DAOUtil;
+import fr.paris.lutece.util.sql.TransactionManager;
 import java.sql.Statement;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class provides Data Access methods for Area objects
@@ -53,8 +58,11 @@ public final class AreaDAO implements IAreaDAO
     private static final String SQL_QUERY_DELETE = "DELETE FROM campaign_area WHERE id_area = ? ";
     private static final String SQL_QUERY_UPDATE = "UPDATE campaign_area SET id_area = ?, area_code= ?, campaign_code = ?, title = ?, type = ?, number_votes = ?, active = ? WHERE id_area = ?";
     private static final String SQL_QUERY_SELECTALL = "SELECT id_area, area_code, campaign_code, title, type, number_votes, active FROM campaign_area";
+    private static final String SQL_QUERY_SELECTALL_BY_CAMPAIGN = SQL_QUERY_SELECTALL + " WHERE campaign_code = ? ORDER BY id_area";
     private static final String SQL_QUERY_SELECTALL_ID = "SELECT id_area FROM campaign_area";
     private static final String SQL_QUERY_SELECT_REF_BY_CAMPAIGN = "SELECT area_code, title FROM campaign_area where campaign_code = ? ";
+    private static final String SQL_TABLE = "campaign_area";
+    private static final String SQL_COLUMN_ID = "id_area";
 
     /**
      * {@inheritDoc }
@@ -64,13 +72,7 @@ public final class AreaDAO implements IAreaDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
         {
-            int nIndex = 1;
-            daoUtil.setString( nIndex++, area.getAreaCode( ) );
-            daoUtil.setString( nIndex++, area.getCampaignCode( ) );
-            daoUtil.setString( nIndex++, area.getTitle( ) );
-            daoUtil.setString( nIndex++, area.getType( ) );
-            daoUtil.setInt( nIndex++, area.getNumberVotes( ) );
-            daoUtil.setBoolean( nIndex++, area.getActive( ) );
+            setInsertParameters( daoUtil, area );
 
             daoUtil.executeUpdate( );
             if ( daoUtil.nextGeneratedKey( ) )
@@ -95,16 +97,7 @@ public final class AreaDAO implements IAreaDAO
 
             if ( daoUtil.next( ) )
             {
-                area = new Area( );
-                int nIndex = 1;
-
-                area.setId( daoUtil.getInt( nIndex++ ) );
-                area.setAreaCode( daoUtil.getString( nIndex++ ) );
-                area.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                area.setTitle( daoUtil.getString( nIndex++ ) );
-                area.setType( daoUtil.getString( nIndex++ ) );
-                area.setNumberVotes( daoUtil.getInt( nIndex++ ) );
-                area.setActive( daoUtil.getBoolean( nIndex ) );
+                area = getRow( daoUtil );
             }
 
             return area;
@@ -132,16 +125,7 @@ public final class AreaDAO implements IAreaDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
         {
-            int nIndex = 1;
-
-            daoUtil.setInt( nIndex++, area.getId( ) );
-            daoUtil.setString( nIndex++, area.getAreaCode( ) );
-            daoUtil.setString( nIndex++, area.getCampaignCode( ) );
-            daoUtil.setString( nIndex++, area.getTitle( ) );
-            daoUtil.setString( nIndex++, area.getType( ) );
-            daoUtil.setInt( nIndex++, area.getNumberVotes( ) );
-            daoUtil.setBoolean( nIndex++, area.getActive( ) );
-            daoUtil.setInt( nIndex, area.getId( ) );
+            setUpdateParameters( daoUtil, area );
 
             daoUtil.executeUpdate( );
         }
@@ -160,16 +144,30 @@ public final class AreaDAO implements IAreaDAO
 
             while ( daoUtil.next( ) )
             {
-                Area area = new Area( );
-                int nIndex = 1;
+                Area area = getRow( daoUtil );
+
+                areaList.add( area );
+            }
 
-                area.setId( daoUtil.getInt( nIndex++ ) );
-                area.setAreaCode( daoUtil.getString( nIndex++ ) );
-                area.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                area.setTitle( daoUtil.getString( nIndex++ ) );
-                area.setType( daoUtil.getString( nIndex++ ) );
-                area.setNumberVotes( daoUtil.getInt( nIndex++ ) );
-                area.setActive( daoUtil.getBoolean( nIndex ) );
+            return areaList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Area> selectAreasListByCampaign( String campaignCode, Plugin plugin )
+    {
+        List<Area> areaList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_BY_CAMPAIGN, plugin ) )
+        {
+            daoUtil.setString( 1, campaignCode );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                Area area = getRow( daoUtil );
 
                 areaList.add( area );
             }
@@ -217,4 +215,196 @@ public final class AreaDAO implements IAreaDAO
             return areaList;
         }
     }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Area> selectAreasPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL, SQL_TABLE, SQL_COLUMN_ID, filter, true );
+        List<Area> areaList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getPageQuery( ), plugin ) )
+        {
+            query.setPageParameters( daoUtil, nAfterId, nOffset, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                Area area = getRow( daoUtil );
+
+                areaList.add( area );
+            }
+
+            return areaList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countAreas( ListFilter filter, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL, SQL_TABLE, SQL_COLUMN_ID, filter, true );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getCountQuery( ), plugin ) )
+        {
+            query.setCountParameters( daoUtil );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getInt( 1 ) : 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, Area> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin )
+    {
+        Map<Integer, Area> mapAreas = new HashMap<>( );
+        for ( List<Integer> listChunk : InQuery.chunks( listKeys ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL, SQL_COLUMN_ID, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setIntParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    Area area = getRow( daoUtil );
+                    mapAreas.put( area.getId( ), area );
+                }
+            }
+        }
+
+        return mapAreas;
+    }
+
+    /**
+     * Reads an area from the current row of a query on all the columns
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @return the area
+     */
+    private Area getRow( DAOUtil daoUtil )
+    {
+        Area area = new Area( );
+        int nIndex = 1;
+
+        area.setId( daoUtil.getInt( nIndex++ ) );
+        area.setAreaCode( daoUtil.getString( nIndex++ ) );
+        area.setCampaignCode( daoUtil.getString( nIndex++ ) );
+        area.setTitle( daoUtil.getString( nIndex++ ) );
+        area.setType( daoUtil.getString( nIndex++ ) );
+        area.setNumberVotes( daoUtil.getInt( nIndex++ ) );
+        area.setActive( daoUtil.getBoolean( nIndex ) );
+
+        return area;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertAll( Collection<Area> listAreas, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+            {
+                for ( Area area : listAreas )
+                {
+                    setInsertParameters( daoUtil, area );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+
+                // The keys are generated in the order of the batch
+                for ( Area area : listAreas )
+                {
+                    if ( !daoUtil.nextGeneratedKey( ) )
+                    {
+                        throw new AppException( "No generated key returned for the area " + area.getAreaCode( ) );
+                    }
+                    area.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+                }
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeAll( Collection<Area> listAreas, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+            {
+                for ( Area area : listAreas )
+                {
+                    setUpdateParameters( daoUtil, area );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the parameters of the insert query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param area
+     *            the area to insert
+     */
+    private void setInsertParameters( DAOUtil daoUtil, Area area )
+    {
+        int nIndex = 1;
+        daoUtil.setString( nIndex++, area.getAreaCode( ) );
+        daoUtil.setString( nIndex++, area.getCampaignCode( ) );
+        daoUtil.setString( nIndex++, area.getTitle( ) );
+        daoUtil.setString( nIndex++, area.getType( ) );
+        daoUtil.setInt( nIndex++, area.getNumberVotes( ) );
+        daoUtil.setBoolean( nIndex++, area.getActive( ) );
+    }
+
+    /**
+     * Sets the parameters of the update query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param area
+     *            the area to update
+     */
+    private void setUpdateParameters( DAOUtil daoUtil, Area area )
+    {
+        int nIndex = 1;
+        daoUtil.setInt( nIndex++, area.getId( ) );
+        daoUtil.setString( nIndex++, area.getAreaCode( ) );
+        daoUtil.setString( nIndex++, area.getCampaignCode( ) );
+        daoUtil.setString( nIndex++, area.getTitle( ) );
+        daoUtil.setString( nIndex++, area.getType( ) );
+        daoUtil.setInt( nIndex++, area.getNumberVotes( ) );
+        daoUtil.setBoolean( nIndex++, area.getActive( ) );
+        daoUtil.setInt( nIndex, area.getId( ) );
+    }
 }
@@ -38,7 +38,9 @@ import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.util.ReferenceList;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class provides instances management methods (create, find, ...) for Area objects
@@ -48,6 +50,7 @@ public final class AreaHome
     // Static variable pointed at the DAO instance
     private static IAreaDAO _dao = SpringContextService.getBean( "campaign.areaDAO" );
     private static Plugin _plugin = PluginService.getPlugin( "campaign" );
+    private static ResourceChangeNotifier<Area> _notifier = new ResourceChangeNotifier<>( );
 
     /**
      * Private constructor - this class need not be instantiated
@@ -65,7 +68,7 @@ public final class AreaHome
      */
     public static Area create( Area area )
     {
-        _dao.insert( area, _plugin );
+        DataVersionHome.write( ( ) -> _dao.insert( area, _plugin ), ( ) -> _notifier.fireCreated( area ) );
 
         return area;
     }
@@ -79,11 +82,46 @@ public final class AreaHome
      */
     public static Area update( Area area )
     {
-        _dao.store( area, _plugin );
+        DataVersionHome.write( ( ) -> _dao.store( area, _plugin ), ( ) -> _notifier.fireUpdated( area ) );
 
         return area;
     }
 
+    /**
+     * Create several areas with a single batch of inserts, in one transaction with the increment of the data version. The identifiers generated by
+     * the database are set on the areas
+     * 
+     * @param listAreas
+     *            The areas to create
+     * @return The areas which have been created
+     */
+    public static Collection<Area> createAll( Collection<Area> listAreas )
+    {
+        if ( !listAreas.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.insertAll( listAreas, _plugin ), ( ) -> listAreas.forEach( _notifier::fireCreated ) );
+        }
+
+        return listAreas;
+    }
+
+    /**
+     * Update several areas with a single batch of updates, in one transaction with the increment of the data version
+     * 
+     * @param listAreas
+     *            The areas to update
+     * @return The areas which have been updated
+     */
+    public static Collection<Area> updateAll( Collection<Area> listAreas )
+    {
+        if ( !listAreas.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.storeAll( listAreas, _plugin ), ( ) -> listAreas.forEach( _notifier::fireUpdated ) );
+        }
+
+        return listAreas;
+    }
+
     /**
      * Remove the area whose identifier is specified in parameter
      * 
@@ -92,7 +130,29 @@ public final class AreaHome
      */
     public static void remove( int nKey )
     {
-        _dao.delete( nKey, _plugin );
+        DataVersionHome.write( ( ) -> _dao.delete( nKey, _plugin ), ( ) -> _notifier.fireRemoved( nKey ) );
+    }
+
+    /**
+     * Registers a listener notified of the area changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void registerListener( IResourceChangeListener<Area> listener )
+    {
+        _notifier.register( listener );
+    }
+
+    /**
+     * Unregisters a listener of the area changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void unregisterListener( IResourceChangeListener<Area> listener )
+    {
+        _notifier.unregister( listener );
     }
 
     /**
@@ -117,6 +177,18 @@ public final class AreaHome
         return _dao.selectAreasList( _plugin );
     }
 
+    /**
+     * Load the data of the area objects of a campaign and returns them as a list
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return the list which contains the data of the area objects of the campaign
+     */
+    public static List<Area> getAreasListByCampaign( String campaignCode )
+    {
+        return _dao.selectAreasListByCampaign( campaignCode, _plugin );
+    }
+
     /**
      * Load the id of all the area objects and returns them as a list
      * 
@@ -138,4 +210,46 @@ public final class AreaHome
     {
         return _dao.selectAreasReferenceList( campaignCode, _plugin );
     }
+
+    /**
+     * Load a page of the areas matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter, filtered by campaign and by active flag
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of areas skipped after this id
+     * @param nLimit
+     *            the maximum number of areas of the page
+     * @return the areas of the page
+     */
+    public static List<Area> getAreasPage( ListFilter filter, int nAfterId, int nOffset, int nLimit )
+    {
+        return _dao.selectAreasPage( filter, nAfterId, nOffset, nLimit, _plugin );
+    }
+
+    /**
+     * Count the areas matching a filter
+     * 
+     * @param filter
+     *            the filter, filtered by campaign and by active flag
+     * @return the number of areas
+     */
+    public static int countAreas( ListFilter filter )
+    {
+        return _dao.countAreas( filter, _plugin );
+    }
+
+    /**
+     * Returns the areas whose identifiers are specified in parameter, with one query per chunk of identifiers instead of one query per area
+     * 
+     * @param listKeys
+     *            the area primary keys
+     * @return the areas mapped by identifier, without the unknown identifiers
+     */
+    public static Map<Integer, Area> findByPrimaryKeys( Collection<Integer> listKeys )
+    {
+        return _dao.loadByPrimaryKeys( listKeys, _plugin );
+    }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fr.paris.lutece.util.ReferenceList;
+
+/**
+ * Read model of a campaign with its phases, its themes and its areas, as needed to render a campaign page. The lists are unmodifiable; an aggregate
+ * shared between threads is handed out through a {@link #copy( ) copy}, whose beans can be modified by the caller.
+ */
+public final class CampaignAggregate implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Campaign _campaign;
+    private final List<Phase> _listPhases;
+    private final List<Theme> _listThemes;
+    private final List<Area> _listAreas;
+
+    /**
+     * Constructor
+     * 
+     * @param campaign
+     *            the campaign
+     * @param listPhases
+     *            the phases of the campaign
+     * @param listThemes
+     *            the themes of the campaign
+     * @param listAreas
+     *            the areas of the campaign
+     */
+    public CampaignAggregate( Campaign campaign, List<Phase> listPhases, List<Theme> listThemes, List<Area> listAreas )
+    {
+        _campaign = campaign;
+        _listPhases = Collections.unmodifiableList( new ArrayList<>( listPhases ) );
+        _listThemes = Collections.unmodifiableList( new ArrayList<>( listThemes ) );
+        _listAreas = Collections.unmodifiableList( new ArrayList<>( listAreas ) );
+    }
+
+    /**
+     * Returns the campaign
+     * 
+     * @return the campaign
+     */
+    public Campaign getCampaign( )
+    {
+        return _campaign;
+    }
+
+    /**
+     * Returns the phases of the campaign, by order number
+     * 
+     * @return the phases
+     */
+    public List<Phase> getPhases( )
+    {
+        return _listPhases;
+    }
+
+    /**
+     * Returns the themes of the campaign
+     * 
+     * @return the themes
+     */
+    public List<Theme> getThemes( )
+    {
+        return _listThemes;
+    }
+
+    /**
+     * Returns the areas of the campaign
+     * 
+     * @return the areas
+     */
+    public List<Area> getAreas( )
+    {
+        return _listAreas;
+    }
+
+    /**
+     * Returns a copy of this aggregate and of its campaign, phases, themes and areas
+     * 
+     * @return the copy
+     */
+    public CampaignAggregate copy( )
+    {
+        List<Phase> listPhases = new ArrayList<>( _listPhases.size( ) );
+        for ( Phase phase : _listPhases )
+        {
+            listPhases.add( copy( phase ) );
+        }
+        List<Theme> listThemes = new ArrayList<>( _listThemes.size( ) );
+        for ( Theme theme : _listThemes )
+        {
+            listThemes.add( copy( theme ) );
+        }
+        List<Area> listAreas = new ArrayList<>( _listAreas.size( ) );
+        for ( Area area : _listAreas )
+        {
+            listAreas.add( copy( area ) );
+        }
+
+        return new CampaignAggregate( copy( _campaign ), listPhases, listThemes, listAreas );
+    }
+
+    /**
+     * Returns the areas of the campaign as a new referenceList of their codes and titles
+     * 
+     * @return the referenceList
+     */
+    public ReferenceList getAreasReferenceList( )
+    {
+        ReferenceList areaList = new ReferenceList( _listAreas.size( ) );
+        for ( Area area : _listAreas )
+        {
+            areaList.addItem( area.getAreaCode( ), area.getTitle( ) );
+        }
+
+        return areaList;
+    }
+
+    /**
+     * Returns a copy of a campaign
+     * 
+     * @param campaign
+     *            the campaign
+     * @return the copy
+     */
+    private static Campaign copy( Campaign campaign )
+    {
+        Campaign copy = new Campaign( );
+        copy.setId( campaign.getId( ) );
+        copy.setCampaignCode( campaign.getCampaignCode( ) );
+        copy.setTitle( campaign.getTitle( ) );
+        copy.setDescription( campaign.getDescription( ) );
+        copy.setActive( campaign.getActive( ) );
+
+        return copy;
+    }
+
+    /**
+     * Returns a copy of a phase
+     * 
+     * @param phase
+     *            the phase
+     * @return the copy
+     */
+    private static Phase copy( Phase phase )
+    {
+        Phase copy = new Phase( );
+        copy.setId( phase.getId( ) );
+        copy.setCampaignCode( phase.getCampaignCode( ) );
+        copy.setStartingDate( phase.getStartingDate( ) );
+        copy.setEndingDate( phase.getEndingDate( ) );
+        copy.setLabel( phase.getLabel( ) );
+        copy.setOrderNum( phase.getOrderNum( ) );
+        copy.setCodePhaseType( phase.getCodePhaseType( ) );
+
+        return copy;
+    }
+
+    /**
+     * Returns a copy of a theme
+     * 
+     * @param theme
+     *            the theme
+     * @return the copy
+     */
+    private static Theme copy( Theme theme )
+    {
+        Theme copy = new Theme( );
+        copy.setId( theme.getId( ) );
+        copy.setCampaignCode( theme.getCampaignCode( ) );
+        copy.setCode( theme.getCode( ) );
+        copy.setTitle( theme.getTitle( ) );
+        copy.setDescription( theme.getDescription( ) );
+        copy.setActive( theme.getActive( ) );
+        copy.setFrontRgb( theme.getFrontRgb( ) );
+        copy.setImageFile( theme.getImageFile( ) );
+
+        return copy;
+    }
+
+    /**
+     * Returns a copy of an area
+     * 
+     * @param area
+     *            the area
+     * @return the copy
+     */
+    private static Area copy( Area area )
+    {
+        Area copy = new Area( );
+        copy.setId( area.getId( ) );
+        copy.setAreaCode( area.getAreaCode( ) );
+        copy.setCampaignCode( area.getCampaignCode( ) );
+        copy.setTitle( area.getTitle( ) );
+        copy.setType( area.getType( ) );
+        copy.setNumberVotes( area.getNumberVotes( ) );
+        copy.setActive( area.getActive( ) );
+
+        return copy;
+    }
+}
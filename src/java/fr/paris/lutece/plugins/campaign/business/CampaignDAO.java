@@ -35,12 +35,17 @@
 package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.sql.DAOUtil;
+import fr.paris.lutece.util.sql.TransactionManager;
 import java.sql.Statement;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class provides Data Access methods for Campaign objects
@@ -56,6 +61,12 @@ public final class CampaignDAO implements ICampaignDAO
     private static final String SQL_QUERY_SELECTALL_ID = "SELECT id_campaign FROM campaign_campaign";
     private static final String SQL_QUERY_SELECTALL_REF = "SELECT campaign_code, title FROM campaign_campaign";
     private static final String SQL_QUERY_SELECT_BY_CODE = SQL_QUERY_SELECTALL + " WHERE campaign_code = ? ";
+    private static final String SQL_QUERY_SELECTALL_SUMMARY = "SELECT id_campaign, campaign_code, title, active FROM campaign_campaign";
+    private static final String SQL_QUERY_SELECTALL_DESCRIPTIONS = "SELECT id_campaign, description FROM campaign_campaign";
+    private static final String SQL_QUERY_SELECT_DESCRIPTION = "SELECT description FROM campaign_campaign WHERE id_campaign = ?";
+    private static final String SQL_TABLE = "campaign_campaign";
+    private static final String SQL_COLUMN_ID = "id_campaign";
+    private static final String SQL_COLUMN_CODE = "campaign_code";
 
     /**
      * {@inheritDoc }
@@ -65,11 +76,7 @@ public final class CampaignDAO implements ICampaignDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
         {
-            int nIndex = 1;
-            daoUtil.setString( nIndex++, campaign.getCampaignCode( ) );
-            daoUtil.setString( nIndex++, campaign.getTitle( ) );
-            daoUtil.setString( nIndex++, campaign.getDescription( ) );
-            daoUtil.setBoolean( nIndex++, campaign.getActive( ) );
+            setInsertParameters( daoUtil, campaign );
 
             daoUtil.executeUpdate( );
             if ( daoUtil.nextGeneratedKey( ) )
@@ -94,14 +101,7 @@ public final class CampaignDAO implements ICampaignDAO
 
             if ( daoUtil.next( ) )
             {
-                campaign = new Campaign( );
-                int nIndex = 1;
-
-                campaign.setId( daoUtil.getInt( nIndex++ ) );
-                campaign.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                campaign.setTitle( daoUtil.getString( nIndex++ ) );
-                campaign.setDescription( daoUtil.getString( nIndex++ ) );
-                campaign.setActive( daoUtil.getBoolean( nIndex ) );
+                campaign = getRow( daoUtil );
             }
 
             return campaign;
@@ -122,14 +122,7 @@ public final class CampaignDAO implements ICampaignDAO
 
             if ( daoUtil.next( ) )
             {
-                campaign = new Campaign( );
-                int nIndex = 1;
-
-                campaign.setId( daoUtil.getInt( nIndex++ ) );
-                campaign.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                campaign.setTitle( daoUtil.getString( nIndex++ ) );
-                campaign.setDescription( daoUtil.getString( nIndex++ ) );
-                campaign.setActive( daoUtil.getBoolean( nIndex ) );
+                campaign = getRow( daoUtil );
             }
 
             return campaign;
@@ -157,14 +150,7 @@ public final class CampaignDAO implements ICampaignDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
         {
-            int nIndex = 1;
-
-            daoUtil.setInt( nIndex++, campaign.getId( ) );
-            daoUtil.setString( nIndex++, campaign.getCampaignCode( ) );
-            daoUtil.setString( nIndex++, campaign.getTitle( ) );
-            daoUtil.setString( nIndex++, campaign.getDescription( ) );
-            daoUtil.setBoolean( nIndex++, campaign.getActive( ) );
-            daoUtil.setInt( nIndex, campaign.getId( ) );
+            setUpdateParameters( daoUtil, campaign );
 
             daoUtil.executeUpdate( );
         }
@@ -183,14 +169,7 @@ public final class CampaignDAO implements ICampaignDAO
 
             while ( daoUtil.next( ) )
             {
-                Campaign campaign = new Campaign( );
-                int nIndex = 1;
-
-                campaign.setId( daoUtil.getInt( nIndex++ ) );
-                campaign.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                campaign.setTitle( daoUtil.getString( nIndex++ ) );
-                campaign.setDescription( daoUtil.getString( nIndex++ ) );
-                campaign.setActive( daoUtil.getBoolean( nIndex ) );
+                Campaign campaign = getRow( daoUtil );
 
                 campaignList.add( campaign );
             }
@@ -199,6 +178,41 @@ public final class CampaignDAO implements ICampaignDAO
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Campaign> selectCampaignsSummaryList( Plugin plugin )
+    {
+        List<Campaign> campaignList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_SUMMARY, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                campaignList.add( getSummaryRow( daoUtil ) );
+            }
+
+            return campaignList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String loadDescription( int nKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_DESCRIPTION, plugin ) )
+        {
+            daoUtil.setInt( 1, nKey );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getString( 1 ) : null;
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -239,4 +253,264 @@ public final class CampaignDAO implements ICampaignDAO
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Campaign> selectCampaignsPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL_SUMMARY, SQL_TABLE, SQL_COLUMN_ID, filter, true );
+        List<Campaign> campaignList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getPageQuery( ), plugin ) )
+        {
+            query.setPageParameters( daoUtil, nAfterId, nOffset, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                campaignList.add( getSummaryRow( daoUtil ) );
+            }
+        }
+        loadDescriptions( campaignList, plugin );
+
+        return campaignList;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countCampaigns( ListFilter filter, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL_SUMMARY, SQL_TABLE, SQL_COLUMN_ID, filter, true );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getCountQuery( ), plugin ) )
+        {
+            query.setCountParameters( daoUtil );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getInt( 1 ) : 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, Campaign> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin )
+    {
+        Map<Integer, Campaign> mapCampaigns = new HashMap<>( );
+        for ( List<Integer> listChunk : InQuery.chunks( listKeys ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL, SQL_COLUMN_ID, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setIntParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    Campaign campaign = getRow( daoUtil );
+                    mapCampaigns.put( campaign.getId( ), campaign );
+                }
+            }
+        }
+
+        return mapCampaigns;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<String, Campaign> loadByCampaignCodes( Collection<String> listCampaignCodes, Plugin plugin )
+    {
+        Map<String, Campaign> mapCampaigns = new HashMap<>( );
+        for ( List<String> listChunk : InQuery.chunks( listCampaignCodes ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL, SQL_COLUMN_CODE, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setStringParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    Campaign campaign = getRow( daoUtil );
+                    mapCampaigns.put( campaign.getCampaignCode( ), campaign );
+                }
+            }
+        }
+
+        return mapCampaigns;
+    }
+
+    /**
+     * Reads a campaign from the current row of a query on all the columns
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @return the campaign
+     */
+    private Campaign getRow( DAOUtil daoUtil )
+    {
+        Campaign campaign = new Campaign( );
+        int nIndex = 1;
+
+        campaign.setId( daoUtil.getInt( nIndex++ ) );
+        campaign.setCampaignCode( daoUtil.getString( nIndex++ ) );
+        campaign.setTitle( daoUtil.getString( nIndex++ ) );
+        campaign.setDescription( daoUtil.getString( nIndex++ ) );
+        campaign.setActive( daoUtil.getBoolean( nIndex ) );
+
+        return campaign;
+    }
+
+    /**
+     * Reads a campaign without its description from the current row of a summary query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @return the campaign
+     */
+    private Campaign getSummaryRow( DAOUtil daoUtil )
+    {
+        Campaign campaign = new Campaign( );
+        int nIndex = 1;
+
+        campaign.setId( daoUtil.getInt( nIndex++ ) );
+        campaign.setCampaignCode( daoUtil.getString( nIndex++ ) );
+        campaign.setTitle( daoUtil.getString( nIndex++ ) );
+        campaign.setActive( daoUtil.getBoolean( nIndex ) );
+
+        return campaign;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertAll( Collection<Campaign> listCampaigns, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+            {
+                for ( Campaign campaign : listCampaigns )
+                {
+                    setInsertParameters( daoUtil, campaign );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+
+                // The keys are generated in the order of the batch
+                for ( Campaign campaign : listCampaigns )
+                {
+                    if ( !daoUtil.nextGeneratedKey( ) )
+                    {
+                        throw new AppException( "No generated key returned for the campaign " + campaign.getCampaignCode( ) );
+                    }
+                    campaign.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+                }
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeAll( Collection<Campaign> listCampaigns, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+            {
+                for ( Campaign campaign : listCampaigns )
+                {
+                    setUpdateParameters( daoUtil, campaign );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the parameters of the insert query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param campaign
+     *            the campaign to insert
+     */
+    private void setInsertParameters( DAOUtil daoUtil, Campaign campaign )
+    {
+        int nIndex = 1;
+        daoUtil.setString( nIndex++, campaign.getCampaignCode( ) );
+        daoUtil.setString( nIndex++, campaign.getTitle( ) );
+        daoUtil.setString( nIndex++, campaign.getDescription( ) );
+        daoUtil.setBoolean( nIndex++, campaign.getActive( ) );
+    }
+
+    /**
+     * Sets the parameters of the update query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param campaign
+     *            the campaign to update
+     */
+    private void setUpdateParameters( DAOUtil daoUtil, Campaign campaign )
+    {
+        int nIndex = 1;
+        daoUtil.setInt( nIndex++, campaign.getId( ) );
+        daoUtil.setString( nIndex++, campaign.getCampaignCode( ) );
+        daoUtil.setString( nIndex++, campaign.getTitle( ) );
+        daoUtil.setString( nIndex++, campaign.getDescription( ) );
+        daoUtil.setBoolean( nIndex++, campaign.getActive( ) );
+        daoUtil.setInt( nIndex, campaign.getId( ) );
+    }
+
+    /**
+     * Sets the descriptions of campaigns read without them, with one query per chunk of ids
+     * 
+     * @param listCampaigns
+     *            the campaigns
+     * @param plugin
+     *            the Plugin
+     */
+    private void loadDescriptions( List<Campaign> listCampaigns, Plugin plugin )
+    {
+        Map<Integer, Campaign> mapCampaigns = new HashMap<>( );
+        for ( Campaign campaign : listCampaigns )
+        {
+            mapCampaigns.put( campaign.getId( ), campaign );
+        }
+
+        for ( List<Integer> listChunk : InQuery.chunks( mapCampaigns.keySet( ) ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL_DESCRIPTIONS, SQL_COLUMN_ID, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setIntParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    mapCampaigns.get( daoUtil.getInt( 1 ) ).setDescription( daoUtil.getString( 2 ) );
+                }
+            }
+        }
+    }
 }
@@ -37,8 +37,12 @@ import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.util.ReferenceList;
+import fr.paris.lutece.util.sql.TransactionManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class provides instances management methods (create, find, ...) for Campaign objects
@@ -48,6 +52,7 @@ public final class CampaignHome
     // Static variable pointed at the DAO instance
     private static ICampaignDAO _dao = SpringContextService.getBean( "campaign.campaignDAO" );
     private static Plugin _plugin = PluginService.getPlugin( "campaign" );
+    private static ResourceChangeNotifier<Campaign> _notifier = new ResourceChangeNotifier<>( );
 
     /**
      * Private constructor - this class need not be instantiated
@@ -65,7 +70,7 @@ public final class CampaignHome
      */
     public static Campaign create( Campaign campaign )
     {
-        _dao.insert( campaign, _plugin );
+        DataVersionHome.write( ( ) -> _dao.insert( campaign, _plugin ), ( ) -> _notifier.fireCreated( campaign ) );
 
         return campaign;
     }
@@ -79,11 +84,46 @@ public final class CampaignHome
      */
     public static Campaign update( Campaign campaign )
     {
-        _dao.store( campaign, _plugin );
+        DataVersionHome.write( ( ) -> _dao.store( campaign, _plugin ), ( ) -> _notifier.fireUpdated( campaign ) );
 
         return campaign;
     }
 
+    /**
+     * Create several campaigns with a single batch of inserts, in one transaction with the increment of the data version. The identifiers generated
+     * by the database are set on the campaigns
+     * 
+     * @param listCampaigns
+     *            The campaigns to create
+     * @return The campaigns which have been created
+     */
+    public static Collection<Campaign> createAll( Collection<Campaign> listCampaigns )
+    {
+        if ( !listCampaigns.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.insertAll( listCampaigns, _plugin ), ( ) -> listCampaigns.forEach( _notifier::fireCreated ) );
+        }
+
+        return listCampaigns;
+    }
+
+    /**
+     * Update several campaigns with a single batch of updates, in one transaction with the increment of the data version
+     * 
+     * @param listCampaigns
+     *            The campaigns to update
+     * @return The campaigns which have been updated
+     */
+    public static Collection<Campaign> updateAll( Collection<Campaign> listCampaigns )
+    {
+        if ( !listCampaigns.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.storeAll( listCampaigns, _plugin ), ( ) -> listCampaigns.forEach( _notifier::fireUpdated ) );
+        }
+
+        return listCampaigns;
+    }
+
     /**
      * Remove the campaign whose identifier is specified in parameter
      * 
@@ -92,7 +132,29 @@ public final class CampaignHome
      */
     public static void remove( int nKey )
     {
-        _dao.delete( nKey, _plugin );
+        DataVersionHome.write( ( ) -> _dao.delete( nKey, _plugin ), ( ) -> _notifier.fireRemoved( nKey ) );
+    }
+
+    /**
+     * Registers a listener notified of the campaign changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void registerListener( IResourceChangeListener<Campaign> listener )
+    {
+        _notifier.register( listener );
+    }
+
+    /**
+     * Unregisters a listener of the campaign changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void unregisterListener( IResourceChangeListener<Campaign> listener )
+    {
+        _notifier.unregister( listener );
     }
 
     /**
@@ -119,6 +181,37 @@ public final class CampaignHome
         return _dao.loadByCampaignCode( strCampaignCode, _plugin );
     }
 
+    /**
+     * Returns a campaign with its phases, its themes and its areas, loaded on a single connection. The queries run in a read transaction, so that
+     * they read the same state of the data. The themes are loaded with their descriptions, so that rendering the aggregate reads nothing more.
+     * 
+     * @param strCampaignCode
+     *            The campaign code
+     * @return the aggregate of the campaign, or null if there is no campaign with this code
+     */
+    public static CampaignAggregate findAggregateByCampaignCode( String strCampaignCode )
+    {
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            CampaignAggregate aggregate = null;
+            Campaign campaign = _dao.loadByCampaignCode( strCampaignCode, _plugin );
+            if ( campaign != null )
+            {
+                aggregate = new CampaignAggregate( campaign, PhaseHome.getOrderedPhasesListByCampaign( strCampaignCode ),
+                        new ArrayList<>( ThemeHome.getThemesListByCampaign( strCampaignCode ) ), AreaHome.getAreasListByCampaign( strCampaignCode ) );
+            }
+            TransactionManager.commitTransaction( _plugin );
+
+            return aggregate;
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw e;
+        }
+    }
+
     /**
      * Load the data of all the campaign objects and returns them as a list
      * 
@@ -129,6 +222,28 @@ public final class CampaignHome
         return _dao.selectCampaignsList( _plugin );
     }
 
+    /**
+     * Load the data of all the campaign objects without their descriptions, which are read with {@link #findDescription(int)}
+     * 
+     * @return the list which contains the data of all the campaign objects, whose descriptions are null
+     */
+    public static List<Campaign> getCampaignsSummaryList( )
+    {
+        return _dao.selectCampaignsSummaryList( _plugin );
+    }
+
+    /**
+     * Returns the description of a campaign
+     * 
+     * @param nKey
+     *            The campaign primary key
+     * @return the description, or null if the campaign does not exist
+     */
+    public static String findDescription( int nKey )
+    {
+        return _dao.loadDescription( nKey, _plugin );
+    }
+
     /**
      * Load the id of all the campaign objects and returns them as a list
      * 
@@ -149,4 +264,57 @@ public final class CampaignHome
         return _dao.selectCampaignsReferenceList( _plugin );
     }
 
+    /**
+     * Load a page of the campaigns matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter, filtered by campaign and by active flag
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of campaigns skipped after this id
+     * @param nLimit
+     *            the maximum number of campaigns of the page
+     * @return the campaigns of the page, with their descriptions
+     */
+    public static List<Campaign> getCampaignsPage( ListFilter filter, int nAfterId, int nOffset, int nLimit )
+    {
+        return _dao.selectCampaignsPage( filter, nAfterId, nOffset, nLimit, _plugin );
+    }
+
+    /**
+     * Count the campaigns matching a filter
+     * 
+     * @param filter
+     *            the filter, filtered by campaign and by active flag
+     * @return the number of campaigns
+     */
+    public static int countCampaigns( ListFilter filter )
+    {
+        return _dao.countCampaigns( filter, _plugin );
+    }
+
+    /**
+     * Returns the campaigns whose identifiers are specified in parameter, with one query per chunk of identifiers instead of one query per campaign
+     * 
+     * @param listKeys
+     *            the campaign primary keys
+     * @return the campaigns mapped by identifier, without the unknown identifiers
+     */
+    public static Map<Integer, Campaign> findByPrimaryKeys( Collection<Integer> listKeys )
+    {
+        return _dao.loadByPrimaryKeys( listKeys, _plugin );
+    }
+
+    /**
+     * Returns the campaigns whose codes are specified in parameter, with one query per chunk of codes instead of one query per campaign
+     * 
+     * @param listCampaignCodes
+     *            the campaign codes
+     * @return the campaigns mapped by code, without the unknown codes
+     */
+    public static Map<String, Campaign> findByCodes( Collection<String> listCampaignCodes )
+    {
+        return _dao.loadByCampaignCodes( listCampaignCodes, _plugin );
+    }
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.util.sql.TransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * This class provides the version of the campaign data, incremented on every write so that each node can detect the changes made by the others
+ */
+public final class DataVersionHome
+{
+    // Static variable pointed at the DAO instance
+    private static IDataVersionDAO _dao = SpringContextService.getBean( "campaign.dataVersionDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "campaign" );
+    private static final ThreadLocal<List<Runnable>> _deferredNotifications = new ThreadLocal<>( );
+    private static final List<LongConsumer> _listWriteListeners = new CopyOnWriteArrayList<>( );
+
+    /**
+     * Version returned by a write whose commit is deferred
+     */
+    public static final long VERSION_DEFERRED = -1;
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private DataVersionHome( )
+    {
+    }
+
+    /**
+     * Increments the version of the campaign data
+     */
+    public static void increment( )
+    {
+        _dao.increment( _plugin );
+    }
+
+    /**
+     * Registers a listener of the versions written by this node, called with each version once its write is committed
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void registerWriteListener( LongConsumer listener )
+    {
+        _listWriteListeners.add( listener );
+    }
+
+    /**
+     * Runs a write of the campaign data and increments the version in the same transaction, so that the other nodes see the change whenever it is
+     * committed, then runs the notification of the change. Within deferred writes begun on the current thread, the write joins their transaction,
+     * and the increment and the notification wait for their commit.
+     * 
+     * @param write
+     *            the write of the campaign data
+     * @param notification
+     *            the notification of the change, run once it is committed
+     * @return the version of the data written, or VERSION_DEFERRED if the write waits for the commit of the deferred writes
+     */
+    public static long write( Runnable write, Runnable notification )
+    {
+        List<Runnable> listDeferredNotifications = _deferredNotifications.get( );
+        if ( listDeferredNotifications != null )
+        {
+            write.run( );
+            listDeferredNotifications.add( notification );
+            return VERSION_DEFERRED;
+        }
+
+        long lVersion;
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            write.run( );
+            lVersion = incrementAndLoad( );
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw e;
+        }
+        notifyWritten( lVersion );
+        notification.run( );
+
+        return lVersion;
+    }
+
+    /**
+     * Begins a transaction grouping the next writes of the current thread. Their notifications are queued, so that no cache is reloaded before the
+     * transaction is either committed by {@link #commitDeferredWrites()} or rolled back by {@link #rollBackDeferredWrites()}.
+     */
+    public static void beginDeferredWrites( )
+    {
+        if ( _deferredNotifications.get( ) != null )
+        {
+            throw new IllegalStateException( "Deferred writes have already been begun on this thread" );
+        }
+        TransactionManager.beginTransaction( _plugin );
+        _deferredNotifications.set( new ArrayList<>( ) );
+    }
+
+    /**
+     * Increments the version once if some data has been written, commits the deferred writes, then runs their queued notifications. If the commit
+     * fails, the transaction is rolled back and the notifications are dropped.
+     * 
+     * @return the version of the data written, or VERSION_DEFERRED if no data has been written
+     */
+    public static long commitDeferredWrites( )
+    {
+        List<Runnable> listDeferredNotifications = _deferredNotifications.get( );
+        _deferredNotifications.remove( );
+        long lVersion = VERSION_DEFERRED;
+        try
+        {
+            if ( !listDeferredNotifications.isEmpty( ) )
+            {
+                lVersion = incrementAndLoad( );
+            }
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw e;
+        }
+        catch( Error e )
+        {
+            TransactionManager.rollBack( _plugin );
+            throw e;
+        }
+        if ( lVersion != VERSION_DEFERRED )
+        {
+            notifyWritten( lVersion );
+        }
+        listDeferredNotifications.forEach( Runnable::run );
+
+        return lVersion;
+    }
+
+    /**
+     * Rolls back the deferred writes and drops their queued notifications
+     */
+    public static void rollBackDeferredWrites( )
+    {
+        _deferredNotifications.remove( );
+        TransactionManager.rollBack( _plugin );
+    }
+
+    /**
+     * Increments the version within the current transaction and reads it back. The row stays locked by the increment until the commit, so the version
+     * read is the one of this write.
+     * 
+     * @return the incremented version
+     */
+    private static long incrementAndLoad( )
+    {
+        _dao.increment( _plugin );
+
+        return _dao.load( _plugin );
+    }
+
+    /**
+     * Notifies the listeners of a version written by this node
+     * 
+     * @param lVersion
+     *            the version
+     */
+    private static void notifyWritten( long lVersion )
+    {
+        for ( LongConsumer listener : _listWriteListeners )
+        {
+            listener.accept( lVersion );
+        }
+    }
+
+    /**
+     * Returns the version of the campaign data
+     * 
+     * @return the version, or -1 if there is no version row
+     */
+    public static long getVersion( )
+    {
+        return _dao.load( _plugin );
+    }
+}
@@ -36,7 +36,9 @@ package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * IAreaDAO Interface
@@ -96,6 +98,17 @@ public interface IAreaDAO
      */
     List<Area> selectAreasList( Plugin plugin );
 
+    /**
+     * Load the data of the area objects of a campaign and returns them as a list
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the area objects of the campaign
+     */
+    List<Area> selectAreasListByCampaign( String campaignCode, Plugin plugin );
+
     /**
      * Load the id of all the area objects and returns them as a list
      * 
@@ -113,4 +126,64 @@ public interface IAreaDAO
      * @return The referenceList which contains the data of all the area objects
      */
     ReferenceList selectAreasReferenceList( String campaignCode, Plugin plugin );
+
+    /**
+     * Load a page of the areas matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of areas skipped after this id
+     * @param nLimit
+     *            the maximum number of areas of the page
+     * @param plugin
+     *            the Plugin
+     * @return the areas of the page
+     */
+    List<Area> selectAreasPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin );
+
+    /**
+     * Count the areas matching a filter
+     * 
+     * @param filter
+     *            the filter
+     * @param plugin
+     *            the Plugin
+     * @return the number of areas
+     */
+    int countAreas( ListFilter filter, Plugin plugin );
+
+    /**
+     * Load the areas whose identifiers are specified in parameter, with one query per chunk of identifiers
+     * 
+     * @param listKeys
+     *            the identifiers
+     * @param plugin
+     *            the Plugin
+     * @return the areas mapped by identifier, without the unknown identifiers
+     */
+    Map<Integer, Area> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin );
+
+    /**
+     * Insert several records in the table with a single batch, in one transaction. The generated identifiers are set on the areas; if a key is
+     * not returned, the transaction is rolled back and an AppException is thrown
+     * 
+     * @param listAreas
+     *            the areas to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertAll( Collection<Area> listAreas, Plugin plugin );
+
+    /**
+     * Update several records in the table with a single batch, in one transaction
+     * 
+     * @param listAreas
+     *            the areas to update
+     * @param plugin
+     *            the Plugin
+     */
+    void storeAll( Collection<Area> listAreas, Plugin plugin );
 }
@@ -36,7 +36,9 @@ package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ICampaignDAO Interface
@@ -107,6 +109,26 @@ public interface ICampaignDAO
      */
     List<Campaign> selectCampaignsList( Plugin plugin );
 
+    /**
+     * Load the data of all the campaign objects without their descriptions and returns them as a list
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of all the campaign objects, whose descriptions are null
+     */
+    List<Campaign> selectCampaignsSummaryList( Plugin plugin );
+
+    /**
+     * Load the description of a campaign
+     * 
+     * @param nKey
+     *            The identifier of the campaign
+     * @param plugin
+     *            the Plugin
+     * @return The description, or null if the campaign does not exist
+     */
+    String loadDescription( int nKey, Plugin plugin );
+
     /**
      * Load the id of all the campaign objects and returns them as a list
      * 
@@ -125,4 +147,74 @@ public interface ICampaignDAO
      */
     ReferenceList selectCampaignsReferenceList( Plugin plugin );
 
+    /**
+     * Load a page of the campaigns matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of campaigns skipped after this id
+     * @param nLimit
+     *            the maximum number of campaigns of the page
+     * @param plugin
+     *            the Plugin
+     * @return the campaigns of the page, with their descriptions
+     */
+    List<Campaign> selectCampaignsPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin );
+
+    /**
+     * Count the campaigns matching a filter
+     * 
+     * @param filter
+     *            the filter
+     * @param plugin
+     *            the Plugin
+     * @return the number of campaigns
+     */
+    int countCampaigns( ListFilter filter, Plugin plugin );
+
+    /**
+     * Load the campaigns whose identifiers are specified in parameter, with one query per chunk of identifiers
+     * 
+     * @param listKeys
+     *            the identifiers
+     * @param plugin
+     *            the Plugin
+     * @return the campaigns mapped by identifier, without the unknown identifiers
+     */
+    Map<Integer, Campaign> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin );
+
+    /**
+     * Load the campaigns whose codes are specified in parameter, with one query per chunk of codes
+     * 
+     * @param listCampaignCodes
+     *            the campaign codes
+     * @param plugin
+     *            the Plugin
+     * @return the campaigns mapped by code, without the unknown codes
+     */
+    Map<String, Campaign> loadByCampaignCodes( Collection<String> listCampaignCodes, Plugin plugin );
+
+    /**
+     * Insert several records in the table with a single batch, in one transaction. The generated identifiers are set on the campaigns; if a key is
+     * not returned, the transaction is rolled back and an AppException is thrown
+     * 
+     * @param listCampaigns
+     *            the campaigns to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertAll( Collection<Campaign> listCampaigns, Plugin plugin );
+
+    /**
+     * Update several records in the table with a single batch, in one transaction
+     * 
+     * @param listCampaigns
+     *            the campaigns to update
+     * @param plugin
+     *            the Plugin
+     */
+    void storeAll( Collection<Campaign> listCampaigns, Plugin plugin );
 }
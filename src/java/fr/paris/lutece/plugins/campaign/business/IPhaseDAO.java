@@ -39,6 +39,7 @@ import fr.paris.lutece.util.ReferenceList;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * IPhaseDAO Interface
@@ -147,4 +148,75 @@ public interface IPhaseDAO
      * @return The collection which contains the data of all the campagnePhase objects
      */
     Collection<Phase> selectPhasesListByCampaign( String campagneCode, Plugin _plugin );
+
+    /**
+     * Load all the phases of a campaign, by order number
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @param plugin
+     *            the Plugin
+     * @return the phases of the campaign, by order number
+     */
+    List<Phase> selectOrderedPhasesListByCampaign( String campaignCode, Plugin plugin );
+
+    /**
+     * Load a page of the phases matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of phases skipped after this id
+     * @param nLimit
+     *            the maximum number of phases of the page
+     * @param plugin
+     *            the Plugin
+     * @return the phases of the page
+     */
+    List<Phase> selectPhasesPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin );
+
+    /**
+     * Count the phases matching a filter
+     * 
+     * @param filter
+     *            the filter
+     * @param plugin
+     *            the Plugin
+     * @return the number of phases
+     */
+    int countPhases( ListFilter filter, Plugin plugin );
+
+    /**
+     * Load the phases whose identifiers are specified in parameter, with one query per chunk of identifiers
+     * 
+     * @param listKeys
+     *            the identifiers
+     * @param plugin
+     *            the Plugin
+     * @return the phases mapped by identifier, without the unknown identifiers
+     */
+    Map<Integer, Phase> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin );
+
+    /**
+     * Insert several records in the table with a single batch, in one transaction. The generated identifiers are set on the phases; if a key is
+     * not returned, the transaction is rolled back and an AppException is thrown
+     * 
+     * @param listPhases
+     *            the phases to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertAll( Collection<Phase> listPhases, Plugin plugin );
+
+    /**
+     * Update several records in the table with a single batch, in one transaction
+     * 
+     * @param listPhases
+     *            the phases to update
+     * @param plugin
+     *            the Plugin
+     */
+    void storeAll( Collection<Phase> listPhases, Plugin plugin );
 }
@@ -99,6 +99,37 @@ public interface IThemeDAO
      */
     List<Theme> selectThemesList( Plugin plugin );
 
+    /**
+     * Load the data of all the theme objects without their descriptions and returns them as a list
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of all the theme objects, whose descriptions are null
+     */
+    List<Theme> selectThemesSummaryList( Plugin plugin );
+
+    /**
+     * Load the data of the theme objects of a campaign without their descriptions and returns them as a list
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the theme objects, whose descriptions are null
+     */
+    List<Theme> selectThemesSummaryListByCampaign( String campaignCode, Plugin plugin );
+
+    /**
+     * Load the description of a theme
+     * 
+     * @param nKey
+     *            The identifier of the theme
+     * @param plugin
+     *            the Plugin
+     * @return The description, or null if the theme does not exist
+     */
+    String loadDescription( int nKey, Plugin plugin );
+
     /**
      * Load the id of all the theme objects and returns them as a list
      * 
@@ -147,4 +178,75 @@ public interface IThemeDAO
      * @return The instance of the Theme
      */
     Theme loadByCodeTheme( String codeTheme, Plugin plugin );
+
+    /**
+     * Load a page of the themes matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of themes skipped after this id
+     * @param nLimit
+     *            the maximum number of themes of the page
+     * @param plugin
+     *            the Plugin
+     * @return the themes of the page, with their descriptions
+     */
+    List<Theme> selectThemesPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin );
+
+    /**
+     * Count the themes matching a filter
+     * 
+     * @param filter
+     *            the filter
+     * @param plugin
+     *            the Plugin
+     * @return the number of themes
+     */
+    int countThemes( ListFilter filter, Plugin plugin );
+
+    /**
+     * Load the themes whose identifiers are specified in parameter, with one query per chunk of identifiers
+     * 
+     * @param listKeys
+     *            the identifiers
+     * @param plugin
+     *            the Plugin
+     * @return the themes mapped by identifier, without the unknown identifiers
+     */
+    Map<Integer, Theme> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin );
+
+    /**
+     * Load the themes whose codes are specified in parameter, with one query per chunk of codes
+     * 
+     * @param listCodesTheme
+     *            the theme codes
+     * @param plugin
+     *            the Plugin
+     * @return the themes mapped by code, without the unknown codes
+     */
+    Map<String, Theme> loadByCodesTheme( Collection<String> listCodesTheme, Plugin plugin );
+
+    /**
+     * Insert several records in the table with a single batch, in one transaction. The generated identifiers are set on the themes; if a key is
+     * not returned, the transaction is rolled back and an AppException is thrown
+     * 
+     * @param listThemes
+     *            the themes to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertAll( Collection<Theme> listThemes, Plugin plugin );
+
+    /**
+     * Update several records in the table with a single batch, in one transaction
+     * 
+     * @param listThemes
+     *            the themes to update
+     * @param plugin
+     *            the Plugin
+     */
+    void storeAll( Collection<Theme> listThemes, Plugin plugin );
 }
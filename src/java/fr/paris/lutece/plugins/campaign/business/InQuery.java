@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import fr.paris.lutece.util.sql.DAOUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queries selecting the rows of a campaign table whose key is in a collection. The keys are sent in chunks of at most {@link #CHUNK_SIZE} parameters
+ * ( <code>WHERE column IN ( ?, ?, ... )</code> ), so that a page of results is resolved in one query whatever the number of keys, without building an
+ * unbounded statement.
+ */
+final class InQuery
+{
+    /** The maximum number of keys of a query */
+    static final int CHUNK_SIZE = 100;
+
+    private static final String SQL_WHERE = " WHERE ";
+    private static final String SQL_IN = " IN ( ";
+    private static final String SQL_PARAMETER = "?";
+    private static final String SQL_SEPARATOR = ", ";
+    private static final String SQL_END = " )";
+
+    private InQuery( )
+    {
+
+    }
+
+    /**
+     * Splits the keys in chunks, without the null and the duplicate keys
+     * 
+     * @param <K>
+     *            the type of the keys
+     * @param keys
+     *            the keys
+     * @return the chunks of at most {@link #CHUNK_SIZE} keys
+     */
+    static <K> List<List<K>> chunks( Collection<K> keys )
+    {
+        Set<K> setKeys = new LinkedHashSet<>( keys );
+        setKeys.remove( null );
+
+        List<List<K>> listChunks = new ArrayList<>( ( setKeys.size( ) + CHUNK_SIZE - 1 ) / CHUNK_SIZE );
+        List<K> listChunk = new ArrayList<>( Math.min( setKeys.size( ), CHUNK_SIZE ) );
+        for ( K key : setKeys )
+        {
+            if ( listChunk.size( ) == CHUNK_SIZE )
+            {
+                listChunks.add( listChunk );
+                listChunk = new ArrayList<>( CHUNK_SIZE );
+            }
+            listChunk.add( key );
+        }
+        if ( !listChunk.isEmpty( ) )
+        {
+            listChunks.add( listChunk );
+        }
+
+        return listChunks;
+    }
+
+    /**
+     * Returns the query selecting the rows whose key is in a chunk
+     * 
+     * @param strSelect
+     *            the select of all the rows of the table, without any clause
+     * @param strColumn
+     *            the key column
+     * @param nCount
+     *            the number of keys of the chunk
+     * @return the query
+     */
+    static String getQuery( String strSelect, String strColumn, int nCount )
+    {
+        StringBuilder sbQuery = new StringBuilder( strSelect ).append( SQL_WHERE ).append( strColumn ).append( SQL_IN );
+        for ( int i = 0; i < nCount; i++ )
+        {
+            if ( i > 0 )
+            {
+                sbQuery.append( SQL_SEPARATOR );
+            }
+            sbQuery.append( SQL_PARAMETER );
+        }
+
+        return sbQuery.append( SQL_END ).toString( );
+    }
+
+    /**
+     * Sets the integer keys of a chunk as the parameters of its query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param listKeys
+     *            the keys of the chunk
+     */
+    static void setIntParameters( DAOUtil daoUtil, List<Integer> listKeys )
+    {
+        int nIndex = 1;
+        for ( Integer nKey : listKeys )
+        {
+            daoUtil.setInt( nIndex++, nKey );
+        }
+    }
+
+    /**
+     * Sets the string keys of a chunk as the parameters of its query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param listKeys
+     *            the keys of the chunk
+     */
+    static void setStringParameters( DAOUtil daoUtil, List<String> listKeys )
+    {
+        int nIndex = 1;
+        for ( String strKey : listKeys )
+        {
+            daoUtil.setString( nIndex++, strKey );
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import java.io.Serializable;
+
+/**
+ * Filter of the admin listings of the campaigns, the phases, the themes and the areas
+ */
+public class ListFilter implements Serializable
+{
+    public static final int ALL_INT = -1;
+
+    private static final long serialVersionUID = 1L;
+
+    private String _strCampaignCode;
+    private int _nActive = ALL_INT;
+
+    /**
+     * Returns the code of the campaign of the listed resources
+     * 
+     * @return the campaign code, or null for all the campaigns
+     */
+    public String getCampaignCode( )
+    {
+        return _strCampaignCode;
+    }
+
+    /**
+     * Sets the code of the campaign of the listed resources
+     * 
+     * @param strCampaignCode
+     *            the campaign code, or null for all the campaigns
+     */
+    public void setCampaignCode( String strCampaignCode )
+    {
+        _strCampaignCode = strCampaignCode;
+    }
+
+    /**
+     * Tells whether the filter contains a campaign code
+     * 
+     * @return true if the listed resources are filtered by campaign
+     */
+    public boolean containsCampaignCode( )
+    {
+        return _strCampaignCode != null && !_strCampaignCode.isEmpty( );
+    }
+
+    /**
+     * Returns the active flag of the listed resources
+     * 
+     * @return 1 for the active resources, 0 for the inactive ones, or {@link #ALL_INT} for all of them
+     */
+    public int getActive( )
+    {
+        return _nActive;
+    }
+
+    /**
+     * Sets the active flag of the listed resources
+     * 
+     * @param nActive
+     *            1 for the active resources, 0 for the inactive ones, or {@link #ALL_INT} for all of them
+     */
+    public void setActive( int nActive )
+    {
+        _nActive = nActive;
+    }
+
+    /**
+     * Tells whether the filter contains an active flag
+     * 
+     * @return true if the listed resources are filtered by active flag
+     */
+    public boolean containsActive( )
+    {
+        return _nActive != ALL_INT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( Object object )
+    {
+        if ( !( object instanceof ListFilter ) )
+        {
+            return false;
+        }
+        ListFilter filter = (ListFilter) object;
+
+        return _nActive == filter._nActive && ( containsCampaignCode( ) ? _strCampaignCode.equals( filter._strCampaignCode ) : !filter.containsCampaignCode( ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode( )
+    {
+        return 31 * ( containsCampaignCode( ) ? _strCampaignCode.hashCode( ) : 0 ) + _nActive;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * Paged and filtered queries on a campaign table. The rows are sorted by id and a page starts after the last id of a previous page (keyset
+ * pagination) : the database seeks the first row of the page in the primary key instead of reading and skipping all the previous rows. The offset
+ * only skips the rows between the given id and the requested page, when the admin jumps over pages.
+ */
+final class PagedQuery
+{
+    private static final String SQL_SELECT_COUNT = "SELECT COUNT(*) FROM ";
+    private static final String SQL_WHERE = " WHERE ";
+    private static final String SQL_AND = " AND ";
+    private static final String SQL_FILTER_AFTER_ID = " > ?";
+    private static final String SQL_FILTER_CAMPAIGN_CODE = "campaign_code = ?";
+    private static final String SQL_FILTER_ACTIVE = "active = ?";
+    private static final String SQL_ORDER_BY = " ORDER BY ";
+    private static final String SQL_LIMIT = " LIMIT ? OFFSET ?";
+
+    private final ListFilter _filter;
+    private final boolean _bFilterCampaignCode;
+    private final boolean _bFilterActive;
+    private final String _strPageQuery;
+    private final String _strCountQuery;
+
+    /**
+     * Constructor
+     * 
+     * @param strSelect
+     *            the select of all the rows of the table, without any clause
+     * @param strTable
+     *            the table
+     * @param strIdColumn
+     *            the primary key column
+     * @param filter
+     *            the filter
+     * @param bActiveColumn
+     *            true if the table has an active column
+     */
+    PagedQuery( String strSelect, String strTable, String strIdColumn, ListFilter filter, boolean bActiveColumn )
+    {
+        _filter = filter;
+        _bFilterCampaignCode = filter.containsCampaignCode( );
+        _bFilterActive = bActiveColumn && filter.containsActive( );
+
+        StringBuilder sbFilter = new StringBuilder( );
+        if ( _bFilterCampaignCode )
+        {
+            sbFilter.append( SQL_AND ).append( SQL_FILTER_CAMPAIGN_CODE );
+        }
+        if ( _bFilterActive )
+        {
+            sbFilter.append( SQL_AND ).append( SQL_FILTER_ACTIVE );
+        }
+
+        _strPageQuery = strSelect + SQL_WHERE + strIdColumn + SQL_FILTER_AFTER_ID + sbFilter + SQL_ORDER_BY + strIdColumn + SQL_LIMIT;
+        _strCountQuery = SQL_SELECT_COUNT + strTable + ( ( sbFilter.length( ) > 0 ) ? SQL_WHERE + sbFilter.substring( SQL_AND.length( ) ) : "" );
+    }
+
+    /**
+     * Returns the query of a page
+     * 
+     * @return the query
+     */
+    String getPageQuery( )
+    {
+        return _strPageQuery;
+    }
+
+    /**
+     * Returns the query counting the filtered rows
+     * 
+     * @return the query
+     */
+    String getCountQuery( )
+    {
+        return _strCountQuery;
+    }
+
+    /**
+     * Sets the parameters of the query of a page
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of rows skipped after this id
+     * @param nLimit
+     *            the maximum number of rows of the page
+     */
+    void setPageParameters( DAOUtil daoUtil, int nAfterId, int nOffset, int nLimit )
+    {
+        int nIndex = 1;
+        daoUtil.setInt( nIndex++, nAfterId );
+        nIndex = setFilterParameters( daoUtil, nIndex );
+        daoUtil.setInt( nIndex++, nLimit );
+        daoUtil.setInt( nIndex, nOffset );
+    }
+
+    /**
+     * Sets the parameters of the query counting the filtered rows
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     */
+    void setCountParameters( DAOUtil daoUtil )
+    {
+        setFilterParameters( daoUtil, 1 );
+    }
+
+    /**
+     * Sets the parameters of the filter
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param nFirstIndex
+     *            the index of the first parameter
+     * @return the index of the next parameter
+     */
+    private int setFilterParameters( DAOUtil daoUtil, int nFirstIndex )
+    {
+        int nIndex = nFirstIndex;
+        if ( _bFilterCampaignCode )
+        {
+            daoUtil.setString( nIndex++, _filter.getCampaignCode( ) );
+        }
+        if ( _bFilterActive )
+        {
+            daoUtil.setBoolean( nIndex++, _filter.getActive( ) == 1 );
+        }
+
+        return nIndex;
+    }
+}
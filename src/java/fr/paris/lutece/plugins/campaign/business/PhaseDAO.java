@@ -35,12 +35,16 @@
 package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.sql.DAOUtil;
+import fr.paris.lutece.util.sql.TransactionManager;
 import java.sql.Statement;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Collection;
 
 /**
@@ -57,7 +61,11 @@ public final class PhaseDAO implements IPhaseDAO
     private static final String SQL_QUERY_SELECTALL_ID = "SELECT id_phase FROM campaign_phase";
     private static final String SQL_QUERY_SELECT_PHASE_TYPE = "SELECT phase_type_code, label FROM campaign_phase_types";
     private static final String SQL_QUERY_SELECT_BY_CAMPAIGN_AND_CODE_PHASE = "SELECT id_phase, campaign_code, starting_date, ending_date, label, order_num, phase_type_code FROM campaign_phase WHERE campaign_code = ? and phase_type_code = ? ";
-    private static final String SQL_QUERY_SELECTALL_BY_CAMPAIGN = SQL_QUERY_SELECTALL + " WHERE campaign_code = ?";
+    private static final String SQL_QUERY_SELECTALL_BY_CAMPAIGN = "SELECT id_phase, label, campaign_code, starting_date, ending_date FROM campaign_phase WHERE campaign_code = ?";
+    private static final String SQL_QUERY_SELECTALL_REF = "SELECT id_phase, campaign_code FROM campaign_phase";
+    private static final String SQL_QUERY_SELECTALL_BY_CAMPAIGN_ORDERED = SQL_QUERY_SELECTALL + " WHERE campaign_code = ? ORDER BY order_num, id_phase";
+    private static final String SQL_TABLE = "campaign_phase";
+    private static final String SQL_COLUMN_ID = "id_phase";
 
     /**
      * {@inheritDoc }
@@ -67,13 +75,7 @@ public final class PhaseDAO implements IPhaseDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
         {
-            int nIndex = 1;
-            daoUtil.setString( nIndex++, phase.getCampaignCode( ) );
-            daoUtil.setTimestamp( nIndex++, phase.getStartingTimeStampDate( ) );
-            daoUtil.setTimestamp( nIndex++, phase.getEndingTimeStampDate( ) );
-            daoUtil.setString( nIndex++, phase.getLabel( ) );
-            daoUtil.setInt( nIndex++, phase.getOrderNum( ) );
-            daoUtil.setString( nIndex++, phase.getCodePhaseType( ) );
+            setInsertParameters( daoUtil, phase );
 
             daoUtil.executeUpdate( );
             if ( daoUtil.nextGeneratedKey( ) )
@@ -98,16 +100,7 @@ public final class PhaseDAO implements IPhaseDAO
 
             if ( daoUtil.next( ) )
             {
-                phase = new Phase( );
-                int nIndex = 1;
-
-                phase.setId( daoUtil.getInt( nIndex++ ) );
-                phase.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                phase.setStartingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
-                phase.setEndingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
-                phase.setLabel( daoUtil.getString( nIndex++ ) );
-                phase.setOrderNum( daoUtil.getInt( nIndex++ ) );
-                phase.setCodePhaseType( daoUtil.getString( nIndex ) );
+                phase = getRow( daoUtil );
 
             }
 
@@ -130,16 +123,7 @@ public final class PhaseDAO implements IPhaseDAO
 
             if ( daoUtil.next( ) )
             {
-                phase = new Phase( );
-                int nIndex = 1;
-
-                phase.setId( daoUtil.getInt( nIndex++ ) );
-                phase.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                phase.setStartingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
-                phase.setEndingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
-                phase.setLabel( daoUtil.getString( nIndex++ ) );
-                phase.setOrderNum( daoUtil.getInt( nIndex++ ) );
-                phase.setCodePhaseType( daoUtil.getString( nIndex ) );
+                phase = getRow( daoUtil );
             }
 
             return phase;
@@ -167,17 +151,7 @@ public final class PhaseDAO implements IPhaseDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
         {
-            int nIndex = 1;
-
-            daoUtil.setInt( nIndex++, phase.getId( ) );
-            daoUtil.setString( nIndex++, phase.getCampaignCode( ) );
-            daoUtil.setTimestamp( nIndex++, phase.getStartingTimeStampDate( ) );
-            daoUtil.setTimestamp( nIndex++, phase.getEndingTimeStampDate( ) );
-            daoUtil.setString( nIndex++, phase.getLabel( ) );
-            daoUtil.setInt( nIndex++, phase.getOrderNum( ) );
-            daoUtil.setString( nIndex++, phase.getCodePhaseType( ) );
-
-            daoUtil.setInt( nIndex, phase.getId( ) );
+            setUpdateParameters( daoUtil, phase );
 
             daoUtil.executeUpdate( );
         }
@@ -196,17 +170,7 @@ public final class PhaseDAO implements IPhaseDAO
 
             while ( daoUtil.next( ) )
             {
-                Phase phase = new Phase( );
-                int nIndex = 1;
-
-                phase.setId( daoUtil.getInt( nIndex++ ) );
-                phase.setCampaignCode( daoUtil.getString( nIndex++ ) );
-                phase.setStartingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
-                phase.setEndingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
-                phase.setLabel( daoUtil.getString( nIndex++ ) );
-                phase.setOrderNum( daoUtil.getInt( nIndex++ ) );
-                phase.setCodePhaseType( daoUtil.getString( nIndex ) );
-                phaseList.add( phase );
+                phaseList.add( getRow( daoUtil ) );
             }
 
             return phaseList;
@@ -240,7 +204,7 @@ public final class PhaseDAO implements IPhaseDAO
     public ReferenceList selectPhasesReferenceList( Plugin plugin )
     {
         ReferenceList phaseList = new ReferenceList( );
-        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL, plugin ) )
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_REF, plugin ) )
         {
             daoUtil.executeQuery( );
 
@@ -301,4 +265,216 @@ public final class PhaseDAO implements IPhaseDAO
         }
 
     }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Phase> selectOrderedPhasesListByCampaign( String campaignCode, Plugin plugin )
+    {
+        List<Phase> phaseList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_BY_CAMPAIGN_ORDERED, plugin ) )
+        {
+            daoUtil.setString( 1, campaignCode );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                phaseList.add( getRow( daoUtil ) );
+            }
+
+            return phaseList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Phase> selectPhasesPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL, SQL_TABLE, SQL_COLUMN_ID, filter, false );
+        List<Phase> phaseList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getPageQuery( ), plugin ) )
+        {
+            query.setPageParameters( daoUtil, nAfterId, nOffset, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                phaseList.add( getRow( daoUtil ) );
+            }
+
+            return phaseList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countPhases( ListFilter filter, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL, SQL_TABLE, SQL_COLUMN_ID, filter, false );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getCountQuery( ), plugin ) )
+        {
+            query.setCountParameters( daoUtil );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getInt( 1 ) : 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, Phase> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin )
+    {
+        Map<Integer, Phase> mapPhases = new HashMap<>( );
+        for ( List<Integer> listChunk : InQuery.chunks( listKeys ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL, SQL_COLUMN_ID, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setIntParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    Phase phase = getRow( daoUtil );
+                    mapPhases.put( phase.getId( ), phase );
+                }
+            }
+        }
+
+        return mapPhases;
+    }
+
+    /**
+     * Reads a phase from the current row of a query on all the columns
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @return the phase
+     */
+    private Phase getRow( DAOUtil daoUtil )
+    {
+        Phase phase = new Phase( );
+        int nIndex = 1;
+
+        phase.setId( daoUtil.getInt( nIndex++ ) );
+        phase.setCampaignCode( daoUtil.getString( nIndex++ ) );
+        phase.setStartingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
+        phase.setEndingTimeStampDate( daoUtil.getTimestamp( nIndex++ ) );
+        phase.setLabel( daoUtil.getString( nIndex++ ) );
+        phase.setOrderNum( daoUtil.getInt( nIndex++ ) );
+        phase.setCodePhaseType( daoUtil.getString( nIndex ) );
+
+        return phase;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertAll( Collection<Phase> listPhases, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+            {
+                for ( Phase phase : listPhases )
+                {
+                    setInsertParameters( daoUtil, phase );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+
+                // The keys are generated in the order of the batch
+                for ( Phase phase : listPhases )
+                {
+                    if ( !daoUtil.nextGeneratedKey( ) )
+                    {
+                        throw new AppException( "No generated key returned for the phase " + phase.getLabel( ) );
+                    }
+                    phase.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+                }
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeAll( Collection<Phase> listPhases, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+            {
+                for ( Phase phase : listPhases )
+                {
+                    setUpdateParameters( daoUtil, phase );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the parameters of the insert query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param phase
+     *            the phase to insert
+     */
+    private void setInsertParameters( DAOUtil daoUtil, Phase phase )
+    {
+        int nIndex = 1;
+        daoUtil.setString( nIndex++, phase.getCampaignCode( ) );
+        daoUtil.setTimestamp( nIndex++, phase.getStartingTimeStampDate( ) );
+        daoUtil.setTimestamp( nIndex++, phase.getEndingTimeStampDate( ) );
+        daoUtil.setString( nIndex++, phase.getLabel( ) );
+        daoUtil.setInt( nIndex++, phase.getOrderNum( ) );
+        daoUtil.setString( nIndex++, phase.getCodePhaseType( ) );
+    }
+
+    /**
+     * Sets the parameters of the update query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param phase
+     *            the phase to update
+     */
+    private void setUpdateParameters( DAOUtil daoUtil, Phase phase )
+    {
+        int nIndex = 1;
+        daoUtil.setInt( nIndex++, phase.getId( ) );
+        daoUtil.setString( nIndex++, phase.getCampaignCode( ) );
+        daoUtil.setTimestamp( nIndex++, phase.getStartingTimeStampDate( ) );
+        daoUtil.setTimestamp( nIndex++, phase.getEndingTimeStampDate( ) );
+        daoUtil.setString( nIndex++, phase.getLabel( ) );
+        daoUtil.setInt( nIndex++, phase.getOrderNum( ) );
+        daoUtil.setString( nIndex++, phase.getCodePhaseType( ) );
+
+        daoUtil.setInt( nIndex, phase.getId( ) );
+    }
 }
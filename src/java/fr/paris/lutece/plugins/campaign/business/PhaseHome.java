@@ -39,6 +39,7 @@ import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.util.ReferenceList;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Collection;
 
 /**
@@ -49,6 +50,7 @@ public final class PhaseHome
     // Static variable pointed at the DAO instance
     private static IPhaseDAO _dao = SpringContextService.getBean( "campaign.phaseDAO" );
     private static Plugin _plugin = PluginService.getPlugin( "campaign" );
+    private static ResourceChangeNotifier<Phase> _notifier = new ResourceChangeNotifier<>( );
 
     /**
      * Private constructor - this class need not be instantiated
@@ -66,7 +68,7 @@ public final class PhaseHome
      */
     public static Phase create( Phase phase )
     {
-        _dao.insert( phase, _plugin );
+        DataVersionHome.write( ( ) -> _dao.insert( phase, _plugin ), ( ) -> _notifier.fireCreated( phase ) );
 
         return phase;
     }
@@ -80,11 +82,46 @@ public final class PhaseHome
      */
     public static Phase update( Phase phase )
     {
-        _dao.store( phase, _plugin );
+        DataVersionHome.write( ( ) -> _dao.store( phase, _plugin ), ( ) -> _notifier.fireUpdated( phase ) );
 
         return phase;
     }
 
+    /**
+     * Create several phases with a single batch of inserts, in one transaction with the increment of the data version. The identifiers generated by
+     * the database are set on the phases
+     * 
+     * @param listPhases
+     *            The phases to create
+     * @return The phases which have been created
+     */
+    public static Collection<Phase> createAll( Collection<Phase> listPhases )
+    {
+        if ( !listPhases.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.insertAll( listPhases, _plugin ), ( ) -> listPhases.forEach( _notifier::fireCreated ) );
+        }
+
+        return listPhases;
+    }
+
+    /**
+     * Update several phases with a single batch of updates, in one transaction with the increment of the data version
+     * 
+     * @param listPhases
+     *            The phases to update
+     * @return The phases which have been updated
+     */
+    public static Collection<Phase> updateAll( Collection<Phase> listPhases )
+    {
+        if ( !listPhases.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.storeAll( listPhases, _plugin ), ( ) -> listPhases.forEach( _notifier::fireUpdated ) );
+        }
+
+        return listPhases;
+    }
+
     /**
      * Remove the phase whose identifier is specified in parameter
      * 
@@ -93,7 +130,29 @@ public final class PhaseHome
      */
     public static void remove( int nKey )
     {
-        _dao.delete( nKey, _plugin );
+        DataVersionHome.write( ( ) -> _dao.delete( nKey, _plugin ), ( ) -> _notifier.fireRemoved( nKey ) );
+    }
+
+    /**
+     * Registers a listener notified of the phase changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void registerListener( IResourceChangeListener<Phase> listener )
+    {
+        _notifier.register( listener );
+    }
+
+    /**
+     * Unregisters a listener of the phase changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void unregisterListener( IResourceChangeListener<Phase> listener )
+    {
+        _notifier.unregister( listener );
     }
 
     /**
@@ -175,4 +234,58 @@ public final class PhaseHome
     {
         return _dao.selectPhasesListByCampaign( campagneCode, _plugin );
     }
+
+    /**
+     * Load all the phases of a campaign, by order number
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return the phases of the campaign, by order number
+     */
+    public static List<Phase> getOrderedPhasesListByCampaign( String campaignCode )
+    {
+        return _dao.selectOrderedPhasesListByCampaign( campaignCode, _plugin );
+    }
+
+    /**
+     * Load a page of the phases matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter, filtered by campaign
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of phases skipped after this id
+     * @param nLimit
+     *            the maximum number of phases of the page
+     * @return the phases of the page
+     */
+    public static List<Phase> getPhasesPage( ListFilter filter, int nAfterId, int nOffset, int nLimit )
+    {
+        return _dao.selectPhasesPage( filter, nAfterId, nOffset, nLimit, _plugin );
+    }
+
+    /**
+     * Count the phases matching a filter
+     * 
+     * @param filter
+     *            the filter, filtered by campaign
+     * @return the number of phases
+     */
+    public static int countPhases( ListFilter filter )
+    {
+        return _dao.countPhases( filter, _plugin );
+    }
+
+    /**
+     * Returns the phases whose identifiers are specified in parameter, with one query per chunk of identifiers instead of one query per phase
+     * 
+     * @param listKeys
+     *            the phase primary keys
+     * @return the phases mapped by identifier, without the unknown identifiers
+     */
+    public static Map<Integer, Phase> findByPrimaryKeys( Collection<Integer> listKeys )
+    {
+        return _dao.loadByPrimaryKeys( listKeys, _plugin );
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Dispatches the changes made through a Home class to the registered listeners. A failing listener is logged and does not prevent the other
+ * listeners from being notified.
+ * 
+ * @param <T>
+ *            the business class
+ */
+public final class ResourceChangeNotifier<T>
+{
+    private final List<IResourceChangeListener<T>> _listListeners = new CopyOnWriteArrayList<>( );
+
+    /**
+     * Registers a listener
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void register( IResourceChangeListener<T> listener )
+    {
+        _listListeners.add( listener );
+    }
+
+    /**
+     * Unregisters a listener
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void unregister( IResourceChangeListener<T> listener )
+    {
+        _listListeners.remove( listener );
+    }
+
+    /**
+     * Notifies the creation of a resource
+     * 
+     * @param resource
+     *            the created resource
+     */
+    public void fireCreated( T resource )
+    {
+        for ( IResourceChangeListener<T> listener : _listListeners )
+        {
+            try
+            {
+                listener.resourceCreated( resource );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Error notifying the creation of a resource to " + listener, e );
+            }
+        }
+    }
+
+    /**
+     * Notifies the update of a resource
+     * 
+     * @param resource
+     *            the updated resource
+     */
+    public void fireUpdated( T resource )
+    {
+        for ( IResourceChangeListener<T> listener : _listListeners )
+        {
+            try
+            {
+                listener.resourceUpdated( resource );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Error notifying the update of a resource to " + listener, e );
+            }
+        }
+    }
+
+    /**
+     * Notifies the removal of a resource
+     * 
+     * @param nId
+     *            the identifier of the removed resource
+     */
+    public void fireRemoved( int nId )
+    {
+        for ( IResourceChangeListener<T> listener : _listListeners )
+        {
+            try
+            {
+                listener.resourceRemoved( nId );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Error notifying the removal of a resource to " + listener, e );
+            }
+        }
+    }
+}
@@ -35,8 +35,10 @@
 package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.sql.DAOUtil;
+import fr.paris.lutece.util.sql.TransactionManager;
 import java.sql.Statement;
 
 import java.util.ArrayList;
@@ -56,10 +58,17 @@ public final class ThemeDAO implements IThemeDAO
     private static final String SQL_QUERY_DELETE = "DELETE FROM campaign_theme WHERE id_theme = ? ";
     private static final String SQL_QUERY_UPDATE = "UPDATE campaign_theme SET id_theme = ?, campaign_code = ?, code_theme = ?, title = ?, description = ?, active = ?, front_rgb = ?, image_file = ? WHERE id_theme = ?";
     private static final String SQL_QUERY_SELECTALL = "SELECT id_theme, campaign_code, code_theme, title, description, active, front_rgb, image_file FROM campaign_theme";
-    private static final String SQL_QUERY_SELECTALL_BY_CAMPAGNE = SQL_QUERY_SELECTALL + " WHERE campaign_code = ?";
+    private static final String SQL_QUERY_SELECTALL_BY_CAMPAGNE = SQL_QUERY_SELECTALL + " WHERE campaign_code = ? ORDER BY id_theme";
     private static final String SQL_QUERY_SELECTALL_ID = "SELECT id_theme FROM campaign_theme";
     private static final String SQL_QUERY_SELECT_BY_CODETHEME = "SELECT id_theme, campaign_code, code_theme, title, description, active, front_rgb, image_file FROM campaign_theme WHERE code_theme = ?";
     private static final String SQL_QUERY_REF_SELECT = "SELECT code_theme, title FROM campaign_theme";
+    private static final String SQL_QUERY_SELECTALL_SUMMARY = "SELECT id_theme, campaign_code, code_theme, title, active, front_rgb, image_file FROM campaign_theme";
+    private static final String SQL_QUERY_SELECTALL_SUMMARY_BY_CAMPAIGN = SQL_QUERY_SELECTALL_SUMMARY + " WHERE campaign_code = ? ORDER BY id_theme";
+    private static final String SQL_QUERY_SELECTALL_DESCRIPTIONS = "SELECT id_theme, description FROM campaign_theme";
+    private static final String SQL_QUERY_SELECT_DESCRIPTION = "SELECT description FROM campaign_theme WHERE id_theme = ?";
+    private static final String SQL_TABLE = "campaign_theme";
+    private static final String SQL_COLUMN_ID = "id_theme";
+    private static final String SQL_COLUMN_CODE = "code_theme";
 
     /**
      * {@inheritDoc }
@@ -69,14 +78,7 @@ public final class ThemeDAO implements IThemeDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
         {
-            int nIndex = 1;
-            daoUtil.setString( nIndex++, theme.getCampaignCode( ) );
-            daoUtil.setString( nIndex++, theme.getCode( ) );
-            daoUtil.setString( nIndex++, theme.getTitle( ) );
-            daoUtil.setString( nIndex++, theme.getDescription( ) );
-            daoUtil.setBoolean( nIndex++, theme.getActive( ) );
-            daoUtil.setString( nIndex++, theme.getFrontRgb( ) );
-            daoUtil.setInt( nIndex++, theme.getImageFile( ) );
+            setInsertParameters( daoUtil, theme );
 
             daoUtil.executeUpdate( );
             if ( daoUtil.nextGeneratedKey( ) )
@@ -128,17 +130,7 @@ public final class ThemeDAO implements IThemeDAO
     {
         try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
         {
-            int nIndex = 1;
-
-            daoUtil.setInt( nIndex++, theme.getId( ) );
-            daoUtil.setString( nIndex++, theme.getCampaignCode( ) );
-            daoUtil.setString( nIndex++, theme.getCode( ) );
-            daoUtil.setString( nIndex++, theme.getTitle( ) );
-            daoUtil.setString( nIndex++, theme.getDescription( ) );
-            daoUtil.setBoolean( nIndex++, theme.getActive( ) );
-            daoUtil.setString( nIndex++, theme.getFrontRgb( ) );
-            daoUtil.setInt( nIndex++, theme.getImageFile( ) );
-            daoUtil.setInt( nIndex, theme.getId( ) );
+            setUpdateParameters( daoUtil, theme );
 
             daoUtil.executeUpdate( );
         }
@@ -166,6 +158,62 @@ public final class ThemeDAO implements IThemeDAO
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Theme> selectThemesSummaryList( Plugin plugin )
+    {
+        List<Theme> themeList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_SUMMARY, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                themeList.add( getSummaryRow( daoUtil ) );
+            }
+
+            return themeList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Theme> selectThemesSummaryListByCampaign( String campaignCode, Plugin plugin )
+    {
+        List<Theme> themeList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_SUMMARY_BY_CAMPAIGN, plugin ) )
+        {
+            daoUtil.setString( 1, campaignCode );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                themeList.add( getSummaryRow( daoUtil ) );
+            }
+
+            return themeList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String loadDescription( int nKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_DESCRIPTION, plugin ) )
+        {
+            daoUtil.setInt( 1, nKey );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getString( 1 ) : null;
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -223,6 +271,29 @@ public final class ThemeDAO implements IThemeDAO
         return theme;
     }
 
+    /**
+     * Reads a theme without its description from a summary row
+     * 
+     * @param daoUtil
+     *            the DAOUtil positioned on the row
+     * @return the theme
+     */
+    private Theme getSummaryRow( DAOUtil daoUtil )
+    {
+        int nCpt = 1;
+        Theme theme = new Theme( );
+
+        theme.setId( daoUtil.getInt( nCpt++ ) );
+        theme.setCampaignCode( daoUtil.getString( nCpt++ ) );
+        theme.setCode( daoUtil.getString( nCpt++ ) );
+        theme.setTitle( daoUtil.getString( nCpt++ ) );
+        theme.setActive( daoUtil.getBoolean( nCpt++ ) );
+        theme.setFrontRgb( daoUtil.getString( nCpt++ ) );
+        theme.setImageFile( daoUtil.getInt( nCpt ) );
+
+        return theme;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -295,4 +366,230 @@ public final class ThemeDAO implements IThemeDAO
             return theme;
         }
     }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Theme> selectThemesPage( ListFilter filter, int nAfterId, int nOffset, int nLimit, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL_SUMMARY, SQL_TABLE, SQL_COLUMN_ID, filter, true );
+        List<Theme> themeList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getPageQuery( ), plugin ) )
+        {
+            query.setPageParameters( daoUtil, nAfterId, nOffset, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                themeList.add( getSummaryRow( daoUtil ) );
+            }
+        }
+        loadDescriptions( themeList, plugin );
+
+        return themeList;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countThemes( ListFilter filter, Plugin plugin )
+    {
+        PagedQuery query = new PagedQuery( SQL_QUERY_SELECTALL_SUMMARY, SQL_TABLE, SQL_COLUMN_ID, filter, true );
+        try ( DAOUtil daoUtil = new DAOUtil( query.getCountQuery( ), plugin ) )
+        {
+            query.setCountParameters( daoUtil );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getInt( 1 ) : 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, Theme> loadByPrimaryKeys( Collection<Integer> listKeys, Plugin plugin )
+    {
+        Map<Integer, Theme> mapThemes = new HashMap<>( );
+        for ( List<Integer> listChunk : InQuery.chunks( listKeys ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL, SQL_COLUMN_ID, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setIntParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    Theme theme = getRow( daoUtil );
+                    mapThemes.put( theme.getId( ), theme );
+                }
+            }
+        }
+
+        return mapThemes;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<String, Theme> loadByCodesTheme( Collection<String> listCodesTheme, Plugin plugin )
+    {
+        Map<String, Theme> mapThemes = new HashMap<>( );
+        for ( List<String> listChunk : InQuery.chunks( listCodesTheme ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL, SQL_COLUMN_CODE, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setStringParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    Theme theme = getRow( daoUtil );
+                    mapThemes.put( theme.getCode( ), theme );
+                }
+            }
+        }
+
+        return mapThemes;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertAll( Collection<Theme> listThemes, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+            {
+                for ( Theme theme : listThemes )
+                {
+                    setInsertParameters( daoUtil, theme );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+
+                // The keys are generated in the order of the batch
+                for ( Theme theme : listThemes )
+                {
+                    if ( !daoUtil.nextGeneratedKey( ) )
+                    {
+                        throw new AppException( "No generated key returned for the theme " + theme.getCode( ) );
+                    }
+                    theme.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+                }
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeAll( Collection<Theme> listThemes, Plugin plugin )
+    {
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+            {
+                for ( Theme theme : listThemes )
+                {
+                    setUpdateParameters( daoUtil, theme );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+            }
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the parameters of the insert query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param theme
+     *            the theme to insert
+     */
+    private void setInsertParameters( DAOUtil daoUtil, Theme theme )
+    {
+        int nIndex = 1;
+        daoUtil.setString( nIndex++, theme.getCampaignCode( ) );
+        daoUtil.setString( nIndex++, theme.getCode( ) );
+        daoUtil.setString( nIndex++, theme.getTitle( ) );
+        daoUtil.setString( nIndex++, theme.getDescription( ) );
+        daoUtil.setBoolean( nIndex++, theme.getActive( ) );
+        daoUtil.setString( nIndex++, theme.getFrontRgb( ) );
+        daoUtil.setInt( nIndex++, theme.getImageFile( ) );
+    }
+
+    /**
+     * Sets the parameters of the update query
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @param theme
+     *            the theme to update
+     */
+    private void setUpdateParameters( DAOUtil daoUtil, Theme theme )
+    {
+        int nIndex = 1;
+        daoUtil.setInt( nIndex++, theme.getId( ) );
+        daoUtil.setString( nIndex++, theme.getCampaignCode( ) );
+        daoUtil.setString( nIndex++, theme.getCode( ) );
+        daoUtil.setString( nIndex++, theme.getTitle( ) );
+        daoUtil.setString( nIndex++, theme.getDescription( ) );
+        daoUtil.setBoolean( nIndex++, theme.getActive( ) );
+        daoUtil.setString( nIndex++, theme.getFrontRgb( ) );
+        daoUtil.setInt( nIndex++, theme.getImageFile( ) );
+        daoUtil.setInt( nIndex, theme.getId( ) );
+    }
+
+    /**
+     * Sets the descriptions of themes read without them, with one query per chunk of ids
+     * 
+     * @param listThemes
+     *            the themes
+     * @param plugin
+     *            the Plugin
+     */
+    private void loadDescriptions( List<Theme> listThemes, Plugin plugin )
+    {
+        Map<Integer, Theme> mapThemes = new HashMap<>( );
+        for ( Theme theme : listThemes )
+        {
+            mapThemes.put( theme.getId( ), theme );
+        }
+
+        for ( List<Integer> listChunk : InQuery.chunks( mapThemes.keySet( ) ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( InQuery.getQuery( SQL_QUERY_SELECTALL_DESCRIPTIONS, SQL_COLUMN_ID, listChunk.size( ) ), plugin ) )
+            {
+                InQuery.setIntParameters( daoUtil, listChunk );
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    mapThemes.get( daoUtil.getInt( 1 ) ).setDescription( daoUtil.getString( 2 ) );
+                }
+            }
+        }
+    }
 }
@@ -50,6 +50,7 @@ public final class ThemeHome
     // Static variable pointed at the DAO instance
     private static IThemeDAO _dao = SpringContextService.getBean( "campaign.themeDAO" );
     private static Plugin _plugin = PluginService.getPlugin( "campaign" );
+    private static ResourceChangeNotifier<Theme> _notifier = new ResourceChangeNotifier<>( );
 
     /**
      * Private constructor - this class need not be instantiated
@@ -67,7 +68,7 @@ public final class ThemeHome
      */
     public static Theme create( Theme theme )
     {
-        _dao.insert( theme, _plugin );
+        DataVersionHome.write( ( ) -> _dao.insert( theme, _plugin ), ( ) -> _notifier.fireCreated( theme ) );
 
         return theme;
     }
@@ -81,11 +82,46 @@ public final class ThemeHome
      */
     public static Theme update( Theme theme )
     {
-        _dao.store( theme, _plugin );
+        DataVersionHome.write( ( ) -> _dao.store( theme, _plugin ), ( ) -> _notifier.fireUpdated( theme ) );
 
         return theme;
     }
 
+    /**
+     * Create several themes with a single batch of inserts, in one transaction with the increment of the data version. The identifiers generated by
+     * the database are set on the themes
+     * 
+     * @param listThemes
+     *            The themes to create
+     * @return The themes which have been created
+     */
+    public static Collection<Theme> createAll( Collection<Theme> listThemes )
+    {
+        if ( !listThemes.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.insertAll( listThemes, _plugin ), ( ) -> listThemes.forEach( _notifier::fireCreated ) );
+        }
+
+        return listThemes;
+    }
+
+    /**
+     * Update several themes with a single batch of updates, in one transaction with the increment of the data version
+     * 
+     * @param listThemes
+     *            The themes to update
+     * @return The themes which have been updated
+     */
+    public static Collection<Theme> updateAll( Collection<Theme> listThemes )
+    {
+        if ( !listThemes.isEmpty( ) )
+        {
+            DataVersionHome.write( ( ) -> _dao.storeAll( listThemes, _plugin ), ( ) -> listThemes.forEach( _notifier::fireUpdated ) );
+        }
+
+        return listThemes;
+    }
+
     /**
      * Remove the theme whose identifier is specified in parameter
      * 
@@ -94,7 +130,29 @@ public final class ThemeHome
      */
     public static void remove( int nKey )
     {
-        _dao.delete( nKey, _plugin );
+        DataVersionHome.write( ( ) -> _dao.delete( nKey, _plugin ), ( ) -> _notifier.fireRemoved( nKey ) );
+    }
+
+    /**
+     * Registers a listener notified of the theme changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void registerListener( IResourceChangeListener<Theme> listener )
+    {
+        _notifier.register( listener );
+    }
+
+    /**
+     * Unregisters a listener of the theme changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public static void unregisterListener( IResourceChangeListener<Theme> listener )
+    {
+        _notifier.unregister( listener );
     }
 
     /**
@@ -119,6 +177,40 @@ public final class ThemeHome
         return _dao.selectThemesList( _plugin );
     }
 
+    /**
+     * Load the data of all the theme objects without their descriptions, which are read with {@link #findDescription(int)}
+     * 
+     * @return the list which contains the data of all the theme objects, whose descriptions are null
+     */
+    public static List<Theme> getThemesSummaryList( )
+    {
+        return _dao.selectThemesSummaryList( _plugin );
+    }
+
+    /**
+     * Load the data of the theme objects of a campaign without their descriptions, which are read with {@link #findDescription(int)}
+     * 
+     * @param codeCampaign
+     *            the campaign code
+     * @return the list which contains the data of the theme objects, whose descriptions are null
+     */
+    public static List<Theme> getThemesSummaryListByCampaign( String codeCampaign )
+    {
+        return _dao.selectThemesSummaryListByCampaign( codeCampaign, _plugin );
+    }
+
+    /**
+     * Returns the description of a theme
+     * 
+     * @param nKey
+     *            The theme primary key
+     * @return the description, or null if the theme does not exist
+     */
+    public static String findDescription( int nKey )
+    {
+        return _dao.loadDescription( nKey, _plugin );
+    }
+
     /**
      * Load the id of all the theme objects and returns them as a list
      * 
@@ -174,4 +266,57 @@ public final class ThemeHome
         return _dao.loadByCodeTheme( codeTheme, _plugin );
     }
 
+    /**
+     * Load a page of the themes matching a filter, sorted by id
+     * 
+     * @param filter
+     *            the filter, filtered by campaign and by active flag
+     * @param nAfterId
+     *            the page starts after this id
+     * @param nOffset
+     *            the number of themes skipped after this id
+     * @param nLimit
+     *            the maximum number of themes of the page
+     * @return the themes of the page, with their descriptions
+     */
+    public static List<Theme> getThemesPage( ListFilter filter, int nAfterId, int nOffset, int nLimit )
+    {
+        return _dao.selectThemesPage( filter, nAfterId, nOffset, nLimit, _plugin );
+    }
+
+    /**
+     * Count the themes matching a filter
+     * 
+     * @param filter
+     *            the filter, filtered by campaign and by active flag
+     * @return the number of themes
+     */
+    public static int countThemes( ListFilter filter )
+    {
+        return _dao.countThemes( filter, _plugin );
+    }
+
+    /**
+     * Returns the themes whose identifiers are specified in parameter, with one query per chunk of identifiers instead of one query per theme
+     * 
+     * @param listKeys
+     *            the theme primary keys
+     * @return the themes mapped by identifier, without the unknown identifiers
+     */
+    public static Map<Integer, Theme> findByPrimaryKeys( Collection<Integer> listKeys )
+    {
+        return _dao.loadByPrimaryKeys( listKeys, _plugin );
+    }
+
+    /**
+     * Returns the themes whose codes are specified in parameter, with one query per chunk of codes instead of one query per theme
+     * 
+     * @param listCodesTheme
+     *            the theme codes
+     * @return the themes mapped by code, without the unknown codes
+     */
+    public static Map<String, Theme> findByCodes( Collection<String> listCodesTheme )
+    {
+        return _dao.loadByCodesTheme( listCodesTheme, _plugin );
+    }
 }
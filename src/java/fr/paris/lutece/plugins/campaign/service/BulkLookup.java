@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves a collection of keys against an in-memory cache first, then loads all the keys missing from the cache at once.
+ */
+final class BulkLookup
+{
+    private BulkLookup( )
+    {
+
+    }
+
+    /**
+     * Finds the values of several keys
+     * 
+     * @param <K>
+     *            the type of the keys
+     * @param <V>
+     *            the type of the values
+     * @param keys
+     *            the keys. The null keys are ignored
+     * @param cached
+     *            returns the cached value of a key, or null if the key is not cached
+     * @param loader
+     *            loads the values of the keys missing from the cache, mapped by key. It is only called if some keys are missing
+     * @return the values mapped by key, without the unknown keys
+     */
+    static <K, V> Map<K, V> find( Collection<K> keys, Function<K, V> cached, Function<Collection<K>, Map<K, V>> loader )
+    {
+        Map<K, V> mapValues = new HashMap<>( );
+        Set<K> setMissingKeys = new LinkedHashSet<>( );
+        for ( K key : keys )
+        {
+            if ( key == null || mapValues.containsKey( key ) )
+            {
+                continue;
+            }
+
+            V value = cached.apply( key );
+            if ( value != null )
+            {
+                mapValues.put( key, value );
+            }
+            else
+            {
+                setMissingKeys.add( key );
+            }
+        }
+
+        if ( !setMissingKeys.isEmpty( ) )
+        {
+            mapValues.putAll( loader.apply( setMissingKeys ) );
+        }
+
+        return mapValues;
+    }
+}
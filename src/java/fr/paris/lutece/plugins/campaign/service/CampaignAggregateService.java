@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import fr.paris.lutece.plugins.campaign.business.Area;
+import fr.paris.lutece.plugins.campaign.business.AreaHome;
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.plugins.campaign.business.CampaignAggregate;
+import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.business.IResourceChangeListener;
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.plugins.campaign.business.PhaseHome;
+import fr.paris.lutece.plugins.campaign.business.Theme;
+import fr.paris.lutece.plugins.campaign.business.ThemeHome;
+
+/**
+ * Campaign aggregate service. The aggregate of each campaign is loaded on a single connection and cached as a unit, then reloaded after every
+ * change of a campaign, a phase, a theme or an area made on this node or on another one. A campaign found missing when its aggregate is loaded is
+ * cached as well, until its snapshot is dropped with the campaigns removed from the catalog.
+ */
+public final class CampaignAggregateService
+{
+    private static final CampaignCacheService _cache = CampaignCacheService.getInstance( CampaignCacheService.CACHE_AGGREGATES );
+    private static final ConcurrentMap<String, ReloadableSnapshot<Optional<CampaignAggregate>>> _mapAggregates = new ConcurrentHashMap<>( );
+
+    static
+    {
+        CampaignHome.registerListener( new CampaignChangeListener( ) );
+        PhaseHome.registerListener( new AggregateChangeListener<Phase>( ) );
+        ThemeHome.registerListener( new AggregateChangeListener<Theme>( ) );
+        AreaHome.registerListener( new AggregateChangeListener<Area>( ) );
+        CampaignCoherenceService.getInstance( ).register( CampaignAggregateService::invalidate );
+    }
+
+    private CampaignAggregateService( )
+    {
+
+    }
+
+    /**
+     * Returns a campaign with its phases, its themes and its areas
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return a copy of the aggregate of the campaign, which can be modified, or null if there is no campaign with this code
+     */
+    public static CampaignAggregate getAggregate( String campaignCode )
+    {
+        // The unknown codes are filtered out by the catalog of the campaigns, so that they are not cached
+        if ( CampaignService.getInstance( ).findCampaignByCode( campaignCode ) == null )
+        {
+            return null;
+        }
+
+        Optional<CampaignAggregate> aggregate = _cache.get( campaignCode,
+                _mapAggregates.computeIfAbsent( campaignCode, CampaignAggregateService::newSnapshot ) );
+
+        return aggregate.map( CampaignAggregate::copy ).orElse( null );
+    }
+
+    /**
+     * Refreshes the aggregates already loaded, off the request path. The aggregates of the campaigns removed from the catalog are dropped.
+     * 
+     * @return true if all the aggregates have been refreshed
+     */
+    static boolean refresh( )
+    {
+        for ( Map.Entry<String, ReloadableSnapshot<Optional<CampaignAggregate>>> entry : _mapAggregates.entrySet( ) )
+        {
+            if ( CampaignService.getInstance( ).findCampaignByCode( entry.getKey( ) ) == null )
+            {
+                unbind( entry.getKey( ), entry.getValue( ) );
+            }
+        }
+
+        boolean bRefreshed = true;
+        for ( ReloadableSnapshot<Optional<CampaignAggregate>> snapshot : _mapAggregates.values( ) )
+        {
+            bRefreshed &= snapshot.refresh( );
+        }
+
+        return bRefreshed;
+    }
+
+    /**
+     * Reloads the aggregates of all the campaigns at their next read
+     */
+    private static void invalidate( )
+    {
+        _mapAggregates.forEach( _cache::invalidate );
+    }
+
+    /**
+     * Drops the snapshot of the aggregate of a campaign
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @param snapshot
+     *            the snapshot
+     */
+    private static void unbind( String campaignCode, ReloadableSnapshot<Optional<CampaignAggregate>> snapshot )
+    {
+        _cache.unbind( campaignCode, snapshot );
+        _mapAggregates.remove( campaignCode, snapshot );
+    }
+
+    /**
+     * Creates the snapshot of the aggregate of a campaign
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return the snapshot
+     */
+    private static ReloadableSnapshot<Optional<CampaignAggregate>> newSnapshot( String campaignCode )
+    {
+        return _cache.bind( campaignCode, new ReloadableSnapshot<>( "campaign aggregate " + campaignCode,
+                ( ) -> Optional.ofNullable( CampaignHome.findAggregateByCampaignCode( campaignCode ) ) ) );
+    }
+
+    /**
+     * Reloads the aggregates after a change of one of their parts. Since an update may move a part to another campaign, all the campaigns are
+     * reloaded.
+     * 
+     * @param <T>
+     *            the type of the changed resource
+     */
+    private static class AggregateChangeListener<T> implements IResourceChangeListener<T>
+    {
+        @Override
+        public void resourceCreated( T resource )
+        {
+            invalidate( );
+        }
+
+        @Override
+        public void resourceUpdated( T resource )
+        {
+            invalidate( );
+        }
+
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            invalidate( );
+        }
+    }
+
+    /**
+     * Reloads the aggregates after a campaign change, and drops the aggregate of a removed campaign
+     */
+    private static final class CampaignChangeListener extends AggregateChangeListener<Campaign>
+    {
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            for ( Map.Entry<String, ReloadableSnapshot<Optional<CampaignAggregate>>> entry : _mapAggregates.entrySet( ) )
+            {
+                Optional<CampaignAggregate> aggregate = entry.getValue( ).peek( );
+                if ( aggregate != null && aggregate.isPresent( ) && aggregate.get( ).getCampaign( ).getId( ) == nId )
+                {
+                    unbind( entry.getKey( ), entry.getValue( ) );
+                }
+            }
+            super.resourceRemoved( nId );
+        }
+    }
+}
@@ -33,11 +33,37 @@
  */
 package fr.paris.lutece.plugins.campaign.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import fr.paris.lutece.plugins.campaign.business.Area;
 import fr.paris.lutece.plugins.campaign.business.AreaHome;
+import fr.paris.lutece.plugins.campaign.business.IResourceChangeListener;
 import fr.paris.lutece.util.ReferenceList;
 
+/**
+ * Area service. The areas of each campaign of the catalog are loaded once in memory, and reloaded after every area change made on this node or on
+ * another one. The areas of the unknown campaigns are not kept in memory, so that the number of cached campaigns stays bounded. The areas kept in
+ * memory are shared : the lookups return modifiable copies of them.
+ */
 public class CampaignAreaService
 {
+    private static final CampaignCacheService _cache = CampaignCacheService.getInstance( CampaignCacheService.CACHE_AREAS );
+    private static final ConcurrentMap<String, ReloadableSnapshot<List<Area>>> _mapAreas = new ConcurrentHashMap<>( );
+
+    static
+    {
+        AreaHome.registerListener( new AreaChangeListener( ) );
+        CampaignCoherenceService.getInstance( ).register( CampaignAreaService::invalidate );
+    }
 
     private CampaignAreaService( )
     {
@@ -53,6 +79,252 @@ public class CampaignAreaService
      */
     public static ReferenceList getAreasReferenceList( String campaignCode )
     {
-        return AreaHome.getAreasReferenceList( campaignCode );
+        List<Area> listAreas = getSharedAreas( campaignCode );
+
+        // The reference lists are often completed or checked by their callers, so a new one is built from the cached areas
+        ReferenceList areaList = new ReferenceList( listAreas.size( ) );
+        for ( Area area : listAreas )
+        {
+            areaList.addItem( getReferenceCode( area.getAreaCode( ) ), area.getTitle( ) );
+        }
+
+        return areaList;
+    }
+
+    /**
+     * Returns the areas of a campaign
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return a new list of modifiable copies of the areas. The list is empty for a null or blank campaign code
+     */
+    public static List<Area> getAreasListByCampaign( String campaignCode )
+    {
+        List<Area> listAreas = getSharedAreas( campaignCode );
+        List<Area> listCopies = new ArrayList<>( listAreas.size( ) );
+        for ( Area area : listAreas )
+        {
+            listCopies.add( copy( area ) );
+        }
+
+        return listCopies;
+    }
+
+    /**
+     * Returns the areas of a campaign as they are kept in memory
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return the unmodifiable list of the areas, which are shared and must not be modified
+     */
+    private static List<Area> getSharedAreas( String campaignCode )
+    {
+        if ( campaignCode == null || campaignCode.trim( ).isEmpty( ) )
+        {
+            return Collections.emptyList( );
+        }
+
+        ReloadableSnapshot<List<Area>> snapshot = _mapAreas.get( campaignCode );
+        if ( snapshot == null )
+        {
+            if ( !isKnownCampaign( campaignCode ) )
+            {
+                // A campaign missing from the catalog is read from the database, without being kept in memory
+                return loadAreas( campaignCode );
+            }
+            snapshot = _mapAreas.computeIfAbsent( campaignCode, CampaignAreaService::newSnapshot );
+        }
+
+        return _cache.get( campaignCode, snapshot );
+    }
+
+    /**
+     * Returns the areas whose identifiers are specified in parameter. The areas are read from the areas of the campaigns already loaded in memory,
+     * and the other ones are loaded together by chunks of identifiers.
+     * 
+     * @param listIds
+     *            the identifiers of the areas
+     * @return modifiable copies of the areas mapped by identifier, without the unknown identifiers
+     */
+    public static Map<Integer, Area> findByPrimaryKeys( Collection<Integer> listIds )
+    {
+        Map<Integer, Area> mapCachedAreas = new HashMap<>( );
+        for ( ReloadableSnapshot<List<Area>> snapshot : _mapAreas.values( ) )
+        {
+            List<Area> listAreas = snapshot.peek( );
+            if ( snapshot.isCurrent( listAreas ) )
+            {
+                listAreas.forEach( area -> mapCachedAreas.put( area.getId( ), area ) );
+            }
+        }
+
+        return BulkLookup.find( listIds, nId -> {
+            Area area = mapCachedAreas.get( nId );
+            return ( area != null ) ? copy( area ) : null;
+        }, AreaHome::findByPrimaryKeys );
+    }
+
+    /**
+     * Returns the areas of a campaign whose codes are specified in parameter. The area codes are only unique within a campaign, so the areas are
+     * read from the cached areas of the campaign.
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @param listAreaCodes
+     *            the area codes
+     * @return modifiable copies of the areas mapped by code, without the unknown codes
+     */
+    public static Map<String, Area> findByCodes( String campaignCode, Collection<String> listAreaCodes )
+    {
+        Set<String> setAreaCodes = new HashSet<>( listAreaCodes );
+        Map<String, Area> mapAreas = new HashMap<>( );
+        for ( Area area : getSharedAreas( campaignCode ) )
+        {
+            if ( setAreaCodes.contains( area.getAreaCode( ) ) )
+            {
+                mapAreas.put( area.getAreaCode( ), copy( area ) );
+            }
+        }
+
+        return mapAreas;
+    }
+
+    /**
+     * Refreshes the areas of the campaigns already loaded, off the request path. The areas of the campaigns removed from the catalog are dropped.
+     * 
+     * @return true if all the areas have been refreshed
+     */
+    static boolean refresh( )
+    {
+        for ( Map.Entry<String, ReloadableSnapshot<List<Area>>> entry : _mapAreas.entrySet( ) )
+        {
+            if ( !isKnownCampaign( entry.getKey( ) ) )
+            {
+                _cache.unbind( entry.getKey( ), entry.getValue( ) );
+                _mapAreas.remove( entry.getKey( ), entry.getValue( ) );
+            }
+        }
+
+        boolean bRefreshed = true;
+        for ( ReloadableSnapshot<List<Area>> snapshot : _mapAreas.values( ) )
+        {
+            bRefreshed &= snapshot.refresh( );
+        }
+
+        return bRefreshed;
+    }
+
+    /**
+     * Reloads the areas of all the campaigns at their next read
+     */
+    private static void invalidate( )
+    {
+        _mapAreas.forEach( _cache::invalidate );
+    }
+
+    /**
+     * Creates the snapshot of the areas of a campaign
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return the snapshot
+     */
+    private static ReloadableSnapshot<List<Area>> newSnapshot( String campaignCode )
+    {
+        return _cache.bind( campaignCode, new ReloadableSnapshot<>( "campaign areas " + campaignCode, ( ) -> loadAreas( campaignCode ) ) );
+    }
+
+    /**
+     * Loads the areas of a campaign
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return the unmodifiable list of the areas
+     */
+    private static List<Area> loadAreas( String campaignCode )
+    {
+        return Collections.unmodifiableList( AreaHome.getAreasListByCampaign( campaignCode ) );
+    }
+
+    /**
+     * Returns the code of an area in its reference list. The numeric codes are normalised as they have always been read from the database, as
+     * integers : "01" is listed as "1".
+     * 
+     * @param strAreaCode
+     *            the area code
+     * @return the normalised code
+     */
+    static String getReferenceCode( String strAreaCode )
+    {
+        if ( strAreaCode == null || strAreaCode.isEmpty( ) || strAreaCode.length( ) > 9 )
+        {
+            return strAreaCode;
+        }
+        for ( int i = 0; i < strAreaCode.length( ); i++ )
+        {
+            if ( !Character.isDigit( strAreaCode.charAt( i ) ) )
+            {
+                return strAreaCode;
+            }
+        }
+
+        return String.valueOf( Integer.parseInt( strAreaCode ) );
+    }
+
+    /**
+     * Copies an area, so that the callers do not share the areas kept in memory
+     * 
+     * @param area
+     *            the area
+     * @return the copy
+     */
+    private static Area copy( Area area )
+    {
+        Area copy = new Area( );
+        copy.setId( area.getId( ) );
+        copy.setAreaCode( area.getAreaCode( ) );
+        copy.setCampaignCode( area.getCampaignCode( ) );
+        copy.setTitle( area.getTitle( ) );
+        copy.setType( area.getType( ) );
+        copy.setNumberVotes( area.getNumberVotes( ) );
+        copy.setActive( area.getActive( ) );
+
+        return copy;
+    }
+
+    /**
+     * Tells whether a campaign is in the catalog of the campaigns
+     * 
+     * @param campaignCode
+     *            the campaign code
+     * @return true if the campaign is known
+     */
+    private static boolean isKnownCampaign( String campaignCode )
+    {
+        return CampaignService.getInstance( ).findCampaignByCode( campaignCode ) != null;
+    }
+
+    /**
+     * Reloads the areas after an area change. Since an update may move an area to another campaign, all the campaigns are reloaded.
+     */
+    private static final class AreaChangeListener implements IResourceChangeListener<Area>
+    {
+        @Override
+        public void resourceCreated( Area area )
+        {
+            invalidate( );
+        }
+
+        @Override
+        public void resourceUpdated( Area area )
+        {
+            invalidate( );
+        }
+
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            invalidate( );
+        }
     }
 }
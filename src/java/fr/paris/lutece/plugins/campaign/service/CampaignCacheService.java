@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import fr.paris.lutece.portal.service.cache.AbstractCacheableService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
+
+/**
+ * Cache of campaign data registered in the cache service of Lutece, so that it is listed, disabled and flushed from the cache management screen.
+ * The data is loaded by reloadable snapshots and published in the cache under a key :
+ * <ul>
+ * <li>an entry which expires, is evicted, removed or flushed invalidates its snapshot, so that it is read again from the database at the next
+ * read</li>
+ * <li>a read missing the cache serves the snapshot, and puts its value back in the cache</li>
+ * <li>while the cache is disabled, the snapshots are served directly</li>
+ * <li>a cache which is not registered serves the snapshots directly</li>
+ * </ul>
+ * A hot path may also read its snapshot directly instead of calling {@link #get(String, ReloadableSnapshot)} : the entry then only mirrors the
+ * snapshot, still published in the cache and invalidated by its eviction, but the time to live of the entry is only checked by the cache service.
+ * The size and the time to live of each cache are read from the <code>&lt;cache name&gt;.maxElementsInMemory</code> and
+ * <code>&lt;cache name&gt;.timeToLiveSeconds</code> properties.
+ */
+final class CampaignCacheService extends AbstractCacheableService
+{
+    static final String CACHE_CAMPAIGNS = "campaign.campaignsCacheService";
+    static final String CACHE_PHASES = "campaign.phasesCacheService";
+    static final String CACHE_THEMES = "campaign.themesCacheService";
+    static final String CACHE_AREAS = "campaign.areasCacheService";
+    static final String CACHE_AGGREGATES = "campaign.aggregatesCacheService";
+    static final String CACHE_DESCRIPTIONS = "campaign.descriptionsCacheService";
+
+    private static final String SUFFIX_MAX_ELEMENTS = ".maxElementsInMemory";
+    private static final String SUFFIX_TIME_TO_LIVE = ".timeToLiveSeconds";
+
+    private static final ConcurrentMap<String, CampaignCacheService> _mapRegisteredCaches = new ConcurrentHashMap<>( );
+
+    private final String _strName;
+    private final boolean _bRegistered;
+    private final Object _lock = new Object( );
+    private final ConcurrentMap<String, ReloadableSnapshot<?>> _mapSnapshots = new ConcurrentHashMap<>( );
+
+    /**
+     * Constructor
+     * 
+     * @param strName
+     *            the name of the cache
+     * @param bRegistered
+     *            true if the cache is registered in the cache service
+     */
+    private CampaignCacheService( String strName, boolean bRegistered )
+    {
+        _strName = strName;
+        _bRegistered = bRegistered;
+    }
+
+    /**
+     * Returns the cache of the given name, registering it in the cache service at the first call
+     * 
+     * @param strName
+     *            the name of the cache
+     * @return the registered cache
+     */
+    static CampaignCacheService getInstance( String strName )
+    {
+        return _mapRegisteredCaches.computeIfAbsent( strName, CampaignCacheService::register );
+    }
+
+    /**
+     * Returns a cache which is not registered in the cache service and serves the snapshots directly
+     * 
+     * @param strName
+     *            the name of the cache
+     * @return the cache
+     */
+    static CampaignCacheService unregistered( String strName )
+    {
+        return new CampaignCacheService( strName, false );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName( )
+    {
+        return _strName;
+    }
+
+    /**
+     * Publishes every new value of a snapshot in the cache
+     * 
+     * @param <T>
+     *            the type of the snapshot
+     * @param strKey
+     *            the key of the snapshot in the cache
+     * @param snapshot
+     *            the snapshot
+     * @return the snapshot
+     */
+    <T> ReloadableSnapshot<T> bind( String strKey, ReloadableSnapshot<T> snapshot )
+    {
+        if ( _bRegistered )
+        {
+            _mapSnapshots.put( strKey, snapshot );
+            snapshot.onPublish( value -> put( strKey, snapshot, value ) );
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Invalidates a snapshot bound to this cache and stops following the evictions of its entry
+     * 
+     * @param strKey
+     *            the key of the snapshot in the cache
+     * @param snapshot
+     *            the snapshot
+     */
+    void unbind( String strKey, ReloadableSnapshot<?> snapshot )
+    {
+        _mapSnapshots.remove( strKey, snapshot );
+        invalidate( strKey, snapshot );
+    }
+
+    /**
+     * Reads a snapshot bound to this cache
+     * 
+     * @param <T>
+     *            the type of the snapshot
+     * @param strKey
+     *            the key of the snapshot in the cache
+     * @param snapshot
+     *            the snapshot
+     * @return the value of the snapshot
+     */
+    @SuppressWarnings( "unchecked" )
+    <T> T get( String strKey, ReloadableSnapshot<T> snapshot )
+    {
+        if ( !_bRegistered || !isCacheEnable( ) )
+        {
+            return snapshot.get( );
+        }
+
+        Object value = getFromCache( strKey );
+        if ( value != null )
+        {
+            return (T) value;
+        }
+
+        // The snapshot has been invalidated when the entry was evicted, so it is only reloaded once; its value is put back in the cache since it
+        // is not published again when it has been loaded while the cache was disabled
+        T current = snapshot.get( );
+        put( strKey, snapshot, current );
+
+        return current;
+    }
+
+    /**
+     * Invalidates a snapshot bound to this cache
+     * 
+     * @param strKey
+     *            the key of the snapshot in the cache
+     * @param snapshot
+     *            the snapshot
+     */
+    void invalidate( String strKey, ReloadableSnapshot<?> snapshot )
+    {
+        synchronized( _lock )
+        {
+            snapshot.invalidate( );
+            if ( _bRegistered )
+            {
+                removeKey( strKey );
+            }
+        }
+    }
+
+    /**
+     * Puts a published value in the cache, unless it has already been replaced or invalidated
+     * 
+     * @param <T>
+     *            the type of the snapshot
+     * @param strKey
+     *            the key of the snapshot in the cache
+     * @param snapshot
+     *            the snapshot
+     * @param value
+     *            the published value
+     */
+    private <T> void put( String strKey, ReloadableSnapshot<T> snapshot, T value )
+    {
+        synchronized( _lock )
+        {
+            if ( isCacheEnable( ) && snapshot.isCurrent( value ) )
+            {
+                putInCache( strKey, value );
+            }
+        }
+    }
+
+    /**
+     * Creates a cache and registers it in the cache service
+     * 
+     * @param strName
+     *            the name of the cache
+     * @return the cache
+     */
+    private static CampaignCacheService register( String strName )
+    {
+        CampaignCacheService cacheService = new CampaignCacheService( strName, true );
+        cacheService.initCache( strName );
+
+        Cache cache = cacheService.getCache( );
+        if ( cache != null )
+        {
+            cache.getCacheEventNotificationService( ).registerListener( cacheService.new EvictionListener( ) );
+            CacheConfiguration configuration = cache.getCacheConfiguration( );
+            int nMaxElements = AppPropertiesService.getPropertyInt( strName + SUFFIX_MAX_ELEMENTS, -1 );
+            if ( nMaxElements > 0 )
+            {
+                configuration.setMaxEntriesLocalHeap( nMaxElements );
+            }
+            int nTimeToLive = AppPropertiesService.getPropertyInt( strName + SUFFIX_TIME_TO_LIVE, -1 );
+            if ( nTimeToLive >= 0 )
+            {
+                configuration.setTimeToLiveSeconds( nTimeToLive );
+            }
+        }
+
+        return cacheService;
+    }
+
+    /**
+     * Invalidates the snapshot of an entry which has left the cache, unless the entry held an older value of the snapshot
+     * 
+     * @param <T>
+     *            the type of the snapshot
+     * @param snapshot
+     *            the snapshot
+     * @param value
+     *            the value of the entry
+     */
+    @SuppressWarnings( "unchecked" )
+    private static <T> void invalidateIfCurrent( ReloadableSnapshot<T> snapshot, Object value )
+    {
+        if ( snapshot.isCurrent( (T) value ) )
+        {
+            snapshot.invalidate( );
+        }
+    }
+
+    /**
+     * Invalidates the snapshots whose entries expire, are evicted, removed or flushed
+     */
+    private final class EvictionListener extends CacheEventListenerAdapter
+    {
+        @Override
+        public void notifyElementRemoved( Ehcache cache, Element element )
+        {
+            evicted( element );
+        }
+
+        @Override
+        public void notifyElementExpired( Ehcache cache, Element element )
+        {
+            evicted( element );
+        }
+
+        @Override
+        public void notifyElementEvicted( Ehcache cache, Element element )
+        {
+            evicted( element );
+        }
+
+        @Override
+        public void notifyRemoveAll( Ehcache cache )
+        {
+            _mapSnapshots.values( ).forEach( ReloadableSnapshot::invalidate );
+        }
+
+        /**
+         * Invalidates the snapshot of an entry which has left the cache
+         * 
+         * @param element
+         *            the entry
+         */
+        private void evicted( Element element )
+        {
+            ReloadableSnapshot<?> snapshot = _mapSnapshots.get( String.valueOf( element.getObjectKey( ) ) );
+            if ( snapshot != null )
+            {
+                invalidateIfCurrent( snapshot, element.getObjectValue( ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.util.ReferenceList;
+
+/**
+ * Immutable catalog of the campaigns, indexed by identifier and by campaign code. The campaigns are held as summaries which cannot be modified :
+ * the list returned by {@link #getCampaigns()} is shared by the services reading the catalog, while the other lookups return modifiable copies.
+ * The last campaign is resolved once, when the catalog is built.
+ */
+public final class CampaignCatalog
+{
+    private static final Comparator<Campaign> ORDER = Comparator.comparing( Campaign::getCampaignCode, Comparator.nullsFirst( Comparator.naturalOrder( ) ) );
+
+    private final Map<Integer, CampaignSummary> _mapById = new HashMap<>( );
+    private final Map<String, CampaignSummary> _mapByCode = new HashMap<>( );
+    private final List<Campaign> _listCampaigns;
+    private final CampaignSummary _lastCampaign;
+
+    /**
+     * Constructor
+     * 
+     * @param campaigns
+     *            the campaigns, whose descriptions are not kept
+     * @param nLastCampaignId
+     *            the identifier of the last campaign
+     */
+    private CampaignCatalog( Collection<Campaign> campaigns, int nLastCampaignId )
+    {
+        List<CampaignSummary> listCampaigns = new ArrayList<>( campaigns.size( ) );
+        for ( Campaign campaign : campaigns )
+        {
+            listCampaigns.add( CampaignSummary.of( campaign ) );
+        }
+        listCampaigns.sort( ORDER );
+        for ( CampaignSummary campaign : listCampaigns )
+        {
+            _mapById.put( campaign.getId( ), campaign );
+            if ( campaign.getCampaignCode( ) != null )
+            {
+                _mapByCode.put( campaign.getCampaignCode( ), campaign );
+            }
+        }
+        _listCampaigns = Collections.<Campaign> unmodifiableList( listCampaigns );
+        _lastCampaign = _mapById.get( nLastCampaignId );
+    }
+
+    /**
+     * Builds the catalog of the given campaigns, without last campaign
+     * 
+     * @param campaigns
+     *            the campaigns, whose descriptions are not kept
+     * @return the catalog
+     */
+    public static CampaignCatalog build( Collection<Campaign> campaigns )
+    {
+        return new CampaignCatalog( campaigns, -1 );
+    }
+
+    /**
+     * Builds the catalog of the given campaigns
+     * 
+     * @param campaigns
+     *            the campaigns, whose descriptions are not kept
+     * @param nLastCampaignId
+     *            the identifier of the last campaign
+     * @return the catalog
+     */
+    public static CampaignCatalog build( Collection<Campaign> campaigns, int nLastCampaignId )
+    {
+        return new CampaignCatalog( campaigns, nLastCampaignId );
+    }
+
+    /**
+     * Returns the last campaign
+     * 
+     * @return a modifiable copy of the last campaign, or null if it is not in the catalog
+     */
+    public Campaign getLastCampaign( )
+    {
+        return ( _lastCampaign != null ) ? _lastCampaign.copy( ) : null;
+    }
+
+    /**
+     * Returns the code of the last campaign, without copying the campaign
+     * 
+     * @return the campaign code, or null if the last campaign is not in the catalog
+     */
+    public String getLastCampaignCode( )
+    {
+        return ( _lastCampaign != null ) ? _lastCampaign.getCampaignCode( ) : null;
+    }
+
+    /**
+     * Returns a campaign by its identifier
+     * 
+     * @param nId
+     *            the identifier
+     * @return a modifiable copy of the campaign, or null if unknown
+     */
+    public Campaign getById( int nId )
+    {
+        CampaignSummary campaign = _mapById.get( nId );
+
+        return ( campaign != null ) ? campaign.copy( ) : null;
+    }
+
+    /**
+     * Returns a campaign by its code
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return a modifiable copy of the campaign, or null if unknown
+     */
+    public Campaign getByCode( String strCampaignCode )
+    {
+        CampaignSummary campaign = _mapByCode.get( strCampaignCode );
+
+        return ( campaign != null ) ? campaign.copy( ) : null;
+    }
+
+    /**
+     * Tells whether a campaign code is in the catalog
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return true if the campaign code is known
+     */
+    public boolean containsCode( String strCampaignCode )
+    {
+        return _mapByCode.containsKey( strCampaignCode );
+    }
+
+    /**
+     * Returns all the campaigns
+     * 
+     * @return the unmodifiable list of the campaigns, ordered by code. The campaigns are shared and cannot be modified
+     */
+    public List<Campaign> getCampaigns( )
+    {
+        return _listCampaigns;
+    }
+
+    /**
+     * Returns copies of all the campaigns
+     * 
+     * @return a new list of modifiable copies of the campaigns, ordered by code
+     */
+    public List<Campaign> copyCampaigns( )
+    {
+        List<Campaign> listCopies = new ArrayList<>( _listCampaigns.size( ) );
+        for ( Campaign campaign : _listCampaigns )
+        {
+            listCopies.add( ( (CampaignSummary) campaign ).copy( ) );
+        }
+
+        return listCopies;
+    }
+
+    /**
+     * Returns the reference list of the campaigns : code -&gt; title. A new list is returned on each call, since the reference lists are often
+     * completed or checked by their callers.
+     * 
+     * @return the reference list, ordered by code
+     */
+    public ReferenceList getReferenceList( )
+    {
+        ReferenceList campaignList = new ReferenceList( _listCampaigns.size( ) );
+        for ( Campaign campaign : _listCampaigns )
+        {
+            campaignList.addItem( campaign.getCampaignCode( ), campaign.getTitle( ) );
+        }
+
+        return campaignList;
+    }
+}
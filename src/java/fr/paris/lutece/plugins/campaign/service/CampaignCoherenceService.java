@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import fr.paris.lutece.plugins.campaign.business.DataVersionHome;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Keeps the in-memory campaign data of this node coherent with the changes made on the other nodes. Every write increments a version row in the
+ * database; polling this single row detects the changes made elsewhere and invalidates the registered caches. The versions written by this node
+ * are recorded as they are committed : its own writes already patch or invalidate the caches they change, so they do not invalidate every cache.
+ */
+public class CampaignCoherenceService
+{
+    private static final long VERSION_UNKNOWN = Long.MIN_VALUE;
+
+    private final List<Runnable> _listInvalidators = new CopyOnWriteArrayList<>( );
+    private final NavigableSet<Long> _setWrittenVersions = new ConcurrentSkipListSet<>( );
+    private long _lVersion = VERSION_UNKNOWN;
+
+    /**
+     * Constructor. The version is read at the first check, so that the creation of the service does not depend on the database.
+     */
+    public CampaignCoherenceService( )
+    {
+        DataVersionHome.registerWriteListener( _setWrittenVersions::add );
+    }
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return the service
+     */
+    public static CampaignCoherenceService getInstance( )
+    {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Registers a cache invalidation to run when the data has been changed on another node
+     * 
+     * @param invalidator
+     *            the invalidation
+     */
+    public void register( Runnable invalidator )
+    {
+        _listInvalidators.add( invalidator );
+    }
+
+    /**
+     * Reads the version of the data, and invalidates the registered caches if another node has changed the data since the last check. At the first
+     * successful check, the caches are invalidated since the changes made before it cannot be told apart.
+     * 
+     * @return true if the caches have been invalidated
+     */
+    public synchronized boolean checkVersion( )
+    {
+        long lVersion;
+        try
+        {
+            lVersion = DataVersionHome.getVersion( );
+        }
+        catch( RuntimeException e )
+        {
+            AppLogService.error( "Error reading the campaign data version", e );
+            return false;
+        }
+
+        long lPrevious = _lVersion;
+        _lVersion = lVersion;
+        boolean bChangedElsewhere = isChangedElsewhere( lPrevious, lVersion );
+        _setWrittenVersions.headSet( lVersion, true ).clear( );
+        if ( !bChangedElsewhere )
+        {
+            return false;
+        }
+
+        AppLogService.info( "Campaign data version moved from " + lPrevious + " to " + lVersion + ", invalidating the campaign caches" );
+        invalidateAll( );
+
+        return true;
+    }
+
+    /**
+     * Tells whether a version between two checks has been written by another node
+     * 
+     * @param lPrevious
+     *            the version read at the previous check
+     * @param lVersion
+     *            the current version
+     * @return true if a version has not been written by this node, or if the previous version is unknown
+     */
+    private boolean isChangedElsewhere( long lPrevious, long lVersion )
+    {
+        if ( lVersion == lPrevious )
+        {
+            return false;
+        }
+        if ( lPrevious == VERSION_UNKNOWN || lVersion < lPrevious )
+        {
+            return true;
+        }
+
+        return _setWrittenVersions.subSet( lPrevious, false, lVersion, true ).size( ) != lVersion - lPrevious;
+    }
+
+    /**
+     * Invalidates all the registered caches, such as after a rolled back transaction whose uncommitted data may have been read by the caches
+     */
+    public void invalidateAll( )
+    {
+        for ( Runnable invalidator : _listInvalidators )
+        {
+            try
+            {
+                invalidator.run( );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Error invalidating a campaign cache", e );
+            }
+        }
+    }
+
+    /**
+     * Lazy holder of the singleton
+     */
+    private static final class SingletonHolder
+    {
+        private static final CampaignCoherenceService INSTANCE = new CampaignCoherenceService( );
+    }
+}
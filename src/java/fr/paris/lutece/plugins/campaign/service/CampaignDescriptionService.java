@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.business.IResourceChangeListener;
+import fr.paris.lutece.plugins.campaign.business.Theme;
+import fr.paris.lutece.plugins.campaign.business.ThemeHome;
+
+/**
+ * Service of the descriptions of the campaigns and of the themes. The descriptions are read on demand by the summaries of the catalogs, and kept
+ * in their own cache, whose size is bounded independently of the catalogs.
+ */
+final class CampaignDescriptionService
+{
+    private static final String PREFIX_CAMPAIGN = "campaign-";
+    private static final String PREFIX_THEME = "theme-";
+
+    private static final CampaignCacheService _cache = CampaignCacheService.getInstance( CampaignCacheService.CACHE_DESCRIPTIONS );
+    private static final Object _lock = new Object( );
+    private static long _lGeneration;
+
+    static
+    {
+        CampaignHome.registerListener( new DescriptionChangeListener<>( PREFIX_CAMPAIGN, Campaign::getId ) );
+        ThemeHome.registerListener( new DescriptionChangeListener<>( PREFIX_THEME, Theme::getId ) );
+        CampaignCoherenceService.getInstance( ).register( CampaignDescriptionService::invalidate );
+    }
+
+    private CampaignDescriptionService( )
+    {
+
+    }
+
+    /**
+     * Returns the description of a campaign
+     * 
+     * @param nIdCampaign
+     *            the id of the campaign
+     * @return the description, or null if the campaign does not exist
+     */
+    static String getCampaignDescription( int nIdCampaign )
+    {
+        return getDescription( PREFIX_CAMPAIGN, nIdCampaign, CampaignHome::findDescription );
+    }
+
+    /**
+     * Returns the description of a theme
+     * 
+     * @param nIdTheme
+     *            the id of the theme
+     * @return the description, or null if the theme does not exist
+     */
+    static String getThemeDescription( int nIdTheme )
+    {
+        return getDescription( PREFIX_THEME, nIdTheme, ThemeHome::findDescription );
+    }
+
+    /**
+     * Returns a description from the cache, or loads it and puts it in the cache unless a change has been made while it was loaded. A missing
+     * description is cached as well, so that it is not read again on every call.
+     * 
+     * @param strPrefix
+     *            the prefix of the key of the resource
+     * @param nId
+     *            the id of the resource
+     * @param loader
+     *            the loader of the description
+     * @return the description
+     */
+    private static String getDescription( String strPrefix, int nId, IntFunction<String> loader )
+    {
+        String strKey = strPrefix + nId;
+        Object cached = _cache.getFromCache( strKey );
+        if ( cached != null )
+        {
+            return cached == NoDescription.INSTANCE ? null : (String) cached;
+        }
+
+        long lGeneration;
+        synchronized( _lock )
+        {
+            lGeneration = _lGeneration;
+        }
+        String strDescription = loader.apply( nId );
+        synchronized( _lock )
+        {
+            if ( lGeneration == _lGeneration )
+            {
+                _cache.putInCache( strKey, strDescription != null ? strDescription : NoDescription.INSTANCE );
+            }
+        }
+
+        return strDescription;
+    }
+
+    /**
+     * Removes a description from the cache
+     * 
+     * @param strKey
+     *            the key of the description
+     */
+    private static void invalidate( String strKey )
+    {
+        synchronized( _lock )
+        {
+            _lGeneration++;
+            _cache.removeKey( strKey );
+        }
+    }
+
+    /**
+     * Removes all the descriptions from the cache
+     */
+    private static void invalidate( )
+    {
+        synchronized( _lock )
+        {
+            _lGeneration++;
+            _cache.resetCache( );
+        }
+    }
+
+    /**
+     * Removes the description of a resource from the cache after it has been changed
+     * 
+     * @param <T>
+     *            the type of the resource
+     */
+    private static final class DescriptionChangeListener<T> implements IResourceChangeListener<T>
+    {
+        private final String _strPrefix;
+        private final ToIntFunction<T> _idGetter;
+
+        /**
+         * Constructor
+         * 
+         * @param strPrefix
+         *            the prefix of the keys of the resources
+         * @param idGetter
+         *            the getter of the id of a resource
+         */
+        DescriptionChangeListener( String strPrefix, ToIntFunction<T> idGetter )
+        {
+            _strPrefix = strPrefix;
+            _idGetter = idGetter;
+        }
+
+        @Override
+        public void resourceCreated( T resource )
+        {
+            // The id of the new resource may have been read before it existed
+            invalidate( _strPrefix + _idGetter.applyAsInt( resource ) );
+        }
+
+        @Override
+        public void resourceUpdated( T resource )
+        {
+            invalidate( _strPrefix + _idGetter.applyAsInt( resource ) );
+        }
+
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            invalidate( _strPrefix + nId );
+        }
+    }
+
+    /**
+     * Cached value of a resource without description, or which does not exist
+     */
+    private enum NoDescription
+    {
+        INSTANCE
+    }
+}
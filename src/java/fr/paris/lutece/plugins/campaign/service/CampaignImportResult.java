@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of the import of a campaign configuration file : the number of valid rows of each kind, and the errors of the invalid rows. The file is
+ * imported only if none of its rows is invalid.
+ */
+public class CampaignImportResult
+{
+    private final List<RowError> _listErrors = new ArrayList<>( );
+    private int _nCampaigns;
+    private int _nPhases;
+    private int _nThemes;
+    private int _nAreas;
+    private boolean _bImported;
+
+    /**
+     * Returns the number of campaign rows
+     * 
+     * @return the number of campaigns
+     */
+    public int getCampaignCount( )
+    {
+        return _nCampaigns;
+    }
+
+    /**
+     * Returns the number of phase rows
+     * 
+     * @return the number of phases
+     */
+    public int getPhaseCount( )
+    {
+        return _nPhases;
+    }
+
+    /**
+     * Returns the number of theme rows
+     * 
+     * @return the number of themes
+     */
+    public int getThemeCount( )
+    {
+        return _nThemes;
+    }
+
+    /**
+     * Returns the number of area rows
+     * 
+     * @return the number of areas
+     */
+    public int getAreaCount( )
+    {
+        return _nAreas;
+    }
+
+    /**
+     * Returns the errors of the invalid rows, in the order of the file
+     * 
+     * @return the errors
+     */
+    public List<RowError> getErrors( )
+    {
+        return Collections.unmodifiableList( _listErrors );
+    }
+
+    /**
+     * Tells whether the file has been imported
+     * 
+     * @return true if all the rows have been written
+     */
+    public boolean isImported( )
+    {
+        return _bImported;
+    }
+
+    /**
+     * Counts a valid campaign row
+     */
+    void addCampaign( )
+    {
+        _nCampaigns++;
+    }
+
+    /**
+     * Counts a valid phase row
+     */
+    void addPhase( )
+    {
+        _nPhases++;
+    }
+
+    /**
+     * Counts a valid theme row
+     */
+    void addTheme( )
+    {
+        _nThemes++;
+    }
+
+    /**
+     * Counts a valid area row
+     */
+    void addArea( )
+    {
+        _nAreas++;
+    }
+
+    /**
+     * Adds the error of a row
+     * 
+     * @param nRow
+     *            the number of the row
+     * @param strMessage
+     *            the localized message
+     */
+    void addError( int nRow, String strMessage )
+    {
+        _listErrors.add( new RowError( nRow, strMessage ) );
+    }
+
+    /**
+     * Tells whether an error has been found
+     * 
+     * @return true if at least one row is invalid
+     */
+    boolean hasErrors( )
+    {
+        return !_listErrors.isEmpty( );
+    }
+
+    /**
+     * Marks the file as imported
+     */
+    void setImported( )
+    {
+        _bImported = true;
+    }
+
+    /**
+     * Error of a row of the file
+     */
+    public static final class RowError
+    {
+        private final int _nRow;
+        private final String _strMessage;
+
+        /**
+         * Constructor
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param strMessage
+         *            the localized message
+         */
+        RowError( int nRow, String strMessage )
+        {
+            _nRow = nRow;
+            _strMessage = strMessage;
+        }
+
+        /**
+         * Returns the number of the row : the line number in a CSV file, the position in the array of a JSON file
+         * 
+         * @return the number of the row
+         */
+        public int getRow( )
+        {
+            return _nRow;
+        }
+
+        /**
+         * Returns the message of the error
+         * 
+         * @return the localized message
+         */
+        public String getMessage( )
+        {
+            return _strMessage;
+        }
+    }
+}
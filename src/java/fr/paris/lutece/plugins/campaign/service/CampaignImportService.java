@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import fr.paris.lutece.plugins.campaign.business.Area;
+import fr.paris.lutece.plugins.campaign.business.AreaHome;
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.business.DataVersionHome;
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.plugins.campaign.business.PhaseHome;
+import fr.paris.lutece.plugins.campaign.business.Theme;
+import fr.paris.lutece.plugins.campaign.business.ThemeHome;
+import fr.paris.lutece.portal.service.i18n.I18nService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import fr.paris.lutece.util.ReferenceItem;
+import fr.paris.lutece.util.beanvalidation.BeanValidationUtil;
+import fr.paris.lutece.util.beanvalidation.ValidationError;
+
+/**
+ * Imports a campaign configuration from a CSV or a JSON file. The rows are read one by one, checked with the constraints of the business objects,
+ * and written by batches of inserts in a single transaction : the file is imported entirely, or not at all if one of its rows is invalid.
+ * <p>
+ * Each row holds a campaign, a phase, a theme or an area, as given by its <code>entity</code> column. The other columns have the names of the fields
+ * of the creation forms. The campaign of a phase, a theme or an area must exist or be defined by a previous row of the file.
+ */
+public final class CampaignImportService
+{
+    // Entities
+    private static final String ENTITY_CAMPAIGN = "campaign";
+    private static final String ENTITY_PHASE = "phase";
+    private static final String ENTITY_THEME = "theme";
+    private static final String ENTITY_AREA = "area";
+
+    // Properties
+    private static final String PROPERTY_BATCH_SIZE = "campaign.import.batchSize";
+    private static final String PROPERTY_MAX_ERRORS = "campaign.import.maxErrors";
+    private static final String PROPERTY_CSV_SEPARATOR = "campaign.import.csv.separator";
+    static final int BATCH_SIZE = AppPropertiesService.getPropertyInt( PROPERTY_BATCH_SIZE, 100 );
+    private static final int MAX_ERRORS = AppPropertiesService.getPropertyInt( PROPERTY_MAX_ERRORS, 100 );
+    private static final String DEFAULT_CSV_SEPARATOR = ";";
+
+    private static final String EXTENSION_JSON = ".json";
+
+    // Validations
+    private static final String VALIDATION_CAMPAIGN_PREFIX = "campaign.model.entity.campaign.attribute.";
+    private static final String VALIDATION_PHASE_PREFIX = "campaign.model.entity.phase.attribute.";
+    private static final String VALIDATION_THEME_PREFIX = "campaign.model.entity.theme.attribute.";
+    private static final String VALIDATION_AREA_PREFIX = "campaign.model.entity.area.attribute.";
+
+    // Messages
+    private static final String MESSAGE_ERROR_FILE = "campaign.import.error.file";
+    private static final String MESSAGE_ERROR_WRITE = "campaign.import.error.write";
+    private static final String MESSAGE_ERROR_TOO_MANY = "campaign.import.error.tooManyErrors";
+    private static final String MESSAGE_ERROR_ENTITY = "campaign.import.error.entity";
+    private static final String MESSAGE_ERROR_VALUE = "campaign.import.error.value";
+    private static final String MESSAGE_ERROR_CAMPAIGN_MISSING = "campaign.import.error.campaignMissing";
+    private static final String MESSAGE_ERROR_CAMPAIGN_UNKNOWN = "campaign.import.error.campaignUnknown";
+    private static final String MESSAGE_ERROR_CAMPAIGN_EXISTING = "campaign.import.error.campaignExisting";
+    private static final String MESSAGE_ERROR_PHASE_TYPE = "campaign.import.error.phaseType";
+
+    private CampaignImportService( )
+    {
+
+    }
+
+    /**
+     * Imports a file. The format is given by the extension of the file : JSON for a <code>.json</code> file, CSV otherwise.
+     * 
+     * @param strFileName
+     *            the name of the file
+     * @param inputStream
+     *            the content of the file, encoded in UTF-8
+     * @param locale
+     *            the locale of the error messages
+     * @return the result of the import
+     */
+    public static CampaignImportResult importFile( String strFileName, InputStream inputStream, Locale locale )
+    {
+        ImportRowReader reader;
+        try
+        {
+            reader = newReader( strFileName, inputStream );
+        }
+        catch( IOException e )
+        {
+            CampaignImportResult result = new CampaignImportResult( );
+            result.addError( 0, I18nService.getLocalizedString( MESSAGE_ERROR_FILE, new Object [ ] {
+                    e.getMessage( )
+            }, locale ) );
+
+            return result;
+        }
+
+        try
+        {
+            return importRows( reader, locale );
+        }
+        finally
+        {
+            try
+            {
+                reader.close( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Error closing the campaign configuration file " + strFileName, e );
+            }
+        }
+    }
+
+    /**
+     * Imports the rows of a file in a single transaction. The transaction is rolled back even if the import is stopped by an Error, so that it is
+     * never left open on the thread.
+     * 
+     * @param reader
+     *            the reader of the rows
+     * @param locale
+     *            the locale of the error messages
+     * @return the result of the import
+     */
+    static CampaignImportResult importRows( ImportRowReader reader, Locale locale )
+    {
+        ImportContext context = new ImportContext( locale );
+        CampaignImportResult result = null;
+
+        DataVersionHome.beginDeferredWrites( );
+        try
+        {
+            readRows( reader, context );
+
+            result = context.getResult( );
+            if ( result.hasErrors( ) )
+            {
+                DataVersionHome.rollBackDeferredWrites( );
+            }
+            else
+            {
+                try
+                {
+                    // The notifications of the batches are only fired once the import is committed
+                    DataVersionHome.commitDeferredWrites( );
+                    result.setImported( );
+                }
+                catch( RuntimeException e )
+                {
+                    AppLogService.error( "Error committing the campaign configuration", e );
+                    context.addError( reader.getRowNumber( ), MESSAGE_ERROR_WRITE, e.getMessage( ) );
+                }
+            }
+        }
+        finally
+        {
+            if ( result == null )
+            {
+                DataVersionHome.rollBackDeferredWrites( );
+            }
+            if ( result == null || !result.isImported( ) )
+            {
+                // The caches read by the import, such as the catalog of the campaigns, may hold the data which has been rolled back
+                CampaignCoherenceService.getInstance( ).invalidateAll( );
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads and writes the rows of a file, until the end of the file or the maximum number of errors
+     * 
+     * @param reader
+     *            the reader of the rows
+     * @param context
+     *            the context of the import
+     */
+    private static void readRows( ImportRowReader reader, ImportContext context )
+    {
+        try
+        {
+            Map<String, String> mapRow = reader.nextRow( );
+            while ( mapRow != null && context.getErrorCount( ) < MAX_ERRORS )
+            {
+                context.importRow( reader.getRowNumber( ), mapRow );
+                mapRow = reader.nextRow( );
+            }
+            if ( mapRow != null )
+            {
+                context.addError( reader.getRowNumber( ), MESSAGE_ERROR_TOO_MANY );
+            }
+            context.flush( );
+        }
+        catch( IOException e )
+        {
+            context.addError( reader.getRowNumber( ), MESSAGE_ERROR_FILE, e.getMessage( ) );
+        }
+        catch( RuntimeException e )
+        {
+            AppLogService.error( "Error importing the campaign configuration", e );
+            context.addError( reader.getRowNumber( ), MESSAGE_ERROR_WRITE, e.getMessage( ) );
+        }
+    }
+
+    /**
+     * Creates the reader of a file
+     * 
+     * @param strFileName
+     *            the name of the file
+     * @param inputStream
+     *            the content of the file
+     * @return the reader
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    private static ImportRowReader newReader( String strFileName, InputStream inputStream ) throws IOException
+    {
+        if ( strFileName != null && strFileName.toLowerCase( Locale.ROOT ).endsWith( EXTENSION_JSON ) )
+        {
+            return new JsonImportRowReader( inputStream );
+        }
+
+        String strSeparator = AppPropertiesService.getProperty( PROPERTY_CSV_SEPARATOR, DEFAULT_CSV_SEPARATOR );
+        return new CsvImportRowReader( new InputStreamReader( inputStream, StandardCharsets.UTF_8 ), strSeparator.charAt( 0 ) );
+    }
+
+    /**
+     * State of an import : the valid objects waiting for their batch, the campaigns defined by the file and the errors
+     */
+    private static final class ImportContext
+    {
+        private final CampaignImportResult _result = new CampaignImportResult( );
+        private final Locale _locale;
+        private final Set<String> _setCampaignCodes = new HashSet<>( );
+        private final Set<String> _setPhaseTypes = new HashSet<>( );
+        private List<Campaign> _listCampaigns = new ArrayList<>( );
+        private List<Phase> _listPhases = new ArrayList<>( );
+        private List<Theme> _listThemes = new ArrayList<>( );
+        private List<Area> _listAreas = new ArrayList<>( );
+
+        /**
+         * Constructor
+         * 
+         * @param locale
+         *            the locale of the error messages
+         */
+        ImportContext( Locale locale )
+        {
+            _locale = locale;
+            for ( ReferenceItem item : PhaseHome.getPhasesTypeReferenceList( ) )
+            {
+                _setPhaseTypes.add( item.getCode( ) );
+            }
+        }
+
+        /**
+         * Checks a row and adds its object to the next batch
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param mapRow
+         *            the row
+         */
+        void importRow( int nRow, Map<String, String> mapRow )
+        {
+            String strEntity = ImportRowMapper.getString( mapRow, ImportRowMapper.COLUMN_ENTITY );
+            try
+            {
+                if ( ENTITY_CAMPAIGN.equalsIgnoreCase( strEntity ) )
+                {
+                    importCampaign( nRow, ImportRowMapper.toCampaign( mapRow ) );
+                }
+                else if ( ENTITY_PHASE.equalsIgnoreCase( strEntity ) )
+                {
+                    importPhase( nRow, ImportRowMapper.toPhase( mapRow ) );
+                }
+                else if ( ENTITY_THEME.equalsIgnoreCase( strEntity ) )
+                {
+                    importTheme( nRow, ImportRowMapper.toTheme( mapRow ) );
+                }
+                else if ( ENTITY_AREA.equalsIgnoreCase( strEntity ) )
+                {
+                    importArea( nRow, ImportRowMapper.toArea( mapRow ) );
+                }
+                else
+                {
+                    addError( nRow, MESSAGE_ERROR_ENTITY, strEntity );
+                }
+            }
+            catch( ImportRowMapper.InvalidValueException e )
+            {
+                addError( nRow, MESSAGE_ERROR_VALUE, e.getColumn( ), e.getValue( ) );
+            }
+
+            if ( _listCampaigns.size( ) >= BATCH_SIZE || _listPhases.size( ) >= BATCH_SIZE || _listThemes.size( ) >= BATCH_SIZE
+                    || _listAreas.size( ) >= BATCH_SIZE )
+            {
+                flush( );
+            }
+        }
+
+        /**
+         * Writes the objects waiting for their batch. Nothing is written once an error has been found, since the transaction will be rolled back.
+         */
+        void flush( )
+        {
+            if ( !_result.hasErrors( ) )
+            {
+                CampaignHome.createAll( _listCampaigns );
+                PhaseHome.createAll( _listPhases );
+                ThemeHome.createAll( _listThemes );
+                AreaHome.createAll( _listAreas );
+            }
+            _listCampaigns = new ArrayList<>( );
+            _listPhases = new ArrayList<>( );
+            _listThemes = new ArrayList<>( );
+            _listAreas = new ArrayList<>( );
+        }
+
+        /**
+         * Returns the result of the import
+         * 
+         * @return the result
+         */
+        CampaignImportResult getResult( )
+        {
+            return _result;
+        }
+
+        /**
+         * Returns the number of errors found so far
+         * 
+         * @return the number of errors
+         */
+        int getErrorCount( )
+        {
+            return _result.getErrors( ).size( );
+        }
+
+        /**
+         * Adds the error of a row
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param strMessageKey
+         *            the key of the message
+         * @param args
+         *            the arguments of the message
+         */
+        void addError( int nRow, String strMessageKey, Object... args )
+        {
+            _result.addError( nRow, I18nService.getLocalizedString( strMessageKey, args, _locale ) );
+        }
+
+        /**
+         * Checks a campaign row
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param campaign
+         *            the campaign of the row
+         */
+        private void importCampaign( int nRow, Campaign campaign )
+        {
+            String strCampaignCode = campaign.getCampaignCode( );
+            boolean bValid = validate( nRow, campaign, VALIDATION_CAMPAIGN_PREFIX );
+            if ( strCampaignCode == null )
+            {
+                addError( nRow, MESSAGE_ERROR_CAMPAIGN_MISSING );
+                bValid = false;
+            }
+            else if ( _setCampaignCodes.contains( strCampaignCode ) || CampaignService.getInstance( ).findCampaignByCode( strCampaignCode ) != null )
+            {
+                addError( nRow, MESSAGE_ERROR_CAMPAIGN_EXISTING, strCampaignCode );
+                bValid = false;
+            }
+
+            if ( bValid )
+            {
+                _setCampaignCodes.add( strCampaignCode );
+                _listCampaigns.add( campaign );
+                _result.addCampaign( );
+            }
+        }
+
+        /**
+         * Checks a phase row
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param phase
+         *            the phase of the row
+         */
+        private void importPhase( int nRow, Phase phase )
+        {
+            // The checks are not short-circuited, so that all the errors of the row are reported
+            boolean bValid = validate( nRow, phase, VALIDATION_PHASE_PREFIX ) & checkCampaign( nRow, phase.getCampaignCode( ) );
+            if ( phase.getCodePhaseType( ) != null && !_setPhaseTypes.contains( phase.getCodePhaseType( ) ) )
+            {
+                addError( nRow, MESSAGE_ERROR_PHASE_TYPE, phase.getCodePhaseType( ) );
+                bValid = false;
+            }
+
+            if ( bValid )
+            {
+                _listPhases.add( phase );
+                _result.addPhase( );
+            }
+        }
+
+        /**
+         * Checks a theme row
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param theme
+         *            the theme of the row
+         */
+        private void importTheme( int nRow, Theme theme )
+        {
+            if ( validate( nRow, theme, VALIDATION_THEME_PREFIX ) & checkCampaign( nRow, theme.getCampaignCode( ) ) )
+            {
+                _listThemes.add( theme );
+                _result.addTheme( );
+            }
+        }
+
+        /**
+         * Checks an area row
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param area
+         *            the area of the row
+         */
+        private void importArea( int nRow, Area area )
+        {
+            if ( validate( nRow, area, VALIDATION_AREA_PREFIX ) & checkCampaign( nRow, area.getCampaignCode( ) ) )
+            {
+                _listAreas.add( area );
+                _result.addArea( );
+            }
+        }
+
+        /**
+         * Checks an object with its constraints
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param bean
+         *            the object
+         * @param strFieldsKeyPrefix
+         *            the prefix of the keys of the names of the fields
+         * @return true if the object is valid
+         */
+        private <T> boolean validate( int nRow, T bean, String strFieldsKeyPrefix )
+        {
+            List<ValidationError> listErrors = BeanValidationUtil.validate( bean, _locale, strFieldsKeyPrefix );
+            for ( ValidationError error : listErrors )
+            {
+                _result.addError( nRow, error.getMessage( ) );
+            }
+
+            return listErrors.isEmpty( );
+        }
+
+        /**
+         * Checks that the campaign of a row exists or is defined by a previous row
+         * 
+         * @param nRow
+         *            the number of the row
+         * @param strCampaignCode
+         *            the campaign code
+         * @return true if the campaign is known
+         */
+        private boolean checkCampaign( int nRow, String strCampaignCode )
+        {
+            if ( strCampaignCode == null )
+            {
+                addError( nRow, MESSAGE_ERROR_CAMPAIGN_MISSING );
+                return false;
+            }
+            if ( !_setCampaignCodes.contains( strCampaignCode ) && CampaignService.getInstance( ).findCampaignByCode( strCampaignCode ) == null )
+            {
+                addError( nRow, MESSAGE_ERROR_CAMPAIGN_UNKNOWN, strCampaignCode );
+                return false;
+            }
+
+            return true;
+        }
+    }
+}
@@ -36,7 +36,6 @@ package fr.paris.lutece.plugins.campaign.service;
 import java.util.Collection;
 
 import fr.paris.lutece.plugins.campaign.business.Phase;
-import fr.paris.lutece.plugins.campaign.business.PhaseHome;
 
 /**
  * 
@@ -59,16 +58,25 @@ public class CampaignPhaseService implements ICampaignPhaseService
         return _singleton;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The phase is read from the in-memory index of the phases, which is invalidated with the phase predicates.
+     */
     @Override
     public Phase findPhaseByCampaignAndPhaseTypeCode( String campaignCode, String phaseTypeCode )
     {
-
-        return PhaseHome.findByCampaignCodeAndPhaseTypeCode( campaignCode, phaseTypeCode );
+        return CampaignService.currentPhaseIndex( ).getPhaseByType( campaignCode, phaseTypeCode );
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The phases are read from the in-memory index of the phases, which is invalidated with the phase predicates.
+     */
     @Override
     public Collection<Phase> getPhasesListByCampaign( String campagneCode )
     {
-        return PhaseHome.getPhasesListByCampaign( campagneCode );
+        return CampaignService.currentPhaseIndex( ).getPhases( campagneCode );
     }
 }
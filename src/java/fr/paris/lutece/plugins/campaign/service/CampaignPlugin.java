@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.portal.service.plugin.PluginDefaultImplementation;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Campaign plugin. At startup, the campaign data is loaded in memory so that the first requests do not pay for it; the plugin is ready once every
+ * loading step has succeeded. The failed steps are retried by the readiness check and by the refresh daemon.
+ */
+public class CampaignPlugin extends PluginDefaultImplementation
+{
+    /**
+     * Name of the plugin
+     */
+    public static final String PLUGIN_NAME = "campaign";
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String PROPERTY_WARM_UP_RETRY_INTERVAL = "campaign.warmUp.retryInterval";
+    private static final int DEFAULT_WARM_UP_RETRY_INTERVAL = 10;
+
+    private static final CampaignWarmUp WARM_UP = new CampaignWarmUp( getWarmUpSteps( ),
+            TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_WARM_UP_RETRY_INTERVAL, DEFAULT_WARM_UP_RETRY_INTERVAL ) ),
+            System::currentTimeMillis );
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init( )
+    {
+        super.init( );
+
+        long lStart = System.currentTimeMillis( );
+        if ( WARM_UP.run( ) )
+        {
+            AppLogService.info( "Campaign warm-up done in " + ( System.currentTimeMillis( ) - lStart ) + " ms" );
+        }
+        else
+        {
+            // The data will be loaded by the first request instead, the plugin is not ready until the failed steps succeed
+            AppLogService.error( "Campaign warm-up incomplete, the failed steps will be retried by the readiness check and the refresh daemon" );
+        }
+    }
+
+    /**
+     * Tells whether the campaign data has been loaded at startup
+     * 
+     * @return true once every warm-up step has succeeded
+     */
+    public static boolean isReady( )
+    {
+        return WARM_UP.isDone( );
+    }
+
+    /**
+     * Tells whether the campaign data has been loaded, retrying the failed warm-up steps at most once per retry interval
+     * 
+     * @return true once every warm-up step has succeeded
+     */
+    public static boolean checkReady( )
+    {
+        return WARM_UP.retry( );
+    }
+
+    /**
+     * Runs again the warm-up steps which have failed
+     * 
+     * @return true if every warm-up step has now succeeded
+     */
+    static boolean retryWarmUp( )
+    {
+        return WARM_UP.isDone( ) || WARM_UP.run( );
+    }
+
+    /**
+     * Returns the steps loading the campaign data, by name
+     * 
+     * @return the steps, in execution order
+     */
+    private static Map<String, Runnable> getWarmUpSteps( )
+    {
+        Map<String, Runnable> mapSteps = new LinkedHashMap<>( );
+        mapSteps.put( "phases", CampaignService::currentPhaseIndex );
+        mapSteps.put( "campaigns", ( ) -> CampaignService.getInstance( ).getCampaignsList( ) );
+        mapSteps.put( "themes", ( ) -> CampaignThemeService.getInstance( ).getThemesMapByCampaign( ) );
+        mapSteps.put( "areas", ( ) -> {
+            for ( Campaign campaign : CampaignService.getInstance( ).getCampaignsList( ) )
+            {
+                CampaignAreaService.getAreasReferenceList( campaign.getCampaignCode( ) );
+            }
+        } );
+
+        return mapSteps;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import fr.paris.lutece.portal.service.daemon.Daemon;
+
+/**
+ * Daemon reloading the campaign data periodically, so that changes made directly in the database are taken into account. The data is reloaded
+ * off the request path and the previous data is kept if the reload fails. Until the warm-up of the plugin is done, the daemon retries its failed
+ * steps instead.
+ */
+public class CampaignRefreshDaemon extends Daemon
+{
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run( )
+    {
+        if ( !CampaignPlugin.isReady( ) )
+        {
+            if ( CampaignPlugin.retryWarmUp( ) )
+            {
+                setLastRunLogs( "Campaign warm-up done" );
+            }
+            else
+            {
+                setLastRunLogs( "Campaign warm-up failed again, retried at the next run" );
+            }
+            return;
+        }
+
+        boolean bRefreshed = CampaignService.refreshInstance( );
+        bRefreshed &= CampaignThemeService.refreshInstance( );
+        bRefreshed &= CampaignAreaService.refresh( );
+        bRefreshed &= CampaignAggregateService.refresh( );
+
+        if ( bRefreshed )
+        {
+            setLastRunLogs( "Campaign data refreshed" );
+        }
+        else
+        {
+            setLastRunLogs( "Campaign data not refreshed, the previous data is kept" );
+        }
+    }
+}
@@ -34,159 +34,468 @@
 package fr.paris.lutece.plugins.campaign.service;
 
 import java.sql.Timestamp;
+import java.time.Clock;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import fr.paris.lutece.plugins.campaign.business.Phase;
 import fr.paris.lutece.plugins.campaign.business.PhaseHome;
 import fr.paris.lutece.plugins.campaign.business.Campaign;
 import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.business.IResourceChangeListener;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.ReferenceList;
 
 public class CampaignService implements ICampaignService
 {
-    private Map<String, Timestamp> _cache = null;
-
-    private static ICampaignService _singleton;
+    private final Clock _clock;
+    private final CampaignCacheService _phaseCache;
+    private final ReloadableSnapshot<PhaseIndex> _phaseIndex;
+    private final PhaseTimeline _timeline;
+    private final UnknownPhaseTracker _unknownPhases;
+    private final CampaignCacheService _campaignCache;
+    private final ReloadableSnapshot<CampaignCatalog> _campaigns;
 
     public static final String LAST_CAMPAIGN_ID = "campaign.last.id";
+    private static final String BEAN_CLOCK = "campaign.clock";
+    private static final String PROPERTY_UNKNOWN_PHASE_LOG_INTERVAL = "campaign.unknownPhase.logInterval";
+    private static final int DEFAULT_UNKNOWN_PHASE_LOG_INTERVAL = 300;
+    private static final String KEY_PHASES = "phases";
+    private static final String KEY_CAMPAIGNS = "campaigns";
+
+    /**
+     * Constructor
+     */
+    public CampaignService( )
+    {
+        this( CampaignCoherenceService.getInstance( ), SpringContextService.getBean( BEAN_CLOCK ),
+                CampaignCacheService.getInstance( CampaignCacheService.CACHE_PHASES ),
+                CampaignCacheService.getInstance( CampaignCacheService.CACHE_CAMPAIGNS ) );
+    }
+
+    /**
+     * Constructor of a service which is not registered in the cache service
+     * 
+     * @param coherenceService
+     *            the service notifying the changes made on the other nodes
+     * @param clock
+     *            the clock against which the states of the phases are evaluated
+     */
+    CampaignService( CampaignCoherenceService coherenceService, Clock clock )
+    {
+        this( coherenceService, clock, CampaignCacheService.unregistered( CampaignCacheService.CACHE_PHASES ),
+                CampaignCacheService.unregistered( CampaignCacheService.CACHE_CAMPAIGNS ) );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param coherenceService
+     *            the service notifying the changes made on the other nodes
+     * @param clock
+     *            the clock against which the states of the phases are evaluated
+     * @param phaseCache
+     *            the cache of the phases
+     * @param campaignCache
+     *            the cache of the campaigns
+     */
+    private CampaignService( CampaignCoherenceService coherenceService, Clock clock, CampaignCacheService phaseCache, CampaignCacheService campaignCache )
+    {
+        _clock = clock;
+        _phaseCache = phaseCache;
+        _phaseIndex = phaseCache.bind( KEY_PHASES, new ReloadableSnapshot<>( "campaign phases", this::loadPhaseIndex ) );
+        _campaignCache = campaignCache;
+        _campaigns = campaignCache.bind( KEY_CAMPAIGNS,
+                new ReloadableSnapshot<>( "campaigns", CampaignService::loadCatalog ) );
+        _timeline = new PhaseTimeline( _phaseIndex, clock::millis );
+        _unknownPhases = new UnknownPhaseTracker(
+                TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_UNKNOWN_PHASE_LOG_INTERVAL, DEFAULT_UNKNOWN_PHASE_LOG_INTERVAL ) ),
+                System::currentTimeMillis );
+        CampaignHome.registerListener( new CampaignChangeListener( ) );
+        PhaseHome.registerListener( new PhaseChangeListener( ) );
+        coherenceService.register( this::invalidate );
+    }
 
     public static ICampaignService getInstance( )
     {
-        if ( _singleton == null )
-        {
-            _singleton = new CampaignService( );
-        }
-        return _singleton;
+        return SingletonHolder.INSTANCE;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The phases are reloaded by the next caller while the concurrent callers keep using the current phases.
+     */
     public void reset( )
     {
         AppLogService.debug( "CampagnePhase cache reset" );
 
-        Map<String, Timestamp> cache = new HashMap<String, Timestamp>( );
+        _phaseCache.invalidate( KEY_PHASES, _phaseIndex );
+        _unknownPhases.clear( );
+    }
+
+    /**
+     * Refreshes the phases and the campaigns of the service instance, off the request path
+     * 
+     * @return true if the data has been refreshed, false if it has been kept because of an error or of a load in progress
+     */
+    static boolean refreshInstance( )
+    {
+        return SingletonHolder.INSTANCE.refresh( );
+    }
+
+    /**
+     * Reloads the phases and the campaigns. The readers keep using the current data until the new one is loaded, and keep it if the loading
+     * fails.
+     * 
+     * @return true if the data has been refreshed
+     */
+    boolean refresh( )
+    {
+        boolean bRefreshed = _phaseIndex.refresh( );
+        bRefreshed &= _campaigns.refresh( );
+
+        return bRefreshed;
+    }
+
+    /**
+     * Invalidates the phases and the campaigns
+     */
+    private void invalidate( )
+    {
+        _phaseCache.invalidate( KEY_PHASES, _phaseIndex );
+        _unknownPhases.clear( );
+        _campaignCache.invalidate( KEY_CAMPAIGNS, _campaigns );
+    }
+
+    private CampaignCatalog getCatalog( )
+    {
+        return _campaignCache.get( KEY_CAMPAIGNS, _campaigns );
+    }
 
+    /**
+     * Loads the catalog of the campaigns, without their descriptions which are read on demand. The last campaign is resolved with the identifier
+     * configured at that time.
+     * 
+     * @return the catalog
+     */
+    private static CampaignCatalog loadCatalog( )
+    {
+        return CampaignCatalog.build( CampaignHome.getCampaignsSummaryList( ), AppPropertiesService.getPropertyInt( LAST_CAMPAIGN_ID, -1 ) );
+    }
+
+    /**
+     * Returns the code of the last campaign, without copying the campaign
+     * 
+     * @return the campaign code, or null if the last campaign is unknown
+     */
+    private String getLastCampaignCode( )
+    {
+        return getCatalog( ).getLastCampaignCode( );
+    }
+
+    private PhaseIndex loadPhaseIndex( )
+    {
         Collection<Phase> phases = PhaseHome.getPhasesList( );
         for ( Phase phase : phases )
         {
-            String beginningKey = getKey( phase.getCampaignCode( ), phase.getLabel( ), "BEGINNING_DATETIME" );
-            String endKey = getKey( phase.getCampaignCode( ), phase.getLabel( ), "END_DATETIME" );
-
-            cache.put( beginningKey, phase.getStartingTimeStampDate( ) );
-            cache.put( endKey, phase.getEndingTimeStampDate( ) );
-
             AppLogService.debug( "  -> Added '" + phase.getCampaignCode( ) + "-" + phase.getLabel( ) + "' = '" + phase.getStartingTimeStampDate( ) + "/"
                     + phase.getEndingTimeStampDate( ) + "'." );
         }
 
-        _cache = cache;
+        return PhaseIndex.build( phases, _clock.millis( ) );
     }
 
-    private String getKey( String campain, String phase, String datetimeType )
+    /**
+     * Returns the current index of the phases, shared with the other campaign services
+     * 
+     * @return the index
+     */
+    static PhaseIndex currentPhaseIndex( )
     {
-        return campain + "-" + phase + "-" + datetimeType;
+        return SingletonHolder.INSTANCE.getIndex( );
     }
 
-    private Map<String, Timestamp> getCache( )
+    /**
+     * Returns the current index of the phases. The phase predicates read the snapshot directly rather than the cache, so that they stay a volatile
+     * read without lookup nor lock : the cache entry only mirrors the snapshot, and its eviction or its flush invalidates the snapshot.
+     * 
+     * @return the index
+     */
+    private PhaseIndex getIndex( )
     {
-        if ( _cache == null )
-            reset( );
+        return _phaseIndex.get( );
+    }
 
-        return _cache;
+    private PhaseWindow getWindow( PhaseIndex index, String campain, String phase )
+    {
+        PhaseWindow window = index.getWindow( campain, phase );
+        if ( window == null )
+        {
+            throw _unknownPhases.lookup( campain, phase );
+        }
+        return window;
     }
 
-    private Timestamp getTimestamp( String campain, String phase, String timestampType )
+    /**
+     * {@inheritDoc}
+     */
+    public Optional<PhaseState> getPhaseState( String campain, String phase )
     {
-        String key = getKey( campain, phase, timestampType );
-        Timestamp timeStamp = getCache( ).get( key );
-        if ( timeStamp == null )
+        PhaseWindow window = getIndex( ).getWindow( campain, phase );
+        if ( window == null )
         {
-            String errorMsg = "Null datetime for campagne '" + campain + "' and phase '" + phase + "' and timestampType '" + timestampType + "'. ";
-            AppLogService.error( errorMsg );
-            throw new NoSuchPhaseException( errorMsg );
+            _unknownPhases.lookup( campain, phase );
+            return Optional.empty( );
         }
-        return timeStamp;
+        return Optional.of( PhaseState.of( window.getStart( ), window.getEnd( ), _clock.millis( ) ) );
     }
 
-    public boolean isDuring( String campain, String phase )
+    /**
+     * {@inheritDoc}
+     */
+    public Optional<PhaseState> getPhaseState( String phase )
     {
-        Timestamp beginningTimeStamp = getTimestamp( campain, phase, "BEGINNING_DATETIME" );
-        Timestamp endTimeStamp = getTimestamp( campain, phase, "END_DATETIME" );
+        return getPhaseState( getLastCampaignCode( ), phase );
+    }
 
-        Date date = new Date( );
+    /**
+     * {@inheritDoc}
+     */
+    public long getUnknownPhaseLookupCount( )
+    {
+        return _unknownPhases.getLookupCount( );
+    }
 
-        boolean result = date.after( beginningTimeStamp ) && date.before( endTimeStamp );
-        return result;
+    public boolean isDuring( String campain, String phase )
+    {
+        return getWindow( getIndex( ), campain, phase ).isDuring( _clock.millis( ) );
     }
 
     public boolean isDuring( String phase )
     {
-        return isDuring( getLastCampaign( ).getCampaignCode( ), phase );
+        return isDuring( getLastCampaignCode( ), phase );
     }
 
     public boolean isBeforeEnd( String campain, String phase )
     {
-        Timestamp timeStamp = getTimestamp( campain, phase, "END_DATETIME" );
-        Date date = new Date( );
-        boolean result = date.before( timeStamp );
-        return result;
+        return getWindow( getIndex( ), campain, phase ).isBeforeEnd( _clock.millis( ) );
     }
 
     public boolean isBeforeEnd( String phase )
     {
-        return isBeforeEnd( getLastCampaign( ).getCampaignCode( ), phase );
+        return isBeforeEnd( getLastCampaignCode( ), phase );
     }
 
     public boolean isAfterBeginning( String campain, String phase )
     {
-        Timestamp timeStamp = getTimestamp( campain, phase, "BEGINNING_DATETIME" );
-        Date date = new Date( );
-        boolean result = date.after( timeStamp );
-        return result;
+        return getWindow( getIndex( ), campain, phase ).isAfterBeginning( _clock.millis( ) );
     }
 
     public boolean isAfterBeginning( String phase )
     {
-        return isAfterBeginning( getLastCampaign( ).getCampaignCode( ), phase );
+        return isAfterBeginning( getLastCampaignCode( ), phase );
     }
 
     public boolean isBeforeBeginning( String campain, String phase )
     {
-        Timestamp timeStamp = getTimestamp( campain, phase, "BEGINNING_DATETIME" );
-        Date date = new Date( );
-        boolean result = date.before( timeStamp );
-        return result;
+        return getWindow( getIndex( ), campain, phase ).isBeforeBeginning( _clock.millis( ) );
     }
 
     public boolean isBeforeBeginning( String phase )
     {
-        return isBeforeBeginning( getLastCampaign( ).getCampaignCode( ), phase );
+        return isBeforeBeginning( getLastCampaignCode( ), phase );
     }
 
     public boolean isAfterEnd( String campain, String phase )
     {
-        Timestamp timeStamp = getTimestamp( campain, phase, "END_DATETIME" );
-        Date date = new Date( );
-        boolean result = date.after( timeStamp );
-        return result;
+        return getWindow( getIndex( ), campain, phase ).isAfterEnd( _clock.millis( ) );
     }
 
     public boolean isAfterEnd( String phase )
     {
-        return isAfterEnd( getLastCampaign( ).getCampaignCode( ), phase );
+        return isAfterEnd( getLastCampaignCode( ), phase );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public CampaignStatus getCampaignStatus( String campain )
+    {
+        return new CampaignStatus( campain, getIndex( ).getWindows( campain ), _clock.millis( ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public CampaignStatus getCampaignStatus( )
+    {
+        return getCampaignStatus( getLastCampaignCode( ) );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Timestamp getNextPhaseTransition( )
+    {
+        long lTransition = getIndex( ).getNextTransition( );
+
+        return ( lTransition != PhaseIndex.NO_TRANSITION ) ? new Timestamp( lTransition ) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The phases are loaded if needed, so that the timer of the next transition is armed.
+     */
+    public void registerPhaseTransitionListener( IPhaseTransitionListener listener )
+    {
+        _timeline.register( listener );
+        getIndex( );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void unregisterPhaseTransitionListener( IPhaseTransitionListener listener )
+    {
+        _timeline.unregister( listener );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The campaign is a modifiable copy read from the in-memory catalog of the campaigns, in which it is resolved once per load.
+     */
     public Campaign getLastCampaign( )
     {
-        return CampaignHome.findByPrimaryKey( AppPropertiesService.getPropertyInt( LAST_CAMPAIGN_ID, -1 ) );
+        return getCatalog( ).getLastCampaign( );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The campaign is a modifiable copy read from the in-memory catalog of the campaigns.
+     */
+    public Campaign findCampaignById( int nId )
+    {
+        return getCatalog( ).getById( nId );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The campaign is a modifiable copy read from the in-memory catalog of the campaigns.
+     */
+    public Campaign findCampaignByCode( String strCampaignCode )
+    {
+        return getCatalog( ).getByCode( strCampaignCode );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The campaigns are modifiable copies read from the in-memory catalog of the campaigns. The campaigns missing from the
+     * catalog, such as the ones just created on another node, are loaded together by chunks of identifiers.
+     */
+    @Override
+    public Map<Integer, Campaign> findCampaignsByIds( Collection<Integer> listIds )
+    {
+        CampaignCatalog catalog = getCatalog( );
+        return BulkLookup.find( listIds, catalog::getById, CampaignHome::findByPrimaryKeys );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The campaigns are modifiable copies read from the in-memory catalog of the campaigns. The campaigns missing from the
+     * catalog, such as the ones just created on another node, are loaded together by chunks of codes.
+     */
+    @Override
+    public Map<String, Campaign> findCampaignsByCodes( Collection<String> listCampaignCodes )
+    {
+        CampaignCatalog catalog = getCatalog( );
+        return BulkLookup.find( listCampaignCodes, catalog::getByCode, CampaignHome::findByCodes );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The campaigns are modifiable copies read from the in-memory catalog of the campaigns, in a new list.
+     */
+    public List<Campaign> getCampaignsList( )
+    {
+        return getCatalog( ).copyCampaigns( );
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The list is built from the in-memory catalog of the campaigns, ordered by code.
+     */
     public ReferenceList getCampaignsReferenceList( )
     {
-        return CampaignHome.getCampaignsReferenceList( );
+        return getCatalog( ).getReferenceList( );
+    }
+
+    /**
+     * Lazy holder of the singleton
+     */
+    private static final class SingletonHolder
+    {
+        private static final CampaignService INSTANCE = new CampaignService( );
+    }
+
+    /**
+     * Reloads the catalog of the campaigns at the next read after every campaign change
+     */
+    private final class CampaignChangeListener implements IResourceChangeListener<Campaign>
+    {
+        @Override
+        public void resourceCreated( Campaign campaign )
+        {
+            _campaignCache.invalidate( KEY_CAMPAIGNS, _campaigns );
+        }
+
+        @Override
+        public void resourceUpdated( Campaign campaign )
+        {
+            _campaignCache.invalidate( KEY_CAMPAIGNS, _campaigns );
+        }
+
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            _campaignCache.invalidate( KEY_CAMPAIGNS, _campaigns );
+        }
+    }
+
+    /**
+     * Patches the phase index on every phase change, evaluating it at the current instant
+     */
+    private final class PhaseChangeListener implements IResourceChangeListener<Phase>
+    {
+        @Override
+        public void resourceCreated( Phase phase )
+        {
+            _phaseIndex.update( index -> index.withPhase( phase, _clock.millis( ) ) );
+        }
+
+        @Override
+        public void resourceUpdated( Phase phase )
+        {
+            _phaseIndex.update( index -> index.withPhase( phase, _clock.millis( ) ) );
+        }
+
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            _phaseIndex.update( index -> index.withoutPhase( nId, _clock.millis( ) ) );
+        }
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable status of all the phases of a campaign, evaluated at a single instant. A page can read the status of several phases from one view,
+ * with consistent results.
+ */
+public final class CampaignStatus
+{
+    private final String _strCampaignCode;
+    private final long _lInstant;
+    private final Map<String, PhaseStatus> _mapPhases;
+
+    /**
+     * Constructor
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @param mapWindows
+     *            the windows of the phases of the campaign, by label
+     * @param lInstant
+     *            the instant at which the states of the phases are evaluated
+     */
+    CampaignStatus( String strCampaignCode, Map<String, PhaseWindow> mapWindows, long lInstant )
+    {
+        _strCampaignCode = strCampaignCode;
+        _lInstant = lInstant;
+
+        Map<String, PhaseStatus> mapPhases = new HashMap<>( );
+        for ( Map.Entry<String, PhaseWindow> entry : mapWindows.entrySet( ) )
+        {
+            mapPhases.put( entry.getKey( ), new PhaseStatus( entry.getKey( ), entry.getValue( ), lInstant ) );
+        }
+        _mapPhases = Collections.unmodifiableMap( mapPhases );
+    }
+
+    /**
+     * Returns the campaign code
+     * 
+     * @return the campaign code
+     */
+    public String getCampaignCode( )
+    {
+        return _strCampaignCode;
+    }
+
+    /**
+     * Returns the instant at which the states of the phases have been evaluated
+     * 
+     * @return the instant
+     */
+    public Timestamp getInstant( )
+    {
+        return new Timestamp( _lInstant );
+    }
+
+    /**
+     * Returns the status of a phase
+     * 
+     * @param strPhase
+     *            the phase label
+     * @return the status, or null if the phase is unknown
+     */
+    public PhaseStatus getPhase( String strPhase )
+    {
+        return _mapPhases.get( strPhase );
+    }
+
+    /**
+     * Returns the statuses of all the phases
+     * 
+     * @return the unmodifiable map phase label -&gt; status
+     */
+    public Map<String, PhaseStatus> getPhases( )
+    {
+        return _mapPhases;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+
+/**
+ * Campaign of the in-memory catalog, holding only its small fields : its description is read on first access from the description cache.
+ * <p>
+ * The summaries of the catalog cannot be modified : their setters throw an UnsupportedOperationException. They are only shared with the services
+ * reading the catalog; the lookups and the lists handed to the other callers are modifiable copies, whose description is still read on demand
+ * unless it is set.
+ */
+public class CampaignSummary extends Campaign
+{
+    private static final long serialVersionUID = 1L;
+
+    private final boolean _bModifiable;
+    private boolean _bDescriptionSet;
+
+    /**
+     * Constructor of a summary which cannot be modified
+     * 
+     * @param campaign
+     *            the campaign whose small fields are copied
+     */
+    public CampaignSummary( Campaign campaign )
+    {
+        this( campaign, false );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param campaign
+     *            the campaign whose small fields are copied
+     * @param bModifiable
+     *            true if the setters can be called
+     */
+    private CampaignSummary( Campaign campaign, boolean bModifiable )
+    {
+        super.setId( campaign.getId( ) );
+        super.setCampaignCode( campaign.getCampaignCode( ) );
+        super.setTitle( campaign.getTitle( ) );
+        super.setActive( campaign.getActive( ) );
+        _bModifiable = bModifiable;
+    }
+
+    /**
+     * Returns a summary which cannot be modified for a campaign
+     * 
+     * @param campaign
+     *            the campaign
+     * @return the campaign itself if it is already a summary which cannot be modified, a new summary otherwise
+     */
+    static CampaignSummary of( Campaign campaign )
+    {
+        if ( campaign instanceof CampaignSummary && !( (CampaignSummary) campaign )._bModifiable )
+        {
+            return (CampaignSummary) campaign;
+        }
+
+        return new CampaignSummary( campaign );
+    }
+
+    /**
+     * Returns a modifiable copy of this summary
+     * 
+     * @return the copy
+     */
+    public CampaignSummary copy( )
+    {
+        CampaignSummary copy = new CampaignSummary( this, true );
+        if ( _bDescriptionSet )
+        {
+            copy.setDescription( super.getDescription( ) );
+        }
+
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unless it has been set on a copy, the description is read from the description cache, and loaded from the database if it is not there.
+     */
+    @Override
+    public String getDescription( )
+    {
+        return _bDescriptionSet ? super.getDescription( ) : CampaignDescriptionService.getCampaignDescription( getId( ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDescription( String strDescription )
+    {
+        checkModifiable( );
+        super.setDescription( strDescription );
+        _bDescriptionSet = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setId( int nId )
+    {
+        checkModifiable( );
+        super.setId( nId );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCampaignCode( String strCampaignCode )
+    {
+        checkModifiable( );
+        super.setCampaignCode( strCampaignCode );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTitle( String strTitle )
+    {
+        checkModifiable( );
+        super.setTitle( strTitle );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setActive( boolean bActive )
+    {
+        checkModifiable( );
+        super.setActive( bActive );
+    }
+
+    /**
+     * Checks that this summary can be modified
+     */
+    private void checkModifiable( )
+    {
+        if ( !_bModifiable )
+        {
+            throw new UnsupportedOperationException( "The campaign " + getCampaignCode( ) + " of the catalog is shared and cannot be modified" );
+        }
+    }
+}
@@ -37,41 +37,176 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import fr.paris.lutece.plugins.campaign.business.IResourceChangeListener;
 import fr.paris.lutece.plugins.campaign.business.Theme;
 import fr.paris.lutece.plugins.campaign.business.ThemeHome;
 
+/**
+ * Theme service. The themes are read from an in-memory catalog holding their small fields, their descriptions being read on demand, and
+ * reloaded after every theme change made on this node or on another one.
+ */
 public class CampaignThemeService implements ICampaignThemeService
 {
-    // SINGLETON
-    private static ICampaignThemeService _singleton;
+    private static final String KEY_THEMES = "themes";
+
+    private final CampaignCacheService _cache;
+    private final ReloadableSnapshot<ThemeCatalog> _catalog;
+
+    /**
+     * Constructor
+     * 
+     * @param coherenceService
+     *            the service notifying the changes made on the other nodes
+     * @param cache
+     *            the cache of the themes
+     */
+    CampaignThemeService( CampaignCoherenceService coherenceService, CampaignCacheService cache )
+    {
+        _cache = cache;
+        _catalog = cache.bind( KEY_THEMES, new ReloadableSnapshot<>( "campaign themes", CampaignThemeService::loadCatalog ) );
+        ThemeHome.registerListener( new ThemeChangeListener( ) );
+        coherenceService.register( this::invalidate );
+    }
 
     /**
      * @return CampagneService singleton
      */
     public static ICampaignThemeService getInstance( )
     {
-        if ( _singleton == null )
-        {
-            _singleton = new CampaignThemeService( );
-        }
-        return _singleton;
+        return SingletonHolder.INSTANCE;
     }
 
+    /**
+     * Refreshes the catalog of the service instance, off the request path
+     * 
+     * @return true if the catalog has been refreshed
+     */
+    static boolean refreshInstance( )
+    {
+        return SingletonHolder.INSTANCE._catalog.refresh( );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The themes are modifiable copies read from the in-memory catalog of the themes.
+     */
     @Override
     public Collection<Theme> getThemesListByCampaign( String codeCampaign )
     {
-        return ThemeHome.getThemesListByCampaign( codeCampaign );
+        return getCatalog( ).copyByCampaign( codeCampaign );
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned map is built once per catalog and shared : the map and its lists are unmodifiable, and the setters of the themes throw an
+     * UnsupportedOperationException.
+     */
     @Override
     public Map<String, List<Theme>> getThemesMapByCampaign( )
     {
-        return ThemeHome.getThemesMapByCampaign( );
+        return getCatalog( ).getByCampaign( );
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned theme is a modifiable copy read from the in-memory catalog of the themes.
+     */
     @Override
     public Theme findByCodeTheme( String codeTheme )
     {
-        return ThemeHome.findByCodeTheme( codeTheme );
+        return getCatalog( ).getByCode( codeTheme );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned theme is a modifiable copy read from the in-memory catalog of the themes.
+     */
+    @Override
+    public Theme findByPrimaryKey( int nId )
+    {
+        return getCatalog( ).getById( nId );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The themes are modifiable copies read from the in-memory catalog of the themes. The themes missing from the catalog,
+     * such as the ones just created on another node, are loaded together by chunks of identifiers.
+     */
+    @Override
+    public Map<Integer, Theme> findByPrimaryKeys( Collection<Integer> listIds )
+    {
+        ThemeCatalog catalog = getCatalog( );
+        return BulkLookup.find( listIds, catalog::getById, ThemeHome::findByPrimaryKeys );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The themes are modifiable copies read from the in-memory catalog of the themes. The themes missing from the catalog,
+     * such as the ones just created on another node, are loaded together by chunks of codes.
+     */
+    @Override
+    public Map<String, Theme> findByCodes( Collection<String> listCodesTheme )
+    {
+        ThemeCatalog catalog = getCatalog( );
+        return BulkLookup.find( listCodesTheme, catalog::getByCode, ThemeHome::findByCodes );
+    }
+
+    /**
+     * Loads the catalog of the themes, without their descriptions which are read on demand
+     * 
+     * @return the catalog
+     */
+    private static ThemeCatalog loadCatalog( )
+    {
+        return ThemeCatalog.build( ThemeHome.getThemesSummaryList( ) );
+    }
+
+    private ThemeCatalog getCatalog( )
+    {
+        return _cache.get( KEY_THEMES, _catalog );
+    }
+
+    /**
+     * Reloads the catalog at its next read
+     */
+    private void invalidate( )
+    {
+        _cache.invalidate( KEY_THEMES, _catalog );
+    }
+
+    /**
+     * Reloads the catalog at the next read after a theme change
+     */
+    private final class ThemeChangeListener implements IResourceChangeListener<Theme>
+    {
+        @Override
+        public void resourceCreated( Theme theme )
+        {
+            invalidate( );
+        }
+
+        @Override
+        public void resourceUpdated( Theme theme )
+        {
+            invalidate( );
+        }
+
+        @Override
+        public void resourceRemoved( int nId )
+        {
+            invalidate( );
+        }
+    }
+
+    private static final class SingletonHolder
+    {
+        private static final CampaignThemeService INSTANCE = new CampaignThemeService( CampaignCoherenceService.getInstance( ),
+                CampaignCacheService.getInstance( CampaignCacheService.CACHE_THEMES ) );
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Warm-up of the campaign data : runs the loading steps and keeps the ones which failed, so that they can be retried. The warm-up is done once
+ * every step has succeeded.
+ */
+final class CampaignWarmUp
+{
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final Map<String, Runnable> _mapPendingSteps;
+    private final long _lRetryInterval;
+    private final LongSupplier _clock;
+    private final Lock _lock = new ReentrantLock( );
+    private volatile boolean _bDone;
+    private volatile long _lLastRun = NEVER;
+
+    /**
+     * Constructor of a warm-up whose failed steps can be retried at any time
+     * 
+     * @param mapSteps
+     *            the steps by name, in execution order
+     */
+    CampaignWarmUp( Map<String, Runnable> mapSteps )
+    {
+        this( mapSteps, 0L, System::currentTimeMillis );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param mapSteps
+     *            the steps by name, in execution order
+     * @param lRetryInterval
+     *            the minimum interval in milliseconds between two runs started by {@link #retry()}
+     * @param clock
+     *            the clock giving the current instant in epoch milliseconds
+     */
+    CampaignWarmUp( Map<String, Runnable> mapSteps, long lRetryInterval, LongSupplier clock )
+    {
+        _mapPendingSteps = new LinkedHashMap<>( mapSteps );
+        _lRetryInterval = lRetryInterval;
+        _clock = clock;
+        _bDone = mapSteps.isEmpty( );
+    }
+
+    /**
+     * Runs the steps which have not succeeded yet. A failed step is logged and does not prevent the next ones from running. The linkage errors are
+     * caught too, since a class whose static initialization failed, such as a service reading the database, must not prevent the plugin from
+     * starting.
+     * 
+     * @return true if every step has now succeeded
+     */
+    boolean run( )
+    {
+        _lock.lock( );
+        try
+        {
+            _lLastRun = _clock.getAsLong( );
+            Iterator<Map.Entry<String, Runnable>> iterator = _mapPendingSteps.entrySet( ).iterator( );
+            while ( iterator.hasNext( ) )
+            {
+                Map.Entry<String, Runnable> step = iterator.next( );
+                long lStart = System.currentTimeMillis( );
+                try
+                {
+                    step.getValue( ).run( );
+                    iterator.remove( );
+                    AppLogService.info( "Campaign warm-up : " + step.getKey( ) + " loaded in " + ( System.currentTimeMillis( ) - lStart ) + " ms" );
+                }
+                catch( RuntimeException | LinkageError e )
+                {
+                    AppLogService.error( "Campaign warm-up : error loading " + step.getKey( ), e );
+                }
+            }
+            _bDone = _mapPendingSteps.isEmpty( );
+
+            return _bDone;
+        }
+        finally
+        {
+            _lock.unlock( );
+        }
+    }
+
+    /**
+     * Runs the failed steps again, unless the warm-up is already running in another thread or has been run less than the retry interval ago, so
+     * that frequent callers such as a readiness probe do not load the database on every call
+     * 
+     * @return true if every step has now succeeded
+     */
+    boolean retry( )
+    {
+        if ( _bDone )
+        {
+            return true;
+        }
+        long lLastRun = _lLastRun;
+        if ( ( lLastRun != NEVER && _clock.getAsLong( ) - lLastRun < _lRetryInterval ) || !_lock.tryLock( ) )
+        {
+            return false;
+        }
+
+        try
+        {
+            return run( );
+        }
+        finally
+        {
+            _lock.unlock( );
+        }
+    }
+
+    /**
+     * Tells whether every step has succeeded
+     * 
+     * @return true once the warm-up is done
+     */
+    boolean isDone( )
+    {
+        return _bDone;
+    }
+}
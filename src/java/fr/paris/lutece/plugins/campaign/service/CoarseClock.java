@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock reading a time cached from a source clock and refreshed in the background at a fixed resolution. Reading the time is a volatile read,
+ * at the cost of being late by up to the resolution. The clocks returned by {@link #withZone(ZoneId)} are views sharing the time of this clock.
+ * <p>
+ * The clock is read by every phase predicate, phase state and campaign status, so that they all answer for the same instant. It is also read when
+ * the phase index is loaded, patched or evaluated again at a transition, and when the transition timer is armed.
+ */
+public final class CoarseClock extends Clock
+{
+    private static final String THREAD_NAME = "campaign-coarse-clock";
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor( runnable -> {
+        Thread thread = new Thread( runnable, THREAD_NAME );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    private final Ticker _ticker;
+    private final ZoneId _zone;
+
+    /**
+     * Constructor
+     * 
+     * @param source
+     *            the clock giving the time
+     * @param lResolution
+     *            the refresh interval of the time, in milliseconds
+     */
+    public CoarseClock( Clock source, long lResolution )
+    {
+        this( new Ticker( source, lResolution ), source.getZone( ) );
+    }
+
+    /**
+     * Constructor of a view of a ticker in a zone
+     * 
+     * @param ticker
+     *            the ticker refreshing the time
+     * @param zone
+     *            the zone of the clock
+     */
+    private CoarseClock( Ticker ticker, ZoneId zone )
+    {
+        _ticker = ticker;
+        _zone = zone;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long millis( )
+    {
+        return _ticker._lMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Instant instant( )
+    {
+        return Instant.ofEpochMilli( _ticker._lMillis );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ZoneId getZone( )
+    {
+        return _zone;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned clock shares the time of this clock, no other refresh is scheduled.
+     */
+    @Override
+    public Clock withZone( ZoneId zone )
+    {
+        return zone.equals( _zone ) ? this : new CoarseClock( _ticker, zone );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString( )
+    {
+        return "CoarseClock[" + _ticker._source + "," + _ticker._lResolution + "ms," + _zone + "]";
+    }
+
+    /**
+     * Time cached from a source clock, refreshed by a single task of the ticker thread
+     */
+    private static final class Ticker
+    {
+        private final Clock _source;
+        private final long _lResolution;
+        private volatile long _lMillis;
+
+        /**
+         * Constructor
+         * 
+         * @param source
+         *            the clock giving the time
+         * @param lResolution
+         *            the refresh interval of the time, in milliseconds
+         */
+        private Ticker( Clock source, long lResolution )
+        {
+            _source = source;
+            _lResolution = lResolution;
+            _lMillis = source.millis( );
+            TICKER.scheduleAtFixedRate( this::tick, lResolution, lResolution, TimeUnit.MILLISECONDS );
+        }
+
+        /**
+         * Refreshes the time
+         */
+        private void tick( )
+        {
+            _lMillis = _source.millis( );
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the rows of a CSV file. The first line holds the names of the columns. The fields may be quoted with double quotes, in which case they may
+ * contain the separator, line breaks and doubled double quotes. The blank lines are skipped.
+ */
+final class CsvImportRowReader implements ImportRowReader
+{
+    private static final int EOF = -1;
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final BufferedReader _reader;
+    private final char _cSeparator;
+    private List<String> _listColumns;
+    private int _nLine = 1;
+    private int _nRowNumber;
+
+    /**
+     * Constructor
+     * 
+     * @param reader
+     *            the reader of the file
+     * @param cSeparator
+     *            the separator of the fields
+     */
+    CsvImportRowReader( Reader reader, char cSeparator )
+    {
+        _reader = new BufferedReader( reader );
+        _cSeparator = cSeparator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> nextRow( ) throws IOException
+    {
+        if ( _listColumns == null )
+        {
+            _listColumns = readHeader( );
+        }
+
+        List<String> listFields = readRecord( );
+        while ( listFields != null && isBlank( listFields ) )
+        {
+            listFields = readRecord( );
+        }
+        if ( listFields == null )
+        {
+            return null;
+        }
+
+        // The fields without column are ignored, the columns without field are missing from the row
+        Map<String, String> mapRow = new HashMap<>( );
+        for ( int i = 0; i < Math.min( listFields.size( ), _listColumns.size( ) ); i++ )
+        {
+            mapRow.put( _listColumns.get( i ), listFields.get( i ) );
+        }
+
+        return mapRow;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRowNumber( )
+    {
+        return _nRowNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close( ) throws IOException
+    {
+        _reader.close( );
+    }
+
+    /**
+     * Reads the names of the columns
+     * 
+     * @return the names of the columns, in lower case
+     * @throws IOException
+     *             if the file cannot be read, is empty or is malformed
+     */
+    private List<String> readHeader( ) throws IOException
+    {
+        List<String> listFields = readRecord( );
+        if ( listFields == null )
+        {
+            throw new IOException( "The file is empty" );
+        }
+
+        List<String> listColumns = new ArrayList<>( listFields.size( ) );
+        for ( String strField : listFields )
+        {
+            listColumns.add( strField.replace( String.valueOf( BOM ), "" ).trim( ).toLowerCase( Locale.ROOT ) );
+        }
+
+        return listColumns;
+    }
+
+    /**
+     * Reads the fields of the next record, which may span several lines if a quoted field contains line breaks
+     * 
+     * @return the fields, or null at the end of the file
+     * @throws IOException
+     *             if the file cannot be read or a quoted field is not closed
+     */
+    private List<String> readRecord( ) throws IOException
+    {
+        int c = _reader.read( );
+        if ( c == EOF )
+        {
+            return null;
+        }
+        _nRowNumber = _nLine;
+
+        List<String> listFields = new ArrayList<>( );
+        StringBuilder sbField = new StringBuilder( );
+        boolean bQuoted = false;
+        while ( true )
+        {
+            if ( bQuoted )
+            {
+                if ( c == EOF )
+                {
+                    throw new IOException( "The quoted field of the line " + _nRowNumber + " is not closed" );
+                }
+                if ( c == QUOTE )
+                {
+                    c = _reader.read( );
+                    if ( c != QUOTE )
+                    {
+                        // End of the quoted field : the current character is read again outside of the quotes
+                        bQuoted = false;
+                        continue;
+                    }
+                }
+                else if ( c == '\n' )
+                {
+                    _nLine++;
+                }
+                sbField.append( (char) c );
+            }
+            else if ( c == QUOTE && sbField.length( ) == 0 )
+            {
+                bQuoted = true;
+            }
+            else if ( c == _cSeparator )
+            {
+                listFields.add( sbField.toString( ) );
+                sbField.setLength( 0 );
+            }
+            else if ( c == '\n' || c == EOF )
+            {
+                _nLine++;
+                listFields.add( sbField.toString( ) );
+
+                return listFields;
+            }
+            else if ( c != '\r' )
+            {
+                sbField.append( (char) c );
+            }
+            c = _reader.read( );
+        }
+    }
+
+    /**
+     * Tells whether a record is a blank line
+     * 
+     * @param listFields
+     *            the fields of the record
+     * @return true if the record has a single blank field
+     */
+    private static boolean isBlank( List<String> listFields )
+    {
+        return listFields.size( ) == 1 && listFields.get( 0 ).trim( ).isEmpty( );
+    }
+}
@@ -34,6 +34,10 @@
 package fr.paris.lutece.plugins.campaign.service;
 
 import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import fr.paris.lutece.plugins.campaign.business.Campaign;
 import fr.paris.lutece.util.ReferenceList;
@@ -132,12 +136,122 @@ public interface ICampaignService
      */
     public boolean isAfterEnd( String phase );
 
+    /**
+     * Returns the state of a phase, without throwing if the phase is unknown
+     * 
+     * @param campagne
+     *            the campaign code
+     * @param phase
+     *            the phase label
+     * @return the state of the phase, or an empty optional if the phase is unknown or has no dates
+     */
+    public Optional<PhaseState> getPhaseState( String campagne, String phase );
+
+    /**
+     * Returns the state of a phase of the last campaign, without throwing if the phase is unknown
+     * 
+     * @param phase
+     *            the phase label
+     * @return the state of the phase, or an empty optional if the phase is unknown or has no dates
+     */
+    public Optional<PhaseState> getPhaseState( String phase );
+
+    /**
+     * Returns the number of lookups of unknown phases since the start of the node, for monitoring
+     * 
+     * @return the number of lookups
+     */
+    public long getUnknownPhaseLookupCount( );
+
+    /**
+     * Returns the status of all the phases of a campaign, evaluated against a single read of the clock
+     * 
+     * @param campagne
+     *            the campaign code
+     * @return the status, without any phase if the campaign is unknown
+     */
+    public CampaignStatus getCampaignStatus( String campagne );
+
+    /**
+     * Returns the status of all the phases of the last campaign, evaluated against a single read of the clock
+     * 
+     * @return the status
+     */
+    public CampaignStatus getCampaignStatus( );
+
+    /**
+     * Returns the next instant at which a phase begins or ends, or the millisecond after. The phases are evaluated again at each transition, so
+     * this is the next instant at which the states of the phases or the results of the phase predicates change.
+     * 
+     * @return the instant of the next transition, or null if every phase is over
+     */
+    public Timestamp getNextPhaseTransition( );
+
+    /**
+     * Registers a listener notified when a phase begins or ends, instead of polling the phase predicates
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void registerPhaseTransitionListener( IPhaseTransitionListener listener );
+
+    /**
+     * Unregisters a listener of the phase transitions
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void unregisterPhaseTransitionListener( IPhaseTransitionListener listener );
+
     /**
      * 
      */
     // Resets the internal cache of phases
     public void reset( );
 
+    /**
+     * Returns a campaign by its identifier
+     * 
+     * @param nId
+     *            the identifier of the campaign
+     * @return the campaign, or null if unknown
+     */
+    public Campaign findCampaignById( int nId );
+
+    /**
+     * Returns a campaign by its code
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return the campaign, or null if unknown
+     */
+    public Campaign findCampaignByCode( String strCampaignCode );
+
+    /**
+     * Returns the campaigns whose identifiers are specified in parameter
+     * 
+     * @param listIds
+     *            the identifiers of the campaigns
+     * @return the campaigns mapped by identifier, without the unknown identifiers
+     */
+    public Map<Integer, Campaign> findCampaignsByIds( Collection<Integer> listIds );
+
+    /**
+     * Returns the campaigns whose codes are specified in parameter
+     * 
+     * @param listCampaignCodes
+     *            the campaign codes
+     * @return the campaigns mapped by code, without the unknown codes
+     */
+    public Map<String, Campaign> findCampaignsByCodes( Collection<String> listCampaignCodes );
+
+    /**
+     * Returns all the campaigns
+     * 
+     * @return a new list of the campaigns, which can be modified
+     */
+    public List<Campaign> getCampaignsList( );
+
     /**
      * Load the data of all the campaign objects and returns them as a referenceList
      * 
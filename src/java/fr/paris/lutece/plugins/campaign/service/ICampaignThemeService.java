@@ -42,10 +42,51 @@ import fr.paris.lutece.plugins.campaign.business.Theme;
 public interface ICampaignThemeService
 {
 
+    /**
+     * Returns the themes of a campaign
+     * 
+     * @param codeCampaign
+     *            the campaign code
+     * @return a new list of the themes, which can be modified
+     */
     Collection<Theme> getThemesListByCampaign( String codeCampaign );
 
+    /**
+     * Returns the themes of all the campaigns. The map is shared by all the callers and is read-only : the map and its lists are unmodifiable and
+     * the setters of the themes throw an UnsupportedOperationException. Use {@link #getThemesListByCampaign(String)} to get themes which can be
+     * modified.
+     * 
+     * @return the map campaign code -&gt; themes
+     */
     Map<String, List<Theme>> getThemesMapByCampaign( );
 
     Theme findByCodeTheme( String codeTheme );
 
+    /**
+     * Returns a theme by its identifier
+     * 
+     * @param nId
+     *            the identifier of the theme
+     * @return the theme, or null if unknown
+     */
+    Theme findByPrimaryKey( int nId );
+
+    /**
+     * Returns the themes whose identifiers are specified in parameter
+     * 
+     * @param listIds
+     *            the identifiers of the themes
+     * @return the themes mapped by identifier, without the unknown identifiers
+     */
+    Map<Integer, Theme> findByPrimaryKeys( Collection<Integer> listIds );
+
+    /**
+     * Returns the themes whose codes are specified in parameter
+     * 
+     * @param listCodesTheme
+     *            the theme codes
+     * @return the themes mapped by code, without the unknown codes
+     */
+    Map<String, Theme> findByCodes( Collection<String> listCodesTheme );
+
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.campaign.business.Area;
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.plugins.campaign.business.Theme;
+
+/**
+ * Builds the campaign objects from the rows of an import file. The columns have the names of the fields of the creation forms.
+ */
+final class ImportRowMapper
+{
+    // Columns
+    static final String COLUMN_ENTITY = "entity";
+    static final String COLUMN_CAMPAIGN_CODE = "campaign_code";
+    static final String COLUMN_TITLE = "title";
+    static final String COLUMN_DESCRIPTION = "description";
+    static final String COLUMN_ACTIVE = "active";
+    static final String COLUMN_CODE_PHASE_TYPE = "code_phase_type";
+    static final String COLUMN_LABEL = "label";
+    static final String COLUMN_ORDER_NUM = "order_num";
+    static final String COLUMN_START_DATE_TIME = "start_date_time";
+    static final String COLUMN_END_DATE_TIME = "end_date_time";
+    static final String COLUMN_CODE = "code";
+    static final String COLUMN_FRONT_RGB = "front_rgb";
+    static final String COLUMN_IMAGE_FILE = "image_file";
+    static final String COLUMN_AREA_CODE = "area_code";
+    static final String COLUMN_TYPE = "type";
+    static final String COLUMN_NUMBER_VOTES = "number_votes";
+
+    private static final String TRUE = "true";
+    private static final String ONE = "1";
+    private static final String FALSE = "false";
+    private static final String ZERO = "0";
+
+    private ImportRowMapper( )
+    {
+
+    }
+
+    /**
+     * Builds a campaign from a row
+     * 
+     * @param mapRow
+     *            the row
+     * @return the campaign
+     * @throws InvalidValueException
+     *             if a value cannot be converted
+     */
+    static Campaign toCampaign( Map<String, String> mapRow )
+    {
+        Campaign campaign = new Campaign( );
+        campaign.setCampaignCode( getString( mapRow, COLUMN_CAMPAIGN_CODE ) );
+        campaign.setTitle( getString( mapRow, COLUMN_TITLE ) );
+        campaign.setDescription( getString( mapRow, COLUMN_DESCRIPTION ) );
+        campaign.setActive( getBoolean( mapRow, COLUMN_ACTIVE ) );
+
+        return campaign;
+    }
+
+    /**
+     * Builds a phase from a row
+     * 
+     * @param mapRow
+     *            the row
+     * @return the phase
+     * @throws InvalidValueException
+     *             if a value cannot be converted
+     */
+    static Phase toPhase( Map<String, String> mapRow )
+    {
+        Phase phase = new Phase( );
+        phase.setCampaignCode( getString( mapRow, COLUMN_CAMPAIGN_CODE ) );
+        phase.setCodePhaseType( getString( mapRow, COLUMN_CODE_PHASE_TYPE ) );
+        phase.setLabel( getString( mapRow, COLUMN_LABEL ) );
+        phase.setOrderNum( getInt( mapRow, COLUMN_ORDER_NUM ) );
+        phase.setStartingDate( getDateTime( mapRow, COLUMN_START_DATE_TIME ) );
+        phase.setEndingDate( getDateTime( mapRow, COLUMN_END_DATE_TIME ) );
+
+        return phase;
+    }
+
+    /**
+     * Builds a theme from a row
+     * 
+     * @param mapRow
+     *            the row
+     * @return the theme
+     * @throws InvalidValueException
+     *             if a value cannot be converted
+     */
+    static Theme toTheme( Map<String, String> mapRow )
+    {
+        Theme theme = new Theme( );
+        theme.setCampaignCode( getString( mapRow, COLUMN_CAMPAIGN_CODE ) );
+        theme.setCode( getString( mapRow, COLUMN_CODE ) );
+        theme.setTitle( getString( mapRow, COLUMN_TITLE ) );
+        theme.setDescription( getString( mapRow, COLUMN_DESCRIPTION ) );
+        theme.setActive( getBoolean( mapRow, COLUMN_ACTIVE ) );
+        theme.setFrontRgb( getString( mapRow, COLUMN_FRONT_RGB ) );
+        theme.setImageFile( getInt( mapRow, COLUMN_IMAGE_FILE ) );
+
+        return theme;
+    }
+
+    /**
+     * Builds an area from a row
+     * 
+     * @param mapRow
+     *            the row
+     * @return the area
+     * @throws InvalidValueException
+     *             if a value cannot be converted
+     */
+    static Area toArea( Map<String, String> mapRow )
+    {
+        Area area = new Area( );
+        area.setCampaignCode( getString( mapRow, COLUMN_CAMPAIGN_CODE ) );
+        area.setAreaCode( getString( mapRow, COLUMN_AREA_CODE ) );
+        area.setTitle( getString( mapRow, COLUMN_TITLE ) );
+        area.setType( getString( mapRow, COLUMN_TYPE ) );
+        area.setNumberVotes( getInt( mapRow, COLUMN_NUMBER_VOTES ) );
+        area.setActive( getBoolean( mapRow, COLUMN_ACTIVE ) );
+
+        return area;
+    }
+
+    /**
+     * Returns the trimmed value of a column
+     * 
+     * @param mapRow
+     *            the row
+     * @param strColumn
+     *            the column
+     * @return the value, or null if the value is missing or blank
+     */
+    static String getString( Map<String, String> mapRow, String strColumn )
+    {
+        String strValue = mapRow.get( strColumn );
+        if ( strValue == null || strValue.trim( ).isEmpty( ) )
+        {
+            return null;
+        }
+
+        return strValue.trim( );
+    }
+
+    /**
+     * Returns the integer value of a column
+     * 
+     * @param mapRow
+     *            the row
+     * @param strColumn
+     *            the column
+     * @return the value, or 0 if the value is missing
+     * @throws InvalidValueException
+     *             if the value is not an integer
+     */
+    private static int getInt( Map<String, String> mapRow, String strColumn )
+    {
+        String strValue = getString( mapRow, strColumn );
+        if ( strValue == null )
+        {
+            return 0;
+        }
+
+        try
+        {
+            return Integer.parseInt( strValue );
+        }
+        catch( NumberFormatException e )
+        {
+            throw new InvalidValueException( strColumn, strValue );
+        }
+    }
+
+    /**
+     * Returns the boolean value of a column, written true / false or 1 / 0
+     * 
+     * @param mapRow
+     *            the row
+     * @param strColumn
+     *            the column
+     * @return the value, or false if the value is missing
+     * @throws InvalidValueException
+     *             if the value is not a boolean
+     */
+    private static boolean getBoolean( Map<String, String> mapRow, String strColumn )
+    {
+        String strValue = getString( mapRow, strColumn );
+        if ( strValue == null || FALSE.equalsIgnoreCase( strValue ) || ZERO.equals( strValue ) )
+        {
+            return false;
+        }
+        if ( TRUE.equalsIgnoreCase( strValue ) || ONE.equals( strValue ) )
+        {
+            return true;
+        }
+
+        throw new InvalidValueException( strColumn, strValue );
+    }
+
+    /**
+     * Returns the date value of a column, written with the date format of the plugin
+     * 
+     * @param mapRow
+     *            the row
+     * @param strColumn
+     *            the column
+     * @return the value, or null if the value is missing
+     * @throws InvalidValueException
+     *             if the value is not a date
+     */
+    private static LocalDateTime getDateTime( Map<String, String> mapRow, String strColumn )
+    {
+        String strValue = getString( mapRow, strColumn );
+        if ( strValue == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            return LocalDateTime.parse( strValue, DateTimeFormatter.ofPattern( Utils.dateFormat ) );
+        }
+        catch( DateTimeParseException e )
+        {
+            throw new InvalidValueException( strColumn, strValue );
+        }
+    }
+
+    /**
+     * Thrown when the value of a column cannot be converted
+     */
+    static final class InvalidValueException extends IllegalArgumentException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String _strColumn;
+        private final String _strValue;
+
+        /**
+         * Constructor
+         * 
+         * @param strColumn
+         *            the column
+         * @param strValue
+         *            the invalid value
+         */
+        InvalidValueException( String strColumn, String strValue )
+        {
+            super( "Invalid value " + strValue + " for the column " + strColumn );
+            _strColumn = strColumn;
+            _strValue = strValue;
+        }
+
+        /**
+         * Returns the column
+         * 
+         * @return the column
+         */
+        String getColumn( )
+        {
+            return _strColumn;
+        }
+
+        /**
+         * Returns the invalid value
+         * 
+         * @return the value
+         */
+        String getValue( )
+        {
+            return _strValue;
+        }
+    }
+}
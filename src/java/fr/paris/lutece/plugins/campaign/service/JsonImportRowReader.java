@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the rows of a JSON file holding an array of flat objects, with the streaming parser of Jackson : only the current row is held in memory.
+ */
+final class JsonImportRowReader implements ImportRowReader
+{
+    private static final JsonFactory _factory = new JsonFactory( );
+
+    private final JsonParser _parser;
+    private boolean _bStarted;
+    private int _nRowNumber;
+
+    /**
+     * Constructor
+     * 
+     * @param inputStream
+     *            the stream of the file
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    JsonImportRowReader( InputStream inputStream ) throws IOException
+    {
+        _parser = _factory.createParser( inputStream );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> nextRow( ) throws IOException
+    {
+        if ( !_bStarted )
+        {
+            if ( _parser.nextToken( ) != JsonToken.START_ARRAY )
+            {
+                throw new IOException( "The file does not hold an array of rows" );
+            }
+            _bStarted = true;
+        }
+
+        JsonToken token = _parser.nextToken( );
+        if ( token == null || token == JsonToken.END_ARRAY )
+        {
+            return null;
+        }
+        _nRowNumber++;
+        if ( token != JsonToken.START_OBJECT )
+        {
+            throw new IOException( "The row " + _nRowNumber + " is not an object" );
+        }
+
+        Map<String, String> mapRow = new HashMap<>( );
+        while ( _parser.nextToken( ) == JsonToken.FIELD_NAME )
+        {
+            String strColumn = _parser.getCurrentName( ).toLowerCase( Locale.ROOT );
+            JsonToken value = _parser.nextToken( );
+            if ( value.isStructStart( ) )
+            {
+                throw new IOException( "The value of " + strColumn + " in the row " + _nRowNumber + " is not a single value" );
+            }
+            mapRow.put( strColumn, ( value == JsonToken.VALUE_NULL ) ? null : _parser.getText( ) );
+        }
+
+        return mapRow;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRowNumber( )
+    {
+        return _nRowNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close( ) throws IOException
+    {
+        _parser.close( );
+    }
+}
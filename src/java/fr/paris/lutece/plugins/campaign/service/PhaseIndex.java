@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import fr.paris.lutece.plugins.campaign.business.Phase;
+
+/**
+ * Immutable index of the phase windows : campaign code -&gt; phase label -&gt; window. A lookup is two map accesses on the given strings, without
+ * building any intermediate key. Changes produce a new index which shares the unchanged windows with the previous one.
+ * <p>
+ * The index is evaluated at an instant : every window carries the state of its phase at that instant, and the phase predicates are evaluated
+ * against that instant. The sorted transition instants of all the phases give the next instant at which a state or the result of a predicate
+ * changes.
+ * <p>
+ * The index also holds a catalog of all the phases, with or without dates, by campaign code and by campaign code and phase type code. The phases
+ * of the catalog are returned as copies.
+ */
+public final class PhaseIndex
+{
+    /**
+     * Next transition returned when no phase state will change anymore
+     */
+    public static final long NO_TRANSITION = Long.MAX_VALUE;
+
+    private final Map<String, Map<String, PhaseWindow>> _mapWindows;
+    private final Map<Integer, Phase> _mapPhases;
+    private final long _lInstant;
+    private final long [ ] _transitions;
+    private final Catalog _catalog;
+
+    /**
+     * Constructor
+     * 
+     * @param mapWindows
+     *            the windows by campaign code and phase label
+     * @param mapPhases
+     *            the indexed phases by identifier
+     * @param lInstant
+     *            the instant at which the windows are evaluated
+     */
+    private PhaseIndex( Map<String, Map<String, PhaseWindow>> mapWindows, Map<Integer, Phase> mapPhases, long lInstant )
+    {
+        this( mapWindows, mapPhases, lInstant, new Catalog( mapPhases.values( ) ) );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param mapWindows
+     *            the windows by campaign code and phase label
+     * @param mapPhases
+     *            the indexed phases by identifier
+     * @param lInstant
+     *            the instant at which the windows are evaluated
+     * @param catalog
+     *            the catalog of the indexed phases
+     */
+    private PhaseIndex( Map<String, Map<String, PhaseWindow>> mapWindows, Map<Integer, Phase> mapPhases, long lInstant, Catalog catalog )
+    {
+        _mapWindows = mapWindows;
+        _mapPhases = mapPhases;
+        _lInstant = lInstant;
+        _transitions = sortTransitions( mapWindows );
+        _catalog = catalog;
+    }
+
+    /**
+     * Builds the index of the given phases. Phases without starting or ending date have no window, but are in the catalog.
+     * 
+     * @param phases
+     *            the phases
+     * @param lInstant
+     *            the instant at which the states of the phases are evaluated
+     * @return the index
+     */
+    public static PhaseIndex build( Collection<Phase> phases, long lInstant )
+    {
+        Map<String, Map<String, PhaseWindow>> mapWindows = new HashMap<>( );
+        Map<Integer, Phase> mapPhases = new HashMap<>( );
+        for ( Phase phase : phases )
+        {
+            PhaseWindow window = newWindow( phase, lInstant );
+            if ( window != null )
+            {
+                Map<String, PhaseWindow> mapCampaign = mapWindows.get( phase.getCampaignCode( ) );
+                if ( mapCampaign == null )
+                {
+                    mapCampaign = new HashMap<>( );
+                    mapWindows.put( phase.getCampaignCode( ), mapCampaign );
+                }
+                mapCampaign.put( phase.getLabel( ), window );
+            }
+            mapPhases.put( phase.getId( ), copy( phase ) );
+        }
+
+        for ( Map.Entry<String, Map<String, PhaseWindow>> entry : mapWindows.entrySet( ) )
+        {
+            entry.setValue( Collections.unmodifiableMap( entry.getValue( ) ) );
+        }
+
+        return new PhaseIndex( Collections.unmodifiableMap( mapWindows ), Collections.unmodifiableMap( mapPhases ), lInstant );
+    }
+
+    /**
+     * Returns a copy of this index evaluated at another instant
+     * 
+     * @param lInstant
+     *            the instant in epoch milliseconds
+     * @return the new index
+     */
+    public PhaseIndex at( long lInstant )
+    {
+        return new PhaseIndex( evaluate( _mapWindows, lInstant ), _mapPhases, lInstant, _catalog );
+    }
+
+    /**
+     * Returns the instant at which the states of the windows have been evaluated
+     * 
+     * @return the instant in epoch milliseconds
+     */
+    public long getInstant( )
+    {
+        return _lInstant;
+    }
+
+    /**
+     * Returns the first instant after the evaluation instant at which the state of a phase or the result of a phase predicate changes
+     * 
+     * @return the instant in epoch milliseconds, or NO_TRANSITION
+     */
+    public long getNextTransition( )
+    {
+        return getNextTransition( _lInstant );
+    }
+
+    /**
+     * Returns the first instant after the given one at which the state of a phase or the result of a phase predicate changes
+     * 
+     * @param lInstant
+     *            the instant in epoch milliseconds
+     * @return the instant in epoch milliseconds, or NO_TRANSITION
+     */
+    public long getNextTransition( long lInstant )
+    {
+        int nIndex = Arrays.binarySearch( _transitions, lInstant );
+        nIndex = ( nIndex >= 0 ) ? nIndex + 1 : -nIndex - 1;
+
+        return ( nIndex < _transitions.length ) ? _transitions [nIndex] : NO_TRANSITION;
+    }
+
+    /**
+     * Returns the transitions between a previous index and this one : the phases which have begun or ended since the previous index. Phases which
+     * are not in both indexes, or whose state went backwards after a change of dates, produce no transition.
+     * 
+     * @param previous
+     *            the previous index
+     * @return the transitions, phases started before phases ended
+     */
+    public List<PhaseTransitionEvent> getTransitionsSince( PhaseIndex previous )
+    {
+        if ( previous == this )
+        {
+            return Collections.emptyList( );
+        }
+
+        List<PhaseTransitionEvent> listStarted = new ArrayList<>( );
+        List<PhaseTransitionEvent> listEnded = new ArrayList<>( );
+        for ( Map.Entry<String, Map<String, PhaseWindow>> entry : _mapWindows.entrySet( ) )
+        {
+            for ( Map.Entry<String, PhaseWindow> entryWindow : entry.getValue( ).entrySet( ) )
+            {
+                PhaseWindow window = entryWindow.getValue( );
+                PhaseWindow previousWindow = previous.getWindow( entry.getKey( ), entryWindow.getKey( ) );
+                if ( previousWindow == null || previousWindow.getState( ).compareTo( window.getState( ) ) >= 0 )
+                {
+                    continue;
+                }
+                if ( previousWindow.getState( ) == PhaseState.BEFORE )
+                {
+                    listStarted.add( new PhaseTransitionEvent( PhaseTransitionEvent.Type.STARTED, entry.getKey( ), entryWindow.getKey( ),
+                            window.getIdPhase( ), _lInstant ) );
+                }
+                if ( window.getState( ) == PhaseState.AFTER )
+                {
+                    listEnded.add( new PhaseTransitionEvent( PhaseTransitionEvent.Type.ENDED, entry.getKey( ), entryWindow.getKey( ),
+                            window.getIdPhase( ), _lInstant ) );
+                }
+            }
+        }
+        listStarted.addAll( listEnded );
+
+        return listStarted;
+    }
+
+    /**
+     * Returns the window of a phase
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @param strPhase
+     *            the phase label
+     * @return the window, or null if the phase is unknown
+     */
+    public PhaseWindow getWindow( String strCampaignCode, String strPhase )
+    {
+        Map<String, PhaseWindow> mapCampaign = _mapWindows.get( strCampaignCode );
+
+        return ( mapCampaign != null ) ? mapCampaign.get( strPhase ) : null;
+    }
+
+    /**
+     * Returns the windows of the phases of a campaign
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return the unmodifiable map phase label -&gt; window, empty if the campaign is unknown
+     */
+    public Map<String, PhaseWindow> getWindows( String strCampaignCode )
+    {
+        Map<String, PhaseWindow> mapCampaign = _mapWindows.get( strCampaignCode );
+
+        return ( mapCampaign != null ) ? mapCampaign : Collections.<String, PhaseWindow> emptyMap( );
+    }
+
+    /**
+     * Returns a phase of a campaign by its phase type
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @param strPhaseTypeCode
+     *            the phase type code
+     * @return a copy of the phase, or null if the phase is unknown
+     */
+    public Phase getPhaseByType( String strCampaignCode, String strPhaseTypeCode )
+    {
+        Map<String, Phase> mapTypes = _catalog._mapPhaseTypes.get( strCampaignCode );
+        Phase phase = ( mapTypes != null ) ? mapTypes.get( strPhaseTypeCode ) : null;
+
+        return ( phase != null ) ? copy( phase ) : null;
+    }
+
+    /**
+     * Returns the phases of a campaign, with or without dates, ordered by order number
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return copies of the phases, empty if the campaign is unknown
+     */
+    public List<Phase> getPhases( String strCampaignCode )
+    {
+        List<Phase> listPhases = _catalog._mapCampaignPhases.get( strCampaignCode );
+        if ( listPhases == null )
+        {
+            return new ArrayList<>( );
+        }
+
+        List<Phase> listCopies = new ArrayList<>( listPhases.size( ) );
+        for ( Phase phase : listPhases )
+        {
+            listCopies.add( copy( phase ) );
+        }
+
+        return listCopies;
+    }
+
+    /**
+     * Returns the number of phases having a window
+     * 
+     * @return the number of windows
+     */
+    public int size( )
+    {
+        return _mapWindows.values( ).stream( ).mapToInt( Map::size ).sum( );
+    }
+
+    /**
+     * Returns a copy of this index in which the given phase is added or replaced. The whole index is evaluated at the given instant, so that the
+     * states of the patched phase and of the other phases are current, and not the ones of the last evaluation.
+     * 
+     * @param phase
+     *            the created or updated phase
+     * @param lNow
+     *            the current instant in epoch milliseconds. The instant of this index is used if it is later
+     * @return the new index
+     */
+    public PhaseIndex withPhase( Phase phase, long lNow )
+    {
+        long lInstant = Math.max( lNow, _lInstant );
+        Map<String, Map<String, PhaseWindow>> mapWindows = new HashMap<>( _mapWindows );
+        Map<Integer, Phase> mapPhases = new HashMap<>( _mapPhases );
+
+        Phase previous = mapPhases.remove( phase.getId( ) );
+        if ( previous != null )
+        {
+            removeWindow( mapWindows, mapPhases, previous, lInstant );
+        }
+
+        PhaseWindow window = newWindow( phase, lInstant );
+        if ( window != null )
+        {
+            Map<String, PhaseWindow> mapCampaign = copyCampaign( mapWindows, phase.getCampaignCode( ) );
+            mapCampaign.put( phase.getLabel( ), window );
+            mapWindows.put( phase.getCampaignCode( ), Collections.unmodifiableMap( mapCampaign ) );
+        }
+        mapPhases.put( phase.getId( ), copy( phase ) );
+
+        return new PhaseIndex( evaluate( mapWindows, lInstant ), Collections.unmodifiableMap( mapPhases ), lInstant );
+    }
+
+    /**
+     * Returns a copy of this index without the given phase. The whole index is evaluated at the given instant.
+     * 
+     * @param nIdPhase
+     *            the identifier of the removed phase
+     * @param lNow
+     *            the current instant in epoch milliseconds. The instant of this index is used if it is later
+     * @return the new index, or this index if the phase was not indexed
+     */
+    public PhaseIndex withoutPhase( int nIdPhase, long lNow )
+    {
+        if ( !_mapPhases.containsKey( nIdPhase ) )
+        {
+            return this;
+        }
+
+        long lInstant = Math.max( lNow, _lInstant );
+        Map<String, Map<String, PhaseWindow>> mapWindows = new HashMap<>( _mapWindows );
+        Map<Integer, Phase> mapPhases = new HashMap<>( _mapPhases );
+        removeWindow( mapWindows, mapPhases, mapPhases.remove( nIdPhase ), lInstant );
+
+        return new PhaseIndex( evaluate( mapWindows, lInstant ), Collections.unmodifiableMap( mapPhases ), lInstant );
+    }
+
+    /**
+     * Evaluates windows at an instant
+     * 
+     * @param mapWindows
+     *            the windows by campaign code and phase label
+     * @param lInstant
+     *            the instant in epoch milliseconds
+     * @return the unmodifiable windows evaluated at the instant
+     */
+    private static Map<String, Map<String, PhaseWindow>> evaluate( Map<String, Map<String, PhaseWindow>> mapWindows, long lInstant )
+    {
+        Map<String, Map<String, PhaseWindow>> mapEvaluated = new HashMap<>( );
+        for ( Map.Entry<String, Map<String, PhaseWindow>> entry : mapWindows.entrySet( ) )
+        {
+            Map<String, PhaseWindow> mapCampaign = new HashMap<>( );
+            for ( Map.Entry<String, PhaseWindow> entryWindow : entry.getValue( ).entrySet( ) )
+            {
+                mapCampaign.put( entryWindow.getKey( ), entryWindow.getValue( ).at( lInstant ) );
+            }
+            mapEvaluated.put( entry.getKey( ), Collections.unmodifiableMap( mapCampaign ) );
+        }
+
+        return Collections.unmodifiableMap( mapEvaluated );
+    }
+
+    /**
+     * Removes the window of a phase which is no longer in the indexed phases. If another indexed phase has the same campaign and label, its window
+     * takes its place.
+     * 
+     * @param mapWindows
+     *            the windows being changed
+     * @param mapPhases
+     *            the remaining phases
+     * @param phase
+     *            the removed phase
+     * @param lInstant
+     *            the instant at which the windows are evaluated
+     */
+    private static void removeWindow( Map<String, Map<String, PhaseWindow>> mapWindows, Map<Integer, Phase> mapPhases, Phase phase, long lInstant )
+    {
+        Map<String, PhaseWindow> mapCampaign = mapWindows.get( phase.getCampaignCode( ) );
+        PhaseWindow window = ( mapCampaign != null ) ? mapCampaign.get( phase.getLabel( ) ) : null;
+        if ( window == null || window.getIdPhase( ) != phase.getId( ) )
+        {
+            return;
+        }
+
+        mapCampaign = copyCampaign( mapWindows, phase.getCampaignCode( ) );
+        mapCampaign.remove( phase.getLabel( ) );
+        for ( Phase other : mapPhases.values( ) )
+        {
+            PhaseWindow otherWindow = newWindow( other, lInstant );
+            if ( otherWindow != null && Objects.equals( phase.getLabel( ), other.getLabel( ) )
+                    && Objects.equals( phase.getCampaignCode( ), other.getCampaignCode( ) ) )
+            {
+                mapCampaign.put( other.getLabel( ), otherWindow );
+            }
+        }
+
+        if ( mapCampaign.isEmpty( ) )
+        {
+            mapWindows.remove( phase.getCampaignCode( ) );
+        }
+        else
+        {
+            mapWindows.put( phase.getCampaignCode( ), Collections.unmodifiableMap( mapCampaign ) );
+        }
+    }
+
+    /**
+     * Returns a modifiable copy of the windows of a campaign
+     * 
+     * @param mapWindows
+     *            the windows
+     * @param strCampaignCode
+     *            the campaign code
+     * @return the copy
+     */
+    private static Map<String, PhaseWindow> copyCampaign( Map<String, Map<String, PhaseWindow>> mapWindows, String strCampaignCode )
+    {
+        Map<String, PhaseWindow> mapCampaign = mapWindows.get( strCampaignCode );
+
+        return ( mapCampaign != null ) ? new HashMap<>( mapCampaign ) : new HashMap<String, PhaseWindow>( );
+    }
+
+    /**
+     * Returns the sorted instants at which the state of a phase or the result of a phase predicate changes : at its beginning and just after it, at
+     * its end and just after it
+     * 
+     * @param mapWindows
+     *            the windows
+     * @return the sorted distinct instants
+     */
+    private static long [ ] sortTransitions( Map<String, Map<String, PhaseWindow>> mapWindows )
+    {
+        long [ ] transitions = new long [ 4 * mapWindows.values( ).stream( ).mapToInt( Map::size ).sum( )];
+        int nCount = 0;
+        for ( Map<String, PhaseWindow> mapCampaign : mapWindows.values( ) )
+        {
+            for ( PhaseWindow window : mapCampaign.values( ) )
+            {
+                transitions [nCount++] = window.getStart( );
+                transitions [nCount++] = window.getStart( ) + 1;
+                transitions [nCount++] = window.getEnd( );
+                transitions [nCount++] = window.getEnd( ) + 1;
+            }
+        }
+
+        return Arrays.stream( transitions ).sorted( ).distinct( ).toArray( );
+    }
+
+    /**
+     * Creates the window of a phase
+     * 
+     * @param phase
+     *            the phase
+     * @param lInstant
+     *            the instant at which the state of the phase is evaluated
+     * @return the window, or null if the phase has no starting or ending date
+     */
+    private static PhaseWindow newWindow( Phase phase, long lInstant )
+    {
+        Timestamp start = phase.getStartingTimeStampDate( );
+        Timestamp end = phase.getEndingTimeStampDate( );
+        if ( start == null || end == null )
+        {
+            return null;
+        }
+
+        return new PhaseWindow( phase.getId( ), start.getTime( ), end.getTime( ), lInstant );
+    }
+
+    /**
+     * Copies a phase, so that the index does not share the instances of its callers
+     * 
+     * @param phase
+     *            the phase
+     * @return the copy
+     */
+    private static Phase copy( Phase phase )
+    {
+        Phase copy = new Phase( );
+        copy.setId( phase.getId( ) );
+        copy.setCampaignCode( phase.getCampaignCode( ) );
+        copy.setStartingDate( phase.getStartingDate( ) );
+        copy.setEndingDate( phase.getEndingDate( ) );
+        copy.setLabel( phase.getLabel( ) );
+        copy.setOrderNum( phase.getOrderNum( ) );
+        copy.setCodePhaseType( phase.getCodePhaseType( ) );
+
+        return copy;
+    }
+
+    /**
+     * Catalog of the phases by campaign code, and by campaign code and phase type code
+     */
+    private static final class Catalog
+    {
+        private static final Comparator<Phase> ORDER = Comparator.comparingInt( Phase::getOrderNum ).thenComparingInt( Phase::getId );
+
+        private final Map<String, List<Phase>> _mapCampaignPhases = new HashMap<>( );
+        private final Map<String, Map<String, Phase>> _mapPhaseTypes = new HashMap<>( );
+
+        /**
+         * Constructor
+         * 
+         * @param phases
+         *            the phases
+         */
+        private Catalog( Collection<Phase> phases )
+        {
+            for ( Phase phase : phases )
+            {
+                if ( phase.getCampaignCode( ) != null )
+                {
+                    _mapCampaignPhases.computeIfAbsent( phase.getCampaignCode( ), k -> new ArrayList<>( ) ).add( phase );
+                }
+            }
+
+            for ( List<Phase> listPhases : _mapCampaignPhases.values( ) )
+            {
+                listPhases.sort( ORDER );
+                for ( Phase phase : listPhases )
+                {
+                    if ( phase.getCodePhaseType( ) != null )
+                    {
+                        _mapPhaseTypes.computeIfAbsent( phase.getCampaignCode( ), k -> new HashMap<>( ) ).putIfAbsent( phase.getCodePhaseType( ), phase );
+                    }
+                }
+            }
+        }
+    }
+}
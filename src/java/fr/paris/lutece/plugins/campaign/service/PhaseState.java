@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+/**
+ * State of a phase at a given instant
+ * <p>
+ * The phase predicates of the campaign service are not derived from the state, they keep their own strict comparisons : at the beginning instant,
+ * a phase is BEFORE but neither before its beginning nor after it, and at the end instant, it is AFTER but neither before its end nor after it. A
+ * phase whose beginning is after its end goes from BEFORE to AFTER and is never DURING.
+ */
+public enum PhaseState
+{
+    /**
+     * The phase has not begun : current &lt;= PHASE_BEGINNING
+     */
+    BEFORE,
+
+    /**
+     * The phase is in progress : PHASE_BEGINNING &lt; current &lt; PHASE_END
+     */
+    DURING,
+
+    /**
+     * The phase is over : PHASE_END &lt;= current
+     */
+    AFTER;
+
+    /**
+     * Returns the state of a phase at an instant
+     * 
+     * @param lStart
+     *            the beginning of the phase in epoch milliseconds
+     * @param lEnd
+     *            the end of the phase in epoch milliseconds
+     * @param lInstant
+     *            the instant in epoch milliseconds
+     * @return the state
+     */
+    public static PhaseState of( long lStart, long lEnd, long lInstant )
+    {
+        if ( lInstant <= lStart )
+        {
+            return BEFORE;
+        }
+        return ( lInstant < lEnd ) ? DURING : AFTER;
+    }
+}
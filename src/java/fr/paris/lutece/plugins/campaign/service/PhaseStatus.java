@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.sql.Timestamp;
+
+/**
+ * Immutable status of a phase at a given instant
+ */
+public final class PhaseStatus
+{
+    private final int _nIdPhase;
+    private final String _strLabel;
+    private final long _lStart;
+    private final long _lEnd;
+    private final long _lInstant;
+    private final PhaseState _state;
+
+    /**
+     * Constructor
+     * 
+     * @param strLabel
+     *            the label of the phase
+     * @param window
+     *            the window of the phase
+     * @param lInstant
+     *            the instant at which the state of the phase is evaluated
+     */
+    PhaseStatus( String strLabel, PhaseWindow window, long lInstant )
+    {
+        _nIdPhase = window.getIdPhase( );
+        _strLabel = strLabel;
+        _lStart = window.getStart( );
+        _lEnd = window.getEnd( );
+        _lInstant = lInstant;
+        _state = PhaseState.of( _lStart, _lEnd, lInstant );
+    }
+
+    /**
+     * Returns the identifier of the phase
+     * 
+     * @return the identifier
+     */
+    public int getIdPhase( )
+    {
+        return _nIdPhase;
+    }
+
+    /**
+     * Returns the label of the phase
+     * 
+     * @return the label
+     */
+    public String getLabel( )
+    {
+        return _strLabel;
+    }
+
+    /**
+     * Returns the beginning of the phase
+     * 
+     * @return the beginning
+     */
+    public Timestamp getStart( )
+    {
+        return new Timestamp( _lStart );
+    }
+
+    /**
+     * Returns the end of the phase
+     * 
+     * @return the end
+     */
+    public Timestamp getEnd( )
+    {
+        return new Timestamp( _lEnd );
+    }
+
+    /**
+     * Returns the state of the phase
+     * 
+     * @return the state
+     */
+    public PhaseState getState( )
+    {
+        return _state;
+    }
+
+    /**
+     * @return true if instant &lt; PHASE_BEGINNING
+     */
+    public boolean isBeforeBeginning( )
+    {
+        return _lInstant < _lStart;
+    }
+
+    /**
+     * @return true if PHASE_BEGINNING &lt; instant &lt; PHASE_END
+     */
+    public boolean isDuring( )
+    {
+        return _lInstant > _lStart && _lInstant < _lEnd;
+    }
+
+    /**
+     * @return true if PHASE_END &lt; instant
+     */
+    public boolean isAfterEnd( )
+    {
+        return _lInstant > _lEnd;
+    }
+
+    /**
+     * @return true if PHASE_BEGINNING &lt; instant
+     */
+    public boolean isAfterBeginning( )
+    {
+        return _lInstant > _lStart;
+    }
+
+    /**
+     * @return true if instant &lt; PHASE_END
+     */
+    public boolean isBeforeEnd( )
+    {
+        return _lInstant < _lEnd;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Keeps the states of the phases of a snapshot up to date. A single timer is armed for the next transition of the current index; when it fires,
+ * the index is evaluated again at the current instant and the timer is armed for the following transition. Every newly published index re-arms the
+ * timer, so loads and patches are taken into account.
+ * <p>
+ * Every published index is compared with the previous one, and the phases which have begun or ended are notified to the listeners from the timer
+ * thread. Since the comparison is made once per published index, each transition is notified once.
+ */
+final class PhaseTimeline
+{
+    private static final String THREAD_NAME = "campaign-phase-timeline";
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor( runnable -> {
+        Thread thread = new Thread( runnable, THREAD_NAME );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    private final ReloadableSnapshot<PhaseIndex> _snapshot;
+    private final LongSupplier _clock;
+    private final List<IPhaseTransitionListener> _listListeners = new CopyOnWriteArrayList<>( );
+    private ScheduledFuture<?> _timer;
+    private long _lArmedTransition = PhaseIndex.NO_TRANSITION;
+    private PhaseIndex _published;
+
+    /**
+     * Constructor
+     * 
+     * @param snapshot
+     *            the snapshot of the phases
+     * @param clock
+     *            the clock giving the current instant in epoch milliseconds
+     */
+    PhaseTimeline( ReloadableSnapshot<PhaseIndex> snapshot, LongSupplier clock )
+    {
+        _snapshot = snapshot;
+        _clock = clock;
+        snapshot.onPublish( index -> published( ) );
+    }
+
+    /**
+     * Registers a listener of the phase transitions
+     * 
+     * @param listener
+     *            the listener
+     */
+    void register( IPhaseTransitionListener listener )
+    {
+        _listListeners.add( listener );
+    }
+
+    /**
+     * Unregisters a listener of the phase transitions
+     * 
+     * @param listener
+     *            the listener
+     */
+    void unregister( IPhaseTransitionListener listener )
+    {
+        _listListeners.remove( listener );
+    }
+
+    /**
+     * Returns the instant of the next armed transition
+     * 
+     * @return the instant in epoch milliseconds, or PhaseIndex.NO_TRANSITION
+     */
+    synchronized long getArmedTransition( )
+    {
+        return _lArmedTransition;
+    }
+
+    /**
+     * Handles the publication of an index. The current index of the snapshot is used rather than the published one, since concurrent publications
+     * may be handled out of order.
+     */
+    private synchronized void published( )
+    {
+        PhaseIndex index = _snapshot.peek( );
+        if ( index == null || index == _published )
+        {
+            return;
+        }
+
+        if ( _published != null && !_listListeners.isEmpty( ) )
+        {
+            List<PhaseTransitionEvent> listEvents = index.getTransitionsSince( _published );
+            if ( !listEvents.isEmpty( ) )
+            {
+                SCHEDULER.execute( ( ) -> notify( listEvents ) );
+            }
+        }
+        _published = index;
+        arm( index );
+    }
+
+    /**
+     * Notifies the transitions to the listeners
+     * 
+     * @param listEvents
+     *            the transitions
+     */
+    private void notify( List<PhaseTransitionEvent> listEvents )
+    {
+        for ( PhaseTransitionEvent event : listEvents )
+        {
+            AppLogService.info( event );
+            for ( IPhaseTransitionListener listener : _listListeners )
+            {
+                try
+                {
+                    if ( event.getType( ) == PhaseTransitionEvent.Type.STARTED )
+                    {
+                        listener.phaseStarted( event );
+                    }
+                    else
+                    {
+                        listener.phaseEnded( event );
+                    }
+                }
+                catch( RuntimeException e )
+                {
+                    AppLogService.error( "Error notifying " + event + " to " + listener, e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Arms the timer for the next transition of an index
+     * 
+     * @param index
+     *            the current index
+     */
+    private void arm( PhaseIndex index )
+    {
+        long lTransition = index.getNextTransition( );
+        if ( lTransition == _lArmedTransition && _timer != null )
+        {
+            return;
+        }
+
+        if ( _timer != null )
+        {
+            _timer.cancel( false );
+            _timer = null;
+        }
+        _lArmedTransition = lTransition;
+
+        if ( lTransition != PhaseIndex.NO_TRANSITION )
+        {
+            long lDelay = Math.max( 0L, lTransition - _clock.getAsLong( ) );
+            _timer = SCHEDULER.schedule( this::fire, lDelay, TimeUnit.MILLISECONDS );
+            AppLogService.debug( "Next phase transition armed in " + lDelay + " ms" );
+        }
+    }
+
+    /**
+     * Evaluates the current index at the current instant, then arms the timer for the following transition
+     */
+    private void fire( )
+    {
+        synchronized( this )
+        {
+            _timer = null;
+        }
+
+        long lNow = _clock.getAsLong( );
+        _snapshot.update( index -> ( index.getNextTransition( ) <= lNow ) ? index.at( lNow ) : index );
+
+        // The timer may fire slightly early, leaving the snapshot unchanged : arm it again
+        synchronized( this )
+        {
+            PhaseIndex index = _snapshot.peek( );
+            if ( index != null && _timer == null )
+            {
+                arm( index );
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.sql.Timestamp;
+
+/**
+ * Event of a phase beginning or ending
+ */
+public final class PhaseTransitionEvent
+{
+    /**
+     * Type of transition
+     */
+    public enum Type
+    {
+        STARTED,
+        ENDED
+    }
+
+    private final Type _type;
+    private final String _strCampaignCode;
+    private final String _strPhaseLabel;
+    private final int _nIdPhase;
+    private final long _lInstant;
+
+    /**
+     * Constructor
+     * 
+     * @param type
+     *            the type of transition
+     * @param strCampaignCode
+     *            the code of the campaign
+     * @param strPhaseLabel
+     *            the label of the phase
+     * @param nIdPhase
+     *            the identifier of the phase
+     * @param lInstant
+     *            the instant at which the transition has been detected, in epoch milliseconds
+     */
+    public PhaseTransitionEvent( Type type, String strCampaignCode, String strPhaseLabel, int nIdPhase, long lInstant )
+    {
+        _type = type;
+        _strCampaignCode = strCampaignCode;
+        _strPhaseLabel = strPhaseLabel;
+        _nIdPhase = nIdPhase;
+        _lInstant = lInstant;
+    }
+
+    /**
+     * Returns the type of transition
+     * 
+     * @return the type
+     */
+    public Type getType( )
+    {
+        return _type;
+    }
+
+    /**
+     * Returns the code of the campaign
+     * 
+     * @return the campaign code
+     */
+    public String getCampaignCode( )
+    {
+        return _strCampaignCode;
+    }
+
+    /**
+     * Returns the label of the phase
+     * 
+     * @return the phase label
+     */
+    public String getPhaseLabel( )
+    {
+        return _strPhaseLabel;
+    }
+
+    /**
+     * Returns the identifier of the phase
+     * 
+     * @return the identifier
+     */
+    public int getIdPhase( )
+    {
+        return _nIdPhase;
+    }
+
+    /**
+     * Returns the instant at which the transition has been detected
+     * 
+     * @return the instant
+     */
+    public Timestamp getInstant( )
+    {
+        return new Timestamp( _lInstant );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString( )
+    {
+        return "Phase '" + _strCampaignCode + "-" + _strPhaseLabel + "' " + _type + " at " + getInstant( );
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+/**
+ * Immutable time window of a phase, held as epoch milliseconds so that phase predicates are plain long comparisons. The window also carries the
+ * state of the phase at the instant its index was evaluated. The predicates are the strict comparisons of the beginning and the end with an
+ * instant, each independent of the state and of the other predicates.
+ */
+public final class PhaseWindow
+{
+    private final int _nIdPhase;
+    private final long _lStart;
+    private final long _lEnd;
+    private final PhaseState _state;
+
+    /**
+     * Constructor
+     * 
+     * @param nIdPhase
+     *            the identifier of the phase
+     * @param lStart
+     *            the beginning of the phase in epoch milliseconds
+     * @param lEnd
+     *            the end of the phase in epoch milliseconds
+     * @param lInstant
+     *            the instant at which the state of the phase is evaluated
+     */
+    public PhaseWindow( int nIdPhase, long lStart, long lEnd, long lInstant )
+    {
+        _nIdPhase = nIdPhase;
+        _lStart = lStart;
+        _lEnd = lEnd;
+        _state = PhaseState.of( lStart, lEnd, lInstant );
+    }
+
+    /**
+     * Returns this window evaluated at another instant
+     * 
+     * @param lInstant
+     *            the instant in epoch milliseconds
+     * @return this window if the state is unchanged, a new window otherwise
+     */
+    public PhaseWindow at( long lInstant )
+    {
+        return ( PhaseState.of( _lStart, _lEnd, lInstant ) == _state ) ? this : new PhaseWindow( _nIdPhase, _lStart, _lEnd, lInstant );
+    }
+
+    /**
+     * Returns the identifier of the phase
+     * 
+     * @return the identifier of the phase
+     */
+    public int getIdPhase( )
+    {
+        return _nIdPhase;
+    }
+
+    /**
+     * Returns the beginning of the phase
+     * 
+     * @return the beginning of the phase in epoch milliseconds
+     */
+    public long getStart( )
+    {
+        return _lStart;
+    }
+
+    /**
+     * Returns the end of the phase
+     * 
+     * @return the end of the phase in epoch milliseconds
+     */
+    public long getEnd( )
+    {
+        return _lEnd;
+    }
+
+    /**
+     * Returns the state of the phase at the instant the window was evaluated
+     * 
+     * @return the state
+     */
+    public PhaseState getState( )
+    {
+        return _state;
+    }
+
+    /**
+     * @param lNow
+     *            the instant in epoch milliseconds
+     * @return true if PHASE_BEGINNING &lt; lNow &lt; PHASE_END
+     */
+    public boolean isDuring( long lNow )
+    {
+        return lNow > _lStart && lNow < _lEnd;
+    }
+
+    /**
+     * @param lNow
+     *            the instant in epoch milliseconds
+     * @return true if lNow &lt; PHASE_END
+     */
+    public boolean isBeforeEnd( long lNow )
+    {
+        return lNow < _lEnd;
+    }
+
+    /**
+     * @param lNow
+     *            the instant in epoch milliseconds
+     * @return true if PHASE_BEGINNING &lt; lNow
+     */
+    public boolean isAfterBeginning( long lNow )
+    {
+        return lNow > _lStart;
+    }
+
+    /**
+     * @param lNow
+     *            the instant in epoch milliseconds
+     * @return true if lNow &lt; PHASE_BEGINNING
+     */
+    public boolean isBeforeBeginning( long lNow )
+    {
+        return lNow < _lStart;
+    }
+
+    /**
+     * @param lNow
+     *            the instant in epoch milliseconds
+     * @return true if PHASE_END &lt; lNow
+     */
+    public boolean isAfterEnd( long lNow )
+    {
+        return lNow > _lEnd;
+    }
+}
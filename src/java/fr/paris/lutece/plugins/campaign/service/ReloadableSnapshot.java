@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Holder of an immutable snapshot which is reloaded on demand by a single thread at a time.
+ * <ul>
+ * <li>At cold start, every caller waits on the same load.</li>
+ * <li>After an invalidation, the first caller reloads the snapshot while the others keep reading the previous one.</li>
+ * <li>If a reload fails, the previous snapshot is kept and the failure is logged.</li>
+ * <li>A background thread can refresh the snapshot eagerly, the readers keep reading the previous one until the new one is swapped in.</li>
+ * </ul>
+ * Reads of a valid snapshot are two volatile reads.
+ * 
+ * @param <T>
+ *            the type of the snapshot
+ */
+public final class ReloadableSnapshot<T>
+{
+    private final String _strName;
+    private final Supplier<T> _loader;
+    private final AtomicReference<FutureTask<T>> _inFlight = new AtomicReference<>( );
+    private final AtomicLong _lRequestedGeneration = new AtomicLong( );
+    private volatile long _lLoadedGeneration = -1;
+    private volatile T _value;
+    private final List<Consumer<T>> _listPublishListeners = new CopyOnWriteArrayList<>( );
+
+    /**
+     * Constructor
+     * 
+     * @param strName
+     *            the name of the snapshot, used in the logs
+     * @param loader
+     *            the loader of the snapshot
+     */
+    public ReloadableSnapshot( String strName, Supplier<T> loader )
+    {
+        _strName = strName;
+        _loader = loader;
+    }
+
+    /**
+     * Returns the snapshot, loading it if needed
+     * 
+     * @return the snapshot
+     */
+    public T get( )
+    {
+        T value = _value;
+        if ( value != null && _lLoadedGeneration == _lRequestedGeneration.get( ) )
+        {
+            return value;
+        }
+
+        return reload( value );
+    }
+
+    /**
+     * Returns the snapshot if it has been loaded, without triggering any load
+     * 
+     * @return the current snapshot, possibly stale, or null
+     */
+    public T peek( )
+    {
+        return _value;
+    }
+
+    /**
+     * Tells whether a value is the current snapshot and has not been invalidated since it was loaded
+     * 
+     * @param value
+     *            the value
+     * @return true if the value is the current and valid snapshot
+     */
+    public synchronized boolean isCurrent( T value )
+    {
+        return value != null && value == _value && _lLoadedGeneration == _lRequestedGeneration.get( );
+    }
+
+    /**
+     * Adds a listener called with every new snapshot, after a load or an update. The listeners are called outside of any lock, by the thread which
+     * published the snapshot.
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void onPublish( Consumer<T> listener )
+    {
+        _listPublishListeners.add( listener );
+    }
+
+    /**
+     * Marks the snapshot as stale : the next read reloads it
+     */
+    public void invalidate( )
+    {
+        _lRequestedGeneration.incrementAndGet( );
+    }
+
+    /**
+     * Reloads the snapshot on the calling thread, meant for a background refresh. Nothing is done if a load is already in progress. If the reload
+     * fails, the previous snapshot is kept and the failure is logged.
+     * 
+     * @return true if a new snapshot has been loaded
+     */
+    public boolean refresh( )
+    {
+        FutureTask<T> task = new FutureTask<>( this::load );
+        if ( !_inFlight.compareAndSet( null, task ) )
+        {
+            return false;
+        }
+
+        try
+        {
+            task.run( );
+        }
+        finally
+        {
+            _inFlight.compareAndSet( task, null );
+        }
+
+        try
+        {
+            task.get( );
+            return true;
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            return false;
+        }
+        catch( ExecutionException e )
+        {
+            AppLogService.error( "Error refreshing snapshot '" + _strName + "', keeping the previous one", e.getCause( ) );
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the loaded snapshot by a patched copy. Nothing is done if the snapshot has not been loaded yet, since the next load will read the
+     * change. If a load is in progress, it may have missed the change, so the snapshot is also invalidated.
+     * 
+     * @param patch
+     *            the function computing the new snapshot from the current one
+     */
+    public void update( UnaryOperator<T> patch )
+    {
+        if ( _inFlight.get( ) != null )
+        {
+            invalidate( );
+        }
+
+        T patched;
+        synchronized( this )
+        {
+            T value = _value;
+            if ( value == null )
+            {
+                return;
+            }
+            patched = patch.apply( value );
+            if ( patched == value )
+            {
+                return;
+            }
+            _value = patched;
+        }
+        publish( patched );
+    }
+
+    /**
+     * Loads the snapshot, or waits for the load in progress
+     * 
+     * @param previous
+     *            the previous snapshot, or null at cold start
+     * @return the snapshot
+     */
+    private T reload( T previous )
+    {
+        while ( true )
+        {
+            FutureTask<T> task = _inFlight.get( );
+            if ( task != null )
+            {
+                return ( previous != null ) ? previous : await( task, null );
+            }
+
+            // Another thread may have completed a load since the caller found the snapshot stale
+            T value = getValid( );
+            if ( value != null )
+            {
+                return value;
+            }
+
+            FutureTask<T> newTask = new FutureTask<>( this::loadIfStale );
+            if ( _inFlight.compareAndSet( null, newTask ) )
+            {
+                try
+                {
+                    newTask.run( );
+                }
+                finally
+                {
+                    _inFlight.compareAndSet( newTask, null );
+                }
+                return await( newTask, previous );
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot if it is loaded and valid
+     * 
+     * @return the valid snapshot, or null
+     */
+    private T getValid( )
+    {
+        // The generation is published after the value, reading it first never pairs a new generation with an old value
+        long lLoadedGeneration = _lLoadedGeneration;
+        T value = _value;
+        return ( value != null && lLoadedGeneration == _lRequestedGeneration.get( ) ) ? value : null;
+    }
+
+    /**
+     * Loads the snapshot unless a load completed between the last check and the start of this one
+     * 
+     * @return the snapshot
+     */
+    private T loadIfStale( )
+    {
+        T value = getValid( );
+        return ( value != null ) ? value : load( );
+    }
+
+    /**
+     * Loads and publishes a new snapshot
+     * 
+     * @return the new snapshot
+     */
+    private T load( )
+    {
+        long lGeneration = _lRequestedGeneration.get( );
+        long lStart = System.currentTimeMillis( );
+        T value = _loader.get( );
+
+        synchronized( this )
+        {
+            _value = value;
+            _lLoadedGeneration = lGeneration;
+        }
+        AppLogService.debug( "Snapshot '" + _strName + "' loaded in " + ( System.currentTimeMillis( ) - lStart ) + " ms" );
+        publish( value );
+
+        return value;
+    }
+
+    /**
+     * Notifies the publish listeners of a new snapshot
+     * 
+     * @param value
+     *            the new snapshot
+     */
+    private void publish( T value )
+    {
+        for ( Consumer<T> listener : _listPublishListeners )
+        {
+            try
+            {
+                listener.accept( value );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Error notifying the publication of snapshot '" + _strName + "'", e );
+            }
+        }
+    }
+
+    /**
+     * Waits for a load
+     * 
+     * @param task
+     *            the load
+     * @param previous
+     *            the snapshot to return if the load fails, or null
+     * @return the snapshot
+     */
+    private T await( FutureTask<T> task, T previous )
+    {
+        try
+        {
+            return task.get( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            if ( previous != null )
+            {
+                return previous;
+            }
+            throw new IllegalStateException( "Interrupted while loading snapshot '" + _strName + "'", e );
+        }
+        catch( ExecutionException e )
+        {
+            if ( previous != null )
+            {
+                AppLogService.error( "Error reloading snapshot '" + _strName + "', keeping the previous one", e.getCause( ) );
+                return previous;
+            }
+            if ( e.getCause( ) instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause( );
+            }
+            throw new IllegalStateException( "Error loading snapshot '" + _strName + "'", e.getCause( ) );
+        }
+    }
+}
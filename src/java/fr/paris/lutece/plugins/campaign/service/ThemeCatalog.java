@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.campaign.business.Theme;
+
+/**
+ * Immutable catalog of the themes, indexed by identifier, by theme code and by campaign code. The themes are held as summaries which cannot be
+ * modified : the map by campaign and its lists are shared by all the readers of the catalog, while the lookups of a single theme and
+ * {@link #copyByCampaign(String)} return modifiable copies.
+ */
+public final class ThemeCatalog
+{
+    private static final Comparator<Theme> ORDER = Comparator.comparingInt( Theme::getId );
+
+    private final Map<Integer, ThemeSummary> _mapById;
+    private final Map<String, ThemeSummary> _mapByCode;
+    private final Map<String, List<Theme>> _mapByCampaign;
+
+    /**
+     * Constructor
+     * 
+     * @param themes
+     *            the themes, whose descriptions are not kept
+     */
+    private ThemeCatalog( Collection<Theme> themes )
+    {
+        List<ThemeSummary> listThemes = new ArrayList<>( themes.size( ) );
+        for ( Theme theme : themes )
+        {
+            listThemes.add( ThemeSummary.of( theme ) );
+        }
+        listThemes.sort( ORDER );
+
+        Map<Integer, ThemeSummary> mapById = new HashMap<>( );
+        Map<String, ThemeSummary> mapByCode = new HashMap<>( );
+        Map<String, List<Theme>> mapByCampaign = new HashMap<>( );
+        for ( ThemeSummary theme : listThemes )
+        {
+            mapById.put( theme.getId( ), theme );
+            if ( theme.getCode( ) != null )
+            {
+                mapByCode.putIfAbsent( theme.getCode( ), theme );
+            }
+            mapByCampaign.computeIfAbsent( theme.getCampaignCode( ), k -> new ArrayList<>( ) ).add( theme );
+        }
+        for ( Map.Entry<String, List<Theme>> entry : mapByCampaign.entrySet( ) )
+        {
+            entry.setValue( Collections.unmodifiableList( entry.getValue( ) ) );
+        }
+
+        _mapById = mapById;
+        _mapByCode = mapByCode;
+        _mapByCampaign = Collections.unmodifiableMap( mapByCampaign );
+    }
+
+    /**
+     * Builds the catalog of the given themes
+     * 
+     * @param themes
+     *            the themes, whose descriptions are not kept
+     * @return the catalog
+     */
+    public static ThemeCatalog build( Collection<Theme> themes )
+    {
+        return new ThemeCatalog( themes );
+    }
+
+    /**
+     * Returns a theme by its identifier
+     * 
+     * @param nId
+     *            the identifier
+     * @return a modifiable copy of the theme, or null if unknown
+     */
+    public Theme getById( int nId )
+    {
+        ThemeSummary theme = _mapById.get( nId );
+
+        return ( theme != null ) ? theme.copy( ) : null;
+    }
+
+    /**
+     * Returns a theme by its code
+     * 
+     * @param strCode
+     *            the theme code
+     * @return a modifiable copy of the theme, or null if unknown
+     */
+    public Theme getByCode( String strCode )
+    {
+        ThemeSummary theme = _mapByCode.get( strCode );
+
+        return ( theme != null ) ? theme.copy( ) : null;
+    }
+
+    /**
+     * Returns the themes of a campaign
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return the unmodifiable list of the themes, ordered by identifier. The themes are shared and cannot be modified
+     */
+    public List<Theme> getByCampaign( String strCampaignCode )
+    {
+        List<Theme> listThemes = _mapByCampaign.get( strCampaignCode );
+
+        return ( listThemes != null ) ? listThemes : Collections.<Theme> emptyList( );
+    }
+
+    /**
+     * Returns copies of the themes of a campaign
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @return a new list of modifiable copies of the themes, ordered by identifier
+     */
+    public List<Theme> copyByCampaign( String strCampaignCode )
+    {
+        List<Theme> listThemes = getByCampaign( strCampaignCode );
+        List<Theme> listCopies = new ArrayList<>( listThemes.size( ) );
+        for ( Theme theme : listThemes )
+        {
+            listCopies.add( ( (ThemeSummary) theme ).copy( ) );
+        }
+
+        return listCopies;
+    }
+
+    /**
+     * Returns the themes of all the campaigns. The map is built once with the catalog and shared by all its readers.
+     * 
+     * @return the unmodifiable map campaign code -&gt; unmodifiable list of the themes, ordered by identifier. The themes are shared and cannot be
+     *         modified
+     */
+    public Map<String, List<Theme>> getByCampaign( )
+    {
+        return _mapByCampaign;
+    }
+
+    /**
+     * Returns the number of themes
+     * 
+     * @return the number of themes
+     */
+    public int size( )
+    {
+        return _mapById.size( );
+    }
+}
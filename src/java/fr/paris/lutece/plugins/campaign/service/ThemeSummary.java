@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import fr.paris.lutece.plugins.campaign.business.Theme;
+
+/**
+ * Theme of the in-memory catalog, holding only its small fields : its description is read on first access from the description cache.
+ * <p>
+ * The summaries of the catalog cannot be modified : their setters throw an UnsupportedOperationException. They are only shared through the
+ * read-only map of the themes by campaign; the other lookups of the catalog return modifiable copies, whose description is still read on demand
+ * unless it is set.
+ */
+public class ThemeSummary extends Theme
+{
+    private static final long serialVersionUID = 1L;
+
+    private final boolean _bModifiable;
+    private boolean _bDescriptionSet;
+
+    /**
+     * Constructor of a summary which cannot be modified
+     * 
+     * @param theme
+     *            the theme whose small fields are copied
+     */
+    public ThemeSummary( Theme theme )
+    {
+        this( theme, false );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param theme
+     *            the theme whose small fields are copied
+     * @param bModifiable
+     *            true if the setters can be called
+     */
+    private ThemeSummary( Theme theme, boolean bModifiable )
+    {
+        super.setId( theme.getId( ) );
+        super.setCampaignCode( theme.getCampaignCode( ) );
+        super.setCode( theme.getCode( ) );
+        super.setTitle( theme.getTitle( ) );
+        super.setActive( theme.getActive( ) );
+        super.setFrontRgb( theme.getFrontRgb( ) );
+        super.setImageFile( theme.getImageFile( ) );
+        _bModifiable = bModifiable;
+    }
+
+    /**
+     * Returns a summary which cannot be modified for a theme
+     * 
+     * @param theme
+     *            the theme
+     * @return the theme itself if it is already a summary which cannot be modified, a new summary otherwise
+     */
+    static ThemeSummary of( Theme theme )
+    {
+        if ( theme instanceof ThemeSummary && !( (ThemeSummary) theme )._bModifiable )
+        {
+            return (ThemeSummary) theme;
+        }
+
+        return new ThemeSummary( theme );
+    }
+
+    /**
+     * Returns a modifiable copy of this summary
+     * 
+     * @return the copy
+     */
+    public ThemeSummary copy( )
+    {
+        ThemeSummary copy = new ThemeSummary( this, true );
+        if ( _bDescriptionSet )
+        {
+            copy.setDescription( super.getDescription( ) );
+        }
+
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unless it has been set on a copy, the description is read from the description cache, and loaded from the database if it is not there.
+     */
+    @Override
+    public String getDescription( )
+    {
+        return _bDescriptionSet ? super.getDescription( ) : CampaignDescriptionService.getThemeDescription( getId( ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDescription( String strDescription )
+    {
+        checkModifiable( );
+        super.setDescription( strDescription );
+        _bDescriptionSet = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setId( int nId )
+    {
+        checkModifiable( );
+        super.setId( nId );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCampaignCode( String strCampaignCode )
+    {
+        checkModifiable( );
+        super.setCampaignCode( strCampaignCode );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCode( String strCodeTheme )
+    {
+        checkModifiable( );
+        super.setCode( strCodeTheme );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTitle( String strTitle )
+    {
+        checkModifiable( );
+        super.setTitle( strTitle );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setActive( boolean bActive )
+    {
+        checkModifiable( );
+        super.setActive( bActive );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setFrontRgb( String strFrontRgb )
+    {
+        checkModifiable( );
+        super.setFrontRgb( strFrontRgb );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setImageFile( int nImageFile )
+    {
+        checkModifiable( );
+        super.setImageFile( nImageFile );
+    }
+
+    /**
+     * Checks that this summary can be modified
+     */
+    private void checkModifiable( )
+    {
+        if ( !_bModifiable )
+        {
+            throw new UnsupportedOperationException( "The theme " + getCode( ) + " of the catalog is shared and cannot be modified" );
+        }
+    }
+}
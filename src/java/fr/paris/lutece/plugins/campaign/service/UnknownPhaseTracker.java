@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Tracks the lookups of unknown phases, so that a template asking for an unknown phase at request rate neither floods the logs nor builds an
+ * exception per call :
+ * <ul>
+ * <li>each distinct unknown phase gets a single exception, without stack trace, reused for all its lookups;</li>
+ * <li>each distinct unknown phase is logged at its first lookup, then at most once per interval with the number of lookups since the last log;</li>
+ * <li>the total number of lookups of unknown phases is counted for monitoring.</li>
+ * </ul>
+ * The number of tracked phases is bounded; beyond, the lookups share a generic exception and are only counted.
+ */
+final class UnknownPhaseTracker
+{
+    private static final int MAX_TRACKED_PHASES = 1000;
+    private static final NoSuchPhaseException UNTRACKED = new NoSuchPhaseException( "Unknown phase", null, false, false );
+
+    private final long _lLogInterval;
+    private final LongSupplier _clock;
+    private final ConcurrentMap<String, UnknownPhase> _mapPhases = new ConcurrentHashMap<>( );
+    private final LongAdder _lookups = new LongAdder( );
+
+    /**
+     * Constructor
+     * 
+     * @param lLogInterval
+     *            the minimum interval between two logs of the same unknown phase, in milliseconds
+     * @param clock
+     *            the clock giving the current instant in epoch milliseconds
+     */
+    UnknownPhaseTracker( long lLogInterval, LongSupplier clock )
+    {
+        _lLogInterval = lLogInterval;
+        _clock = clock;
+    }
+
+    /**
+     * Records the lookup of an unknown phase
+     * 
+     * @param strCampaignCode
+     *            the campaign code
+     * @param strPhase
+     *            the phase label
+     * @return the exception to throw for this phase
+     */
+    NoSuchPhaseException lookup( String strCampaignCode, String strPhase )
+    {
+        _lookups.increment( );
+
+        String strKey = strCampaignCode + "-" + strPhase;
+        UnknownPhase phase = _mapPhases.get( strKey );
+        if ( phase == null )
+        {
+            if ( _mapPhases.size( ) >= MAX_TRACKED_PHASES )
+            {
+                return UNTRACKED;
+            }
+            phase = _mapPhases.computeIfAbsent( strKey, k -> new UnknownPhase( strCampaignCode, strPhase ) );
+        }
+        phase.lookup( );
+
+        return phase._exception;
+    }
+
+    /**
+     * Returns the number of lookups of unknown phases
+     * 
+     * @return the number of lookups
+     */
+    long getLookupCount( )
+    {
+        return _lookups.sum( );
+    }
+
+    /**
+     * Forgets the tracked phases, whose keys may have become known
+     */
+    void clear( )
+    {
+        _mapPhases.clear( );
+    }
+
+    /**
+     * Unknown phase
+     */
+    private final class UnknownPhase
+    {
+        private final NoSuchPhaseException _exception;
+        private final AtomicLong _lNextLog = new AtomicLong( Long.MIN_VALUE );
+        private final LongAdder _lookupsSinceLog = new LongAdder( );
+
+        /**
+         * Constructor
+         * 
+         * @param strCampaignCode
+         *            the campaign code
+         * @param strPhase
+         *            the phase label
+         */
+        private UnknownPhase( String strCampaignCode, String strPhase )
+        {
+            _exception = new NoSuchPhaseException( "Null datetime for campagne '" + strCampaignCode + "' and phase '" + strPhase + "'. ", null, false,
+                    false );
+        }
+
+        /**
+         * Records a lookup, and logs it unless it has been logged within the interval
+         */
+        private void lookup( )
+        {
+            _lookupsSinceLog.increment( );
+
+            long lNow = _clock.getAsLong( );
+            long lNextLog = _lNextLog.get( );
+            if ( lNow >= lNextLog && _lNextLog.compareAndSet( lNextLog, lNow + _lLogInterval ) )
+            {
+                AppLogService.error( _exception.getMessage( ) + "(" + _lookupsSinceLog.sumThenReset( ) + " lookups since the last log)" );
+            }
+        }
+    }
+}
@@ -34,14 +34,21 @@
 
 package fr.paris.lutece.plugins.campaign.web;
 
+import fr.paris.lutece.plugins.campaign.business.ListFilter;
+import fr.paris.lutece.plugins.campaign.service.CampaignService;
+import fr.paris.lutece.portal.service.i18n.I18nService;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.portal.util.mvc.admin.MVCAdminJspBean;
-import fr.paris.lutece.portal.web.util.LocalizedPaginator;
+import fr.paris.lutece.portal.web.util.LocalizedDelegatePaginator;
+import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.html.AbstractPaginator;
 import fr.paris.lutece.util.url.UrlItem;
 
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
 import javax.servlet.http.HttpServletRequest;
 
 /**
@@ -63,46 +70,198 @@ public abstract class AbstractManageCampaignsJspBean extends MVCAdminJspBean
 
     // Parameters
     private static final String PARAMETER_PAGE_INDEX = "page_index";
+    private static final String PARAMETER_FILTER_CAMPAIGN_CODE = "filter_campaign_code";
+    private static final String PARAMETER_FILTER_ACTIVE = "filter_active";
 
     // Markers
     private static final String MARK_PAGINATOR = "paginator";
     private static final String MARK_NB_ITEMS_PER_PAGE = "nb_items_per_page";
+    private static final String MARK_FILTER = "filter";
+    private static final String MARK_FILTER_CAMPAIGN_LIST = "filter_campaign_list";
+    private static final String MARK_FILTER_ACTIVE_LIST = "filter_active_list";
+
+    // Messages
+    private static final String MESSAGE_FILTER_ALL = "campaign.manage_filter.labelAll";
+    private static final String MESSAGE_FILTER_ACTIVE = "campaign.manage_filter.labelActive";
+    private static final String MESSAGE_FILTER_INACTIVE = "campaign.manage_filter.labelInactive";
 
     // Variables
     private String _strCurrentPageIndex;
     private int _nItemsPerPage;
+    private ListFilter _filter = new ListFilter( );
+    private int _nItemsCount = -1;
+    private final NavigableMap<Integer, Integer> _mapPageLastIds = new TreeMap<>( );
 
     /**
-     * Return a model that contains the list and paginator infos
+     * Loader of a page of a listing
      * 
+     * @param <T>
+     *            the type of the listed items
+     */
+    @FunctionalInterface
+    protected interface PageLoader<T>
+    {
+        /**
+         * Loads a page of the items matching a filter, sorted by id
+         * 
+         * @param filter
+         *            the filter
+         * @param nAfterId
+         *            the page starts after this id
+         * @param nOffset
+         *            the number of items skipped after this id
+         * @param nLimit
+         *            the maximum number of items of the page
+         * @return the items of the page
+         */
+        List<T> load( ListFilter filter, int nAfterId, int nOffset, int nLimit );
+    }
+
+    /**
+     * Return a model that contains a page of a listing loaded from the database, and the paginator and filter infos. The last id of each page
+     * shown is kept, so that the next or the previous page is read by id (keyset pagination) ; a jump to another page skips the rows from the
+     * nearest page shown. The kept ids are dropped when the filter, the number of items per page or the number of items change.
+     * 
+     * @param <T>
+     *            the type of the listed items
      * @param request
      *            The HTTP request
      * @param strBookmark
      *            The bookmark
-     * @param list
-     *            The list of item
+     * @param loader
+     *            the loader of a page
+     * @param counter
+     *            the counter of the items matching a filter
+     * @param idGetter
+     *            the getter of the id of an item
      * @param strManageJsp
      *            The JSP
      * @return The model
      */
-    protected <T> Map<String, Object> getPaginatedListModel( HttpServletRequest request, String strBookmark, List<T> list, String strManageJsp )
+    protected <T> Map<String, Object> getPaginatedListModel( HttpServletRequest request, String strBookmark, PageLoader<T> loader,
+            ToIntFunction<ListFilter> counter, ToIntFunction<T> idGetter, String strManageJsp )
     {
         int nDefaultItemsPerPage = AppPropertiesService.getPropertyInt( PROPERTY_DEFAULT_LIST_ITEM_PER_PAGE, 50 );
-        _strCurrentPageIndex = AbstractPaginator.getPageIndex( request, AbstractPaginator.PARAMETER_PAGE_INDEX, _strCurrentPageIndex );
+        int nPreviousItemsPerPage = _nItemsPerPage;
         _nItemsPerPage = AbstractPaginator.getItemsPerPage( request, AbstractPaginator.PARAMETER_ITEMS_PER_PAGE, _nItemsPerPage, nDefaultItemsPerPage );
+        _strCurrentPageIndex = AbstractPaginator.getPageIndex( request, AbstractPaginator.PARAMETER_PAGE_INDEX, _strCurrentPageIndex );
+
+        ListFilter filter = getFilter( request );
+        int nItemsCount = counter.applyAsInt( filter );
+        if ( !filter.equals( _filter ) || _nItemsPerPage != nPreviousItemsPerPage || nItemsCount != _nItemsCount )
+        {
+            if ( !filter.equals( _filter ) )
+            {
+                _strCurrentPageIndex = "1";
+            }
+            _filter = filter;
+            _nItemsCount = nItemsCount;
+            _mapPageLastIds.clear( );
+        }
+
+        int nPagesCount = Math.max( 1, ( nItemsCount + _nItemsPerPage - 1 ) / _nItemsPerPage );
+        int nPage = Math.min( Math.max( parsePageIndex( _strCurrentPageIndex ), 1 ), nPagesCount );
+        _strCurrentPageIndex = String.valueOf( nPage );
+
+        Map.Entry<Integer, Integer> nearestPage = _mapPageLastIds.floorEntry( nPage - 1 );
+        int nAfterId = ( nearestPage != null ) ? nearestPage.getValue( ) : 0;
+        int nSkippedPages = ( nPage - 1 ) - ( ( nearestPage != null ) ? nearestPage.getKey( ) : 0 );
+        List<T> listItems = loader.load( filter, nAfterId, nSkippedPages * _nItemsPerPage, _nItemsPerPage );
+        if ( !listItems.isEmpty( ) )
+        {
+            _mapPageLastIds.put( nPage, idGetter.applyAsInt( listItems.get( listItems.size( ) - 1 ) ) );
+        }
 
         UrlItem url = new UrlItem( strManageJsp );
         String strUrl = url.getUrl( );
 
         // PAGINATOR
-        LocalizedPaginator<T> paginator = new LocalizedPaginator<>( list, _nItemsPerPage, strUrl, PARAMETER_PAGE_INDEX, _strCurrentPageIndex, getLocale( ) );
+        LocalizedDelegatePaginator<T> paginator = new LocalizedDelegatePaginator<>( listItems, _nItemsPerPage, strUrl, PARAMETER_PAGE_INDEX,
+                _strCurrentPageIndex, nItemsCount, getLocale( ) );
 
         Map<String, Object> model = getModel( );
 
         model.put( MARK_NB_ITEMS_PER_PAGE, String.valueOf( _nItemsPerPage ) );
         model.put( MARK_PAGINATOR, paginator );
         model.put( strBookmark, paginator.getPageItems( ) );
+        model.put( MARK_FILTER, filter );
+        model.put( MARK_FILTER_CAMPAIGN_LIST, getFilterCampaignList( ) );
+        model.put( MARK_FILTER_ACTIVE_LIST, getFilterActiveList( ) );
 
         return model;
     }
+
+    /**
+     * Returns the filter of the listing, updated from the filter form if it has been submitted
+     * 
+     * @param request
+     *            The HTTP request
+     * @return the filter
+     */
+    private ListFilter getFilter( HttpServletRequest request )
+    {
+        String strCampaignCode = request.getParameter( PARAMETER_FILTER_CAMPAIGN_CODE );
+        String strActive = request.getParameter( PARAMETER_FILTER_ACTIVE );
+        if ( strCampaignCode == null && strActive == null )
+        {
+            return _filter;
+        }
+
+        ListFilter filter = new ListFilter( );
+        filter.setCampaignCode( strCampaignCode );
+        if ( "1".equals( strActive ) || "0".equals( strActive ) )
+        {
+            filter.setActive( Integer.parseInt( strActive ) );
+        }
+
+        return filter;
+    }
+
+    /**
+     * Parses a page index
+     * 
+     * @param strPageIndex
+     *            the page index
+     * @return the page index, or 1 if it is not a number
+     */
+    private static int parsePageIndex( String strPageIndex )
+    {
+        try
+        {
+            return Integer.parseInt( strPageIndex );
+        }
+        catch( NumberFormatException e )
+        {
+            return 1;
+        }
+    }
+
+    /**
+     * Returns the campaigns of the filter form
+     * 
+     * @return the campaigns, after an item for all of them
+     */
+    private ReferenceList getFilterCampaignList( )
+    {
+        ReferenceList campaignList = new ReferenceList( );
+        campaignList.addItem( "", I18nService.getLocalizedString( MESSAGE_FILTER_ALL, getLocale( ) ) );
+        campaignList.addAll( CampaignService.getInstance( ).getCampaignsReferenceList( ) );
+
+        return campaignList;
+    }
+
+    /**
+     * Returns the active flags of the filter form
+     * 
+     * @return the active flags
+     */
+    private ReferenceList getFilterActiveList( )
+    {
+        ReferenceList activeList = new ReferenceList( );
+        activeList.addItem( "", I18nService.getLocalizedString( MESSAGE_FILTER_ALL, getLocale( ) ) );
+        activeList.addItem( "1", I18nService.getLocalizedString( MESSAGE_FILTER_ACTIVE, getLocale( ) ) );
+        activeList.addItem( "0", I18nService.getLocalizedString( MESSAGE_FILTER_INACTIVE, getLocale( ) ) );
+
+        return activeList;
+    }
 }
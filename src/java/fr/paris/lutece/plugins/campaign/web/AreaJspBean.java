@@ -43,12 +43,11 @@ import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
 import fr.paris.lutece.util.url.UrlItem;
 
-import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import fr.paris.lutece.plugins.campaign.business.Area;
 import fr.paris.lutece.plugins.campaign.business.AreaHome;
-import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.service.CampaignService;
 
 /**
  * This class provides the user interface to manage Area features ( manage, create, modify, remove )
@@ -117,9 +116,9 @@ public class AreaJspBean extends AbstractManageCampaignsJspBean
     public String getManageAreas( HttpServletRequest request )
     {
         _area = null;
-        List<Area> listAreas = AreaHome.getAreasList( );
-        Map<String, Object> model = getPaginatedListModel( request, MARK_AREA_LIST, listAreas, JSP_MANAGE_AREAS );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        Map<String, Object> model = getPaginatedListModel( request, MARK_AREA_LIST, AreaHome::getAreasPage,
+                AreaHome::countAreas, Area::getId, JSP_MANAGE_AREAS );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         return getPage( PROPERTY_PAGE_TITLE_MANAGE_AREAS, TEMPLATE_MANAGE_AREAS, model );
     }
 
@@ -137,7 +136,7 @@ public class AreaJspBean extends AbstractManageCampaignsJspBean
 
         Map<String, Object> model = getModel( );
         model.put( MARK_AREA, _area );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_CREATE_AREA ) );
 
         return getPage( PROPERTY_PAGE_TITLE_CREATE_AREA, TEMPLATE_CREATE_AREA, model );
@@ -228,7 +227,7 @@ public class AreaJspBean extends AbstractManageCampaignsJspBean
 
         Map<String, Object> model = getModel( );
         model.put( MARK_AREA, _area );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_MODIFY_AREA ) );
 
         return getPage( PROPERTY_PAGE_TITLE_MODIFY_AREA, TEMPLATE_MODIFY_AREA, model );
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.web;
+
+import fr.paris.lutece.portal.service.admin.AccessDeniedException;
+import fr.paris.lutece.portal.service.security.SecurityTokenService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.util.mvc.admin.annotations.Controller;
+import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
+import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
+import fr.paris.lutece.portal.web.upload.MultipartHttpServletRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.fileupload.FileItem;
+
+import fr.paris.lutece.plugins.campaign.service.CampaignImportResult;
+import fr.paris.lutece.plugins.campaign.service.CampaignImportService;
+
+/**
+ * This class provides the user interface to import a campaign configuration from a CSV or a JSON file
+ */
+@Controller( controllerJsp = "ImportCampaigns.jsp", controllerPath = "jsp/admin/plugins/campaign/", right = "CAMPAIGN_MANAGEMENT" )
+public class CampaignImportJspBean extends AbstractManageCampaignsJspBean
+{
+    /**
+     * serialVersionUID
+     */
+    private static final long serialVersionUID = -3154720186632406589L;
+
+    // Templates
+    private static final String TEMPLATE_IMPORT_CAMPAIGNS = "/admin/plugins/campaign/import_campaigns.html";
+
+    // Parameters
+    private static final String PARAMETER_IMPORT_FILE = "import_file";
+
+    // Properties for page titles
+    private static final String PROPERTY_PAGE_TITLE_IMPORT_CAMPAIGNS = "campaign.import_campaigns.pageTitle";
+
+    // Markers
+    private static final String MARK_IMPORT_RESULT = "import_result";
+
+    // Views
+    private static final String VIEW_IMPORT_CAMPAIGNS = "importCampaigns";
+
+    // Actions
+    private static final String ACTION_IMPORT_CAMPAIGNS = "importCampaigns";
+
+    // Infos
+    private static final String INFO_IMPORT_DONE = "campaign.info.import.done";
+
+    // Errors
+    private static final String ERROR_IMPORT_FAILED = "campaign.error.import.failed";
+    private static final String ERROR_IMPORT_FILE_MISSING = "campaign.error.import.fileMissing";
+
+    // Session variable to store working values
+    private CampaignImportResult _importResult;
+
+    /**
+     * Returns the import form, with the result of the last import
+     *
+     * @param request
+     *            The Http request
+     * @return the html code of the import form
+     */
+    @View( value = VIEW_IMPORT_CAMPAIGNS, defaultView = true )
+    public String getImportCampaigns( HttpServletRequest request )
+    {
+        Map<String, Object> model = getModel( );
+        model.put( MARK_IMPORT_RESULT, _importResult );
+        model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_IMPORT_CAMPAIGNS ) );
+        _importResult = null;
+
+        return getPage( PROPERTY_PAGE_TITLE_IMPORT_CAMPAIGNS, TEMPLATE_IMPORT_CAMPAIGNS, model );
+    }
+
+    /**
+     * Process the import of the uploaded file
+     *
+     * @param request
+     *            The Http Request
+     * @return The Jsp URL of the process result
+     * @throws AccessDeniedException
+     */
+    @Action( ACTION_IMPORT_CAMPAIGNS )
+    public String doImportCampaigns( HttpServletRequest request ) throws AccessDeniedException
+    {
+        if ( !SecurityTokenService.getInstance( ).validate( request, ACTION_IMPORT_CAMPAIGNS ) )
+        {
+            throw new AccessDeniedException( "Invalid security token" );
+        }
+
+        FileItem fileItem = ( request instanceof MultipartHttpServletRequest ) ? ( (MultipartHttpServletRequest) request ).getFile( PARAMETER_IMPORT_FILE )
+                : null;
+        if ( fileItem == null || fileItem.getSize( ) == 0 )
+        {
+            addError( ERROR_IMPORT_FILE_MISSING, getLocale( ) );
+            return redirectView( request, VIEW_IMPORT_CAMPAIGNS );
+        }
+
+        _importResult = null;
+        try ( InputStream inputStream = fileItem.getInputStream( ) )
+        {
+            _importResult = CampaignImportService.importFile( fileItem.getName( ), inputStream, getLocale( ) );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Error reading the imported file " + fileItem.getName( ), e );
+        }
+
+        if ( _importResult != null && _importResult.isImported( ) )
+        {
+            addInfo( INFO_IMPORT_DONE, getLocale( ) );
+        }
+        else
+        {
+            addError( ERROR_IMPORT_FAILED, getLocale( ) );
+        }
+
+        return redirectView( request, VIEW_IMPORT_CAMPAIGNS );
+    }
+}
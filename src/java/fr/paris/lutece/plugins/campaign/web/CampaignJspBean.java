@@ -43,7 +43,6 @@ import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
 import fr.paris.lutece.util.url.UrlItem;
 
-import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import fr.paris.lutece.plugins.campaign.business.Campaign;
@@ -116,8 +115,8 @@ public class CampaignJspBean extends AbstractManageCampaignsJspBean
     public String getManageCampaigns( HttpServletRequest request )
     {
         _campaign = null;
-        List<Campaign> listCampaigns = CampaignHome.getCampaignsList( );
-        Map<String, Object> model = getPaginatedListModel( request, MARK_CAMPAIGN_LIST, listCampaigns, JSP_MANAGE_CAMPAIGNS );
+        Map<String, Object> model = getPaginatedListModel( request, MARK_CAMPAIGN_LIST, CampaignHome::getCampaignsPage,
+                CampaignHome::countCampaigns, Campaign::getId, JSP_MANAGE_CAMPAIGNS );
 
         return getPage( PROPERTY_PAGE_TITLE_MANAGE_CAMPAIGNS, TEMPLATE_MANAGE_CAMPAIGNS, model );
     }
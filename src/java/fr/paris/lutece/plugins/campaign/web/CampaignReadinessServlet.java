@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.web;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import fr.paris.lutece.plugins.campaign.service.CampaignPlugin;
+
+/**
+ * Readiness check for the load balancers : answers 200 once the campaign data has been loaded, 503 before. While the data is not ready, the check
+ * retries the failed warm-up steps, at most once per retry interval.
+ */
+public class CampaignReadinessServlet extends HttpServlet
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final String CONTENT_TYPE = "text/plain";
+    private static final String READY = "READY";
+    private static final String NOT_READY = "NOT READY";
+
+    private final transient BooleanSupplier _readiness;
+
+    /**
+     * Constructor
+     */
+    public CampaignReadinessServlet( )
+    {
+        this( CampaignPlugin::checkReady );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param readiness
+     *            tells whether the campaign data is ready
+     */
+    CampaignReadinessServlet( BooleanSupplier readiness )
+    {
+        _readiness = readiness;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doGet( HttpServletRequest request, HttpServletResponse response ) throws IOException
+    {
+        boolean bReady = _readiness.getAsBoolean( );
+
+        response.setStatus( bReady ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+        response.setContentType( CONTENT_TYPE );
+        response.setHeader( "Cache-Control", "no-store" );
+        response.getWriter( ).print( bReady ? READY : NOT_READY );
+    }
+}
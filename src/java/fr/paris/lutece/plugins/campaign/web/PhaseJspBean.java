@@ -45,15 +45,13 @@ import fr.paris.lutece.util.url.UrlItem;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 
-import fr.paris.lutece.plugins.campaign.business.CampaignHome;
 import fr.paris.lutece.plugins.campaign.business.Phase;
 import fr.paris.lutece.plugins.campaign.business.PhaseHome;
-import fr.paris.lutece.plugins.campaign.service.Utils;
 import fr.paris.lutece.plugins.campaign.service.CampaignService;
+import fr.paris.lutece.plugins.campaign.service.Utils;
 
 /**
  * This class provides the user interface to manage Phase features ( manage, create, modify, remove )
@@ -127,9 +125,9 @@ public class PhaseJspBean extends AbstractManageCampaignsJspBean
     public String getManagePhases( HttpServletRequest request )
     {
         _phase = null;
-        List<Phase> listPhases = PhaseHome.getPhasesList( );
-        Map<String, Object> model = getPaginatedListModel( request, MARK_PHASE_LIST, listPhases, JSP_MANAGE_PHASES );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        Map<String, Object> model = getPaginatedListModel( request, MARK_PHASE_LIST, PhaseHome::getPhasesPage,
+                PhaseHome::countPhases, Phase::getId, JSP_MANAGE_PHASES );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         return getPage( PROPERTY_PAGE_TITLE_MANAGE_PHASES, TEMPLATE_MANAGE_PHASES, model );
     }
 
@@ -147,7 +145,7 @@ public class PhaseJspBean extends AbstractManageCampaignsJspBean
 
         Map<String, Object> model = getModel( );
         model.put( MARK_PHASE, _phase );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         model.put( MARK_PHASE_TYPE_LIST, PhaseHome.getPhasesTypeReferenceList( ) );
         model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_CREATE_PHASE ) );
 
@@ -244,7 +242,7 @@ public class PhaseJspBean extends AbstractManageCampaignsJspBean
 
         Map<String, Object> model = getModel( );
         model.put( MARK_PHASE, _phase );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         model.put( MARK_PHASE_TYPE_LIST, PhaseHome.getPhasesTypeReferenceList( ) );
         model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_MODIFY_PHASE ) );
 
@@ -282,7 +280,6 @@ public class PhaseJspBean extends AbstractManageCampaignsJspBean
 
         PhaseHome.update( _phase );
         addInfo( INFO_PHASE_UPDATED, getLocale( ) );
-	CampaignService.getInstance( ).reset( );
         return redirectView( request, VIEW_MANAGE_PHASES );
     }
 }
@@ -43,13 +43,12 @@ import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
 import fr.paris.lutece.util.url.UrlItem;
 
-import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 
-import fr.paris.lutece.plugins.campaign.business.CampaignHome;
 import fr.paris.lutece.plugins.campaign.business.Theme;
 import fr.paris.lutece.plugins.campaign.business.ThemeHome;
+import fr.paris.lutece.plugins.campaign.service.CampaignService;
 
 /**
  * This class provides the user interface to manage Theme features ( manage, create, modify, remove )
@@ -117,9 +116,9 @@ public class ThemeJspBean extends AbstractManageCampaignsJspBean
     public String getManageThemes( HttpServletRequest request )
     {
         _theme = null;
-        List<Theme> listThemes = ThemeHome.getThemesList( );
-        Map<String, Object> model = getPaginatedListModel( request, MARK_THEME_LIST, listThemes, JSP_MANAGE_THEMES );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        Map<String, Object> model = getPaginatedListModel( request, MARK_THEME_LIST, ThemeHome::getThemesPage,
+                ThemeHome::countThemes, Theme::getId, JSP_MANAGE_THEMES );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
 
         return getPage( PROPERTY_PAGE_TITLE_MANAGE_THEMES, TEMPLATE_MANAGE_THEMES, model );
     }
@@ -138,7 +137,7 @@ public class ThemeJspBean extends AbstractManageCampaignsJspBean
 
         Map<String, Object> model = getModel( );
         model.put( MARK_THEME, _theme );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_CREATE_THEME ) );
 
         return getPage( PROPERTY_PAGE_TITLE_CREATE_THEME, TEMPLATE_CREATE_THEME, model );
@@ -229,7 +228,7 @@ public class ThemeJspBean extends AbstractManageCampaignsJspBean
 
         Map<String, Object> model = getModel( );
         model.put( MARK_THEME, _theme );
-        model.put( MARK_CAMPAIGN_LIST, CampaignHome.getCampaignsReferenceList( ) );
+        model.put( MARK_CAMPAIGN_LIST, CampaignService.getInstance( ).getCampaignsReferenceList( ) );
         model.put( SecurityTokenService.MARK_TOKEN, SecurityTokenService.getInstance( ).getToken( request, ACTION_MODIFY_THEME ) );
 
         return getPage( PROPERTY_PAGE_TITLE_MODIFY_THEME, TEMPLATE_MODIFY_THEME, model );
@@ -40,6 +40,7 @@ label varchar(255) default '' NOT NULL,
 order_num int default '0' NOT NULL,
 PRIMARY KEY (id_phase),
 UNIQUE INDEX (phase_type_code,campaign_code ),
+INDEX idx_campaign_phase_campaign (campaign_code, id_phase),
 CONSTRAINT fk_campaign_phase_campaign FOREIGN KEY (campaign_code) REFERENCES campaign_campaign (campaign_code),
 CONSTRAINT fk_campaign_phases_phase_type FOREIGN KEY(phase_type_code) references campaign_phase_types(phase_type_code)
 
@@ -61,6 +62,8 @@ active SMALLINT NOT NULL,
 front_rgb varchar(255) default '' NOT NULL,
 image_file int default '0',
 PRIMARY KEY (id_theme),
+INDEX idx_campaign_theme_code (code_theme),
+INDEX idx_campaign_theme_campaign (campaign_code, id_theme),
 CONSTRAINT fk_campaign_phase_theme
     FOREIGN KEY (campaign_code)
     REFERENCES campaign_campaign (campaign_code)
@@ -81,7 +84,20 @@ number_votes int default 0 NOT NULL,
 active SMALLINT NOT NULL,
 PRIMARY KEY (id_area),
 UNIQUE INDEX ( area_code, campaign_code ),
+INDEX idx_campaign_area_campaign (campaign_code, id_area),
 CONSTRAINT fk_campaign_phase_area
     FOREIGN KEY (campaign_code)
     REFERENCES campaign_campaign (campaign_code)
 );
+
+--
+-- Structure for table campaign_data_version
+--
+
+DROP TABLE IF EXISTS campaign_data_version;
+CREATE TABLE campaign_data_version (
+id_data_version int NOT NULL,
+version bigint default 0 NOT NULL,
+date_update TIMESTAMP NULL,
+PRIMARY KEY (id_data_version)
+);
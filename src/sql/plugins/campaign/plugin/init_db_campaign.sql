@@ -0,0 +1,4 @@
+--
+-- Data for table campaign_data_version
+--
+INSERT INTO campaign_data_version (id_data_version, version) VALUES (1, 0);
@@ -0,0 +1,23 @@
+--
+-- Structure for table campaign_data_version
+--
+DROP TABLE IF EXISTS campaign_data_version;
+CREATE TABLE campaign_data_version (
+id_data_version int NOT NULL,
+version bigint default 0 NOT NULL,
+date_update TIMESTAMP NULL,
+PRIMARY KEY (id_data_version)
+);
+INSERT INTO campaign_data_version (id_data_version, version) VALUES (1, 0);
+
+--
+-- Index on the theme code
+--
+CREATE INDEX idx_campaign_theme_code ON campaign_theme (code_theme);
+
+--
+-- Indexes of the admin listings filtered by campaign and paged by id
+--
+CREATE INDEX idx_campaign_phase_campaign ON campaign_phase (campaign_code, id_phase);
+CREATE INDEX idx_campaign_theme_campaign ON campaign_theme (campaign_code, id_theme);
+CREATE INDEX idx_campaign_area_campaign ON campaign_area (campaign_code, id_area);
@@ -35,6 +35,11 @@ package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.test.LuteceTestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This is the business class test for the object Area
  */
@@ -89,6 +94,13 @@ public class AreaBusinessTest extends LuteceTestCase
 
         // List test
         AreaHome.getAreasList( );
+        assertTrue( AreaHome.getAreasListByCampaign( CODECAMPAIGN2 ).stream( ).anyMatch( a -> a.getId( ) == area.getId( ) ) );
+        assertTrue( AreaHome.getAreasListByCampaign( CODECAMPAIGN1 ).stream( ).noneMatch( a -> a.getId( ) == area.getId( ) ) );
+
+        // Bulk test
+        Map<Integer, Area> mapById = AreaHome.findByPrimaryKeys( Arrays.asList( area.getId( ), -1 ) );
+        assertEquals( 1, mapById.size( ) );
+        assertEquals( area.getAreaCode( ), mapById.get( area.getId( ) ).getAreaCode( ) );
 
         // Delete test
         AreaHome.remove( area.getId( ) );
@@ -97,4 +109,39 @@ public class AreaBusinessTest extends LuteceTestCase
 
     }
 
+    /**
+     * test the batch creation and update of areas
+     */
+    public void testBatch( )
+    {
+        List<Area> listAreas = new ArrayList<>( );
+        for ( String strTitle : Arrays.asList( TITLE1, TITLE2 ) )
+        {
+            Area area = new Area( );
+            area.setCampaignCode( CODECAMPAIGN1 );
+            area.setTitle( strTitle );
+            area.setType( TYPE1 );
+            area.setNumberVotes( NUMBERVOTES1 );
+            area.setActive( ACTIVE1 );
+            listAreas.add( area );
+        }
+
+        // Create test
+        AreaHome.createAll( listAreas );
+        assertTrue( listAreas.get( 0 ).getId( ) > 0 );
+        assertTrue( listAreas.get( 1 ).getId( ) > listAreas.get( 0 ).getId( ) );
+        assertEquals( TITLE2, AreaHome.findByPrimaryKey( listAreas.get( 1 ).getId( ) ).getTitle( ) );
+
+        // Update test
+        listAreas.forEach( area -> area.setType( TYPE2 ) );
+        AreaHome.updateAll( listAreas );
+        for ( Area areaStored : AreaHome.findByPrimaryKeys( Arrays.asList( listAreas.get( 0 ).getId( ), listAreas.get( 1 ).getId( ) ) ).values( ) )
+        {
+            assertEquals( TYPE2, areaStored.getType( ) );
+        }
+
+        // Delete test
+        listAreas.forEach( area -> AreaHome.remove( area.getId( ) ) );
+    }
+
 }
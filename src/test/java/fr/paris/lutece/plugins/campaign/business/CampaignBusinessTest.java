@@ -35,6 +35,12 @@ package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.test.LuteceTestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This is the business class test for the object Campaign
  */
@@ -83,6 +89,31 @@ public class CampaignBusinessTest extends LuteceTestCase
 
         // List test
         CampaignHome.getCampaignsList( );
+        for ( Campaign campaignSummary : CampaignHome.getCampaignsSummaryList( ) )
+        {
+            assertNull( campaignSummary.getDescription( ) );
+        }
+        assertEquals( campaign.getDescription( ), CampaignHome.findDescription( campaign.getId( ) ) );
+
+        // Bulk test
+        Map<Integer, Campaign> mapById = CampaignHome.findByPrimaryKeys( Arrays.asList( campaign.getId( ), campaign.getId( ), -1 ) );
+        assertEquals( 1, mapById.size( ) );
+        assertEquals( campaign.getCampaignCode( ), mapById.get( campaign.getId( ) ).getCampaignCode( ) );
+        Map<String, Campaign> mapByCode = CampaignHome.findByCodes( Arrays.asList( CODECAMPAIGN1, CODECAMPAIGN2 ) );
+        assertEquals( campaign.getId( ), mapByCode.get( CODECAMPAIGN2 ).getId( ) );
+        assertFalse( mapByCode.containsKey( CODECAMPAIGN1 ) );
+        assertTrue( CampaignHome.findByCodes( Collections.<String> emptyList( ) ).isEmpty( ) );
+
+        // Aggregate test
+        CampaignAggregate aggregate = CampaignHome.findAggregateByCampaignCode( CODECAMPAIGN2 );
+        assertEquals( campaign.getId( ), aggregate.getCampaign( ).getId( ) );
+        assertTrue( aggregate.getPhases( ).isEmpty( ) );
+        assertTrue( aggregate.getThemes( ).isEmpty( ) );
+        assertTrue( aggregate.getAreasReferenceList( ).isEmpty( ) );
+        CampaignAggregate copy = aggregate.copy( );
+        assertNotSame( aggregate.getCampaign( ), copy.getCampaign( ) );
+        assertEquals( aggregate.getCampaign( ).getDescription( ), copy.getCampaign( ).getDescription( ) );
+        assertNull( CampaignHome.findAggregateByCampaignCode( CODECAMPAIGN1 ) );
 
         // Delete test
         CampaignHome.remove( campaign.getId( ) );
@@ -91,4 +122,58 @@ public class CampaignBusinessTest extends LuteceTestCase
 
     }
 
+    /**
+     * test the batch creation and update of campaigns, with the increment of the data version and the notifications
+     */
+    public void testBatch( )
+    {
+        List<Campaign> listCampaigns = new ArrayList<>( );
+        for ( String strCode : Arrays.asList( CODECAMPAIGN1, CODECAMPAIGN2 ) )
+        {
+            Campaign campaign = new Campaign( );
+            campaign.setCampaignCode( strCode );
+            campaign.setTitle( TITLE1 );
+            campaign.setDescription( DESCRIPTION1 );
+            campaign.setActive( ACTIVE1 );
+            listCampaigns.add( campaign );
+        }
+        RecordingChangeListener<Campaign> listener = new RecordingChangeListener<>( );
+        CampaignHome.registerListener( listener );
+
+        try
+        {
+            // Create test
+            long lVersion = DataVersionHome.getVersion( );
+            CampaignHome.createAll( listCampaigns );
+            assertTrue( listCampaigns.get( 0 ).getId( ) > 0 );
+            assertTrue( listCampaigns.get( 1 ).getId( ) > listCampaigns.get( 0 ).getId( ) );
+            assertEquals( CODECAMPAIGN2, CampaignHome.findByPrimaryKey( listCampaigns.get( 1 ).getId( ) ).getCampaignCode( ) );
+            assertTrue( DataVersionHome.getVersion( ) > lVersion );
+            assertEquals( listCampaigns, listener.getCreated( ) );
+
+            // Update test
+            lVersion = DataVersionHome.getVersion( );
+            listCampaigns.forEach( campaign -> campaign.setTitle( TITLE2 ) );
+            CampaignHome.updateAll( listCampaigns );
+            for ( Campaign campaignStored : CampaignHome.findByCodes( Arrays.asList( CODECAMPAIGN1, CODECAMPAIGN2 ) ).values( ) )
+            {
+                assertEquals( TITLE2, campaignStored.getTitle( ) );
+            }
+            assertTrue( DataVersionHome.getVersion( ) > lVersion );
+            assertEquals( listCampaigns, listener.getUpdated( ) );
+
+            // An empty batch neither changes the version nor notifies
+            lVersion = DataVersionHome.getVersion( );
+            CampaignHome.createAll( Collections.<Campaign> emptyList( ) );
+            CampaignHome.updateAll( Collections.<Campaign> emptyList( ) );
+            assertEquals( lVersion, DataVersionHome.getVersion( ) );
+            assertEquals( 2, listener.getCreated( ).size( ) );
+            assertEquals( 2, listener.getUpdated( ).size( ) );
+        }
+        finally
+        {
+            CampaignHome.unregisterListener( listener );
+            listCampaigns.forEach( campaign -> CampaignHome.remove( campaign.getId( ) ) );
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test of the InQuery
+ */
+public class InQueryTest extends LuteceTestCase
+{
+    private static final String SELECT = "SELECT id_theme, code_theme FROM campaign_theme";
+
+    /**
+     * The query has one parameter per key of the chunk
+     */
+    public void testQuery( )
+    {
+        assertEquals( SELECT + " WHERE id_theme IN ( ? )", InQuery.getQuery( SELECT, "id_theme", 1 ) );
+        assertEquals( SELECT + " WHERE code_theme IN ( ?, ?, ? )", InQuery.getQuery( SELECT, "code_theme", 3 ) );
+    }
+
+    /**
+     * The keys are split in chunks of at most CHUNK_SIZE keys, without the null and the duplicate keys
+     */
+    public void testChunks( )
+    {
+        assertTrue( InQuery.chunks( new ArrayList<Integer>( ) ).isEmpty( ) );
+
+        List<List<String>> listChunks = InQuery.chunks( Arrays.asList( "A", null, "B", "A" ) );
+        assertEquals( 1, listChunks.size( ) );
+        assertEquals( Arrays.asList( "A", "B" ), listChunks.get( 0 ) );
+
+        List<Integer> listKeys = new ArrayList<>( );
+        for ( int i = 0; i < 2 * InQuery.CHUNK_SIZE + 1; i++ )
+        {
+            listKeys.add( i );
+        }
+        List<List<Integer>> listIdChunks = InQuery.chunks( listKeys );
+        assertEquals( 3, listIdChunks.size( ) );
+        assertEquals( InQuery.CHUNK_SIZE, listIdChunks.get( 0 ).size( ) );
+        assertEquals( InQuery.CHUNK_SIZE, listIdChunks.get( 1 ).size( ) );
+        assertEquals( Arrays.asList( 2 * InQuery.CHUNK_SIZE ), listIdChunks.get( 2 ) );
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the PagedQuery
+ */
+public class PagedQueryTest extends LuteceTestCase
+{
+    private static final String SELECT = "SELECT id_theme, campaign_code FROM campaign_theme";
+
+    /**
+     * Only the filled criteria of the filter are added to the queries
+     */
+    public void testQueries( )
+    {
+        ListFilter filter = new ListFilter( );
+        PagedQuery query = new PagedQuery( SELECT, "campaign_theme", "id_theme", filter, true );
+        assertEquals( SELECT + " WHERE id_theme > ? ORDER BY id_theme LIMIT ? OFFSET ?", query.getPageQuery( ) );
+        assertEquals( "SELECT COUNT(*) FROM campaign_theme", query.getCountQuery( ) );
+
+        filter.setCampaignCode( "A" );
+        filter.setActive( 1 );
+        query = new PagedQuery( SELECT, "campaign_theme", "id_theme", filter, true );
+        assertEquals( SELECT + " WHERE id_theme > ? AND campaign_code = ? AND active = ? ORDER BY id_theme LIMIT ? OFFSET ?", query.getPageQuery( ) );
+        assertEquals( "SELECT COUNT(*) FROM campaign_theme WHERE campaign_code = ? AND active = ?", query.getCountQuery( ) );
+
+        // The active flag is ignored on a table without active column
+        query = new PagedQuery( SELECT, "campaign_theme", "id_theme", filter, false );
+        assertEquals( "SELECT COUNT(*) FROM campaign_theme WHERE campaign_code = ?", query.getCountQuery( ) );
+    }
+
+    /**
+     * Two filters with the same criteria are equal
+     */
+    public void testFilterEquality( )
+    {
+        ListFilter filter1 = new ListFilter( );
+        ListFilter filter2 = new ListFilter( );
+        filter2.setCampaignCode( "" );
+        assertEquals( filter1, filter2 );
+        assertEquals( filter1.hashCode( ), filter2.hashCode( ) );
+
+        filter2.setActive( 0 );
+        assertFalse( filter1.equals( filter2 ) );
+    }
+}
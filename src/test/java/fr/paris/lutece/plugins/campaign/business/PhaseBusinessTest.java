@@ -37,6 +37,10 @@ import fr.paris.lutece.test.LuteceTestCase;
 
 import java.sql.Date;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This is the business class test for the object Phase
@@ -92,6 +96,15 @@ public class PhaseBusinessTest extends LuteceTestCase
 
         // List test
         PhaseHome.getPhasesList( );
+        for ( Phase phaseOfCampaign : PhaseHome.getPhasesListByCampaign( CODECAMPAIGN2 ) )
+        {
+            assertEquals( CODECAMPAIGN2, phaseOfCampaign.getCampaignCode( ) );
+        }
+
+        // Bulk test
+        Map<Integer, Phase> mapById = PhaseHome.findByPrimaryKeys( Arrays.asList( phase.getId( ), -1 ) );
+        assertEquals( 1, mapById.size( ) );
+        assertEquals( phase.getLabel( ), mapById.get( phase.getId( ) ).getLabel( ) );
 
         // Delete test
         PhaseHome.remove( phase.getId( ) );
@@ -100,4 +113,53 @@ public class PhaseBusinessTest extends LuteceTestCase
 
     }
 
+    /**
+     * test the batch creation and update of phases, with the increment of the data version and the notifications
+     */
+    public void testBatch( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        for ( String strLabel : Arrays.asList( LABEL1, LABEL2 ) )
+        {
+            Phase phase = new Phase( );
+            phase.setCampaignCode( CODECAMPAIGN1 );
+            phase.setStartingDate( STARTINGDATE1 );
+            phase.setEndingDate( ENDINGDATE1 );
+            phase.setLabel( strLabel );
+            phase.setOrderNum( ORDERNUM1 );
+            listPhases.add( phase );
+        }
+        RecordingChangeListener<Phase> listener = new RecordingChangeListener<>( );
+        PhaseHome.registerListener( listener );
+
+        try
+        {
+            // Create test
+            long lVersion = DataVersionHome.getVersion( );
+            PhaseHome.createAll( listPhases );
+            assertTrue( listPhases.get( 0 ).getId( ) > 0 );
+            assertTrue( listPhases.get( 1 ).getId( ) > listPhases.get( 0 ).getId( ) );
+            assertEquals( LABEL2, PhaseHome.findByPrimaryKey( listPhases.get( 1 ).getId( ) ).getLabel( ) );
+            assertTrue( DataVersionHome.getVersion( ) > lVersion );
+            assertEquals( listPhases, listener.getCreated( ) );
+
+            // Update test
+            lVersion = DataVersionHome.getVersion( );
+            listPhases.forEach( phase -> phase.setEndingDate( ENDINGDATE2 ) );
+            PhaseHome.updateAll( listPhases );
+            Map<Integer, Phase> mapStored = PhaseHome.findByPrimaryKeys( Arrays.asList( listPhases.get( 0 ).getId( ), listPhases.get( 1 ).getId( ) ) );
+            assertEquals( 2, mapStored.size( ) );
+            for ( Phase phaseStored : mapStored.values( ) )
+            {
+                assertEquals( ENDINGDATE2.toString( ), phaseStored.getEndingDate( ).toString( ) );
+            }
+            assertTrue( DataVersionHome.getVersion( ) > lVersion );
+            assertEquals( listPhases, listener.getUpdated( ) );
+        }
+        finally
+        {
+            PhaseHome.unregisterListener( listener );
+            listPhases.forEach( phase -> PhaseHome.remove( phase.getId( ) ) );
+        }
+    }
 }
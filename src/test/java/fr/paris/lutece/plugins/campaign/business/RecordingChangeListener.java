@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.business;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Listener recording the resource changes notified by a Home class, for the tests
+ * 
+ * @param <T>
+ *            the business class
+ */
+public class RecordingChangeListener<T> implements IResourceChangeListener<T>
+{
+    private final List<T> _listCreated = new CopyOnWriteArrayList<>( );
+    private final List<T> _listUpdated = new CopyOnWriteArrayList<>( );
+    private final List<Integer> _listRemoved = new CopyOnWriteArrayList<>( );
+
+    @Override
+    public void resourceCreated( T resource )
+    {
+        _listCreated.add( resource );
+    }
+
+    @Override
+    public void resourceUpdated( T resource )
+    {
+        _listUpdated.add( resource );
+    }
+
+    @Override
+    public void resourceRemoved( int nId )
+    {
+        _listRemoved.add( nId );
+    }
+
+    /**
+     * Returns the created resources
+     * 
+     * @return the created resources, in the order of the notifications
+     */
+    public List<T> getCreated( )
+    {
+        return _listCreated;
+    }
+
+    /**
+     * Returns the updated resources
+     * 
+     * @return the updated resources, in the order of the notifications
+     */
+    public List<T> getUpdated( )
+    {
+        return _listUpdated;
+    }
+
+    /**
+     * Returns the identifiers of the removed resources
+     * 
+     * @return the identifiers, in the order of the notifications
+     */
+    public List<Integer> getRemoved( )
+    {
+        return _listRemoved;
+    }
+}
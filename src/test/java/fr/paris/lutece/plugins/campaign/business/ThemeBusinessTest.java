@@ -35,6 +35,11 @@ package fr.paris.lutece.plugins.campaign.business;
 
 import fr.paris.lutece.test.LuteceTestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This is the business class test for the object Theme
  */
@@ -95,6 +100,22 @@ public class ThemeBusinessTest extends LuteceTestCase
 
         // List test
         ThemeHome.getThemesList( );
+        for ( Theme themeSummary : ThemeHome.getThemesSummaryListByCampaign( theme.getCampaignCode( ) ) )
+        {
+            assertNull( themeSummary.getDescription( ) );
+        }
+        assertEquals( theme.getDescription( ), ThemeHome.findDescription( theme.getId( ) ) );
+
+        // Page test
+        for ( Theme themePage : ThemeHome.getThemesPage( new ListFilter( ), theme.getId( ) - 1, 0, 1 ) )
+        {
+            assertEquals( theme.getDescription( ), themePage.getDescription( ) );
+        }
+
+        // Bulk test
+        Map<Integer, Theme> mapById = ThemeHome.findByPrimaryKeys( Arrays.asList( theme.getId( ), -1 ) );
+        assertEquals( 1, mapById.size( ) );
+        assertEquals( theme.getTitle( ), mapById.get( theme.getId( ) ).getTitle( ) );
 
         // Delete test
         ThemeHome.remove( theme.getId( ) );
@@ -103,4 +124,54 @@ public class ThemeBusinessTest extends LuteceTestCase
 
     }
 
+    /**
+     * test the batch creation and update of themes, with the increment of the data version and the notifications
+     */
+    public void testBatch( )
+    {
+        List<Theme> listThemes = new ArrayList<>( );
+        for ( String strTitle : Arrays.asList( TITLE1, TITLE2 ) )
+        {
+            Theme theme = new Theme( );
+            theme.setCampaignCode( CODECAMPAIGN1 );
+            theme.setTitle( strTitle );
+            theme.setDescription( DESCRIPTION1 );
+            theme.setActive( ACTIVE1 );
+            theme.setFrontRgb( FRONTRGB1 );
+            theme.setImageFile( IMAGEFILE1 );
+            listThemes.add( theme );
+        }
+        RecordingChangeListener<Theme> listener = new RecordingChangeListener<>( );
+        ThemeHome.registerListener( listener );
+
+        try
+        {
+            // Create test
+            long lVersion = DataVersionHome.getVersion( );
+            ThemeHome.createAll( listThemes );
+            assertTrue( listThemes.get( 0 ).getId( ) > 0 );
+            assertTrue( listThemes.get( 1 ).getId( ) > listThemes.get( 0 ).getId( ) );
+            assertEquals( TITLE2, ThemeHome.findByPrimaryKey( listThemes.get( 1 ).getId( ) ).getTitle( ) );
+            assertTrue( DataVersionHome.getVersion( ) > lVersion );
+            assertEquals( listThemes, listener.getCreated( ) );
+
+            // Update test
+            lVersion = DataVersionHome.getVersion( );
+            listThemes.forEach( theme -> theme.setDescription( DESCRIPTION2 ) );
+            ThemeHome.updateAll( listThemes );
+            Map<Integer, Theme> mapStored = ThemeHome.findByPrimaryKeys( Arrays.asList( listThemes.get( 0 ).getId( ), listThemes.get( 1 ).getId( ) ) );
+            assertEquals( 2, mapStored.size( ) );
+            for ( Theme themeStored : mapStored.values( ) )
+            {
+                assertEquals( DESCRIPTION2, themeStored.getDescription( ) );
+            }
+            assertTrue( DataVersionHome.getVersion( ) > lVersion );
+            assertEquals( listThemes, listener.getUpdated( ) );
+        }
+        finally
+        {
+            ThemeHome.unregisterListener( listener );
+            listThemes.forEach( theme -> ThemeHome.remove( theme.getId( ) ) );
+        }
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the BulkLookup
+ */
+public class BulkLookupTest extends LuteceTestCase
+{
+    /**
+     * The cached keys are not loaded, and the missing keys are loaded at once
+     */
+    public void testFind( )
+    {
+        Map<Integer, String> mapCache = new HashMap<>( );
+        mapCache.put( 1, "one" );
+        mapCache.put( 2, "two" );
+        Map<Integer, String> mapDatabase = new HashMap<>( );
+        mapDatabase.put( 3, "three" );
+        List<Collection<Integer>> listLoads = new ArrayList<>( );
+
+        Map<Integer, String> mapValues = BulkLookup.find( Arrays.asList( 1, 3, null, 3, 4 ), mapCache::get, keys -> {
+            listLoads.add( new ArrayList<>( keys ) );
+            Map<Integer, String> mapLoaded = new HashMap<>( );
+            keys.stream( ).filter( mapDatabase::containsKey ).forEach( key -> mapLoaded.put( key, mapDatabase.get( key ) ) );
+            return mapLoaded;
+        } );
+
+        assertEquals( 2, mapValues.size( ) );
+        assertEquals( "one", mapValues.get( 1 ) );
+        assertEquals( "three", mapValues.get( 3 ) );
+        assertEquals( 1, listLoads.size( ) );
+        assertEquals( Arrays.asList( 3, 4 ), listLoads.get( 0 ) );
+
+        // Nothing is loaded when all the keys are cached
+        listLoads.clear( );
+        BulkLookup.find( Arrays.asList( 1, 2 ), mapCache::get, keys -> {
+            listLoads.add( keys );
+            return new HashMap<>( );
+        } );
+        assertTrue( listLoads.isEmpty( ) );
+    }
+}
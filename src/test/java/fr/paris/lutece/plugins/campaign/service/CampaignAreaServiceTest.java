@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the CampaignAreaService
+ */
+public class CampaignAreaServiceTest extends LuteceTestCase
+{
+    /**
+     * The areas of a null or blank campaign code are empty, and are not read from the database
+     */
+    public void testNoCampaignCode( )
+    {
+        assertTrue( CampaignAreaService.getAreasListByCampaign( null ).isEmpty( ) );
+        assertTrue( CampaignAreaService.getAreasListByCampaign( "" ).isEmpty( ) );
+        assertTrue( CampaignAreaService.getAreasListByCampaign( "  " ).isEmpty( ) );
+        assertTrue( CampaignAreaService.getAreasReferenceList( null ).isEmpty( ) );
+    }
+
+    /**
+     * The numeric area codes of the reference lists are normalised as integers, like the codes read by the former reference list query
+     */
+    public void testReferenceCode( )
+    {
+        assertEquals( "1", CampaignAreaService.getReferenceCode( "01" ) );
+        assertEquals( "12", CampaignAreaService.getReferenceCode( "12" ) );
+        assertEquals( "0", CampaignAreaService.getReferenceCode( "000" ) );
+        assertEquals( "A1", CampaignAreaService.getReferenceCode( "A1" ) );
+        assertEquals( "", CampaignAreaService.getReferenceCode( "" ) );
+        assertNull( CampaignAreaService.getReferenceCode( null ) );
+    }
+}
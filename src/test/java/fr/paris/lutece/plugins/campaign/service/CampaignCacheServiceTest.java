@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the CampaignCacheService
+ */
+public class CampaignCacheServiceTest extends LuteceTestCase
+{
+    private static final String CACHE_NAME = "campaign.testCacheService";
+    private static final String KEY = "key";
+    private static final String KEY_EVICTION = "eviction";
+    private static final String KEY_DIRECT = "direct";
+
+    private final AtomicInteger _nLoads = new AtomicInteger( );
+
+    /**
+     * A registered cache serves the published snapshot, and reloads it after a flush or an invalidation
+     */
+    public void testRegisteredCache( )
+    {
+        CampaignCacheService cache = CampaignCacheService.getInstance( CACHE_NAME );
+        assertSame( cache, CampaignCacheService.getInstance( CACHE_NAME ) );
+        ReloadableSnapshot<Integer> snapshot = cache.bind( KEY, new ReloadableSnapshot<>( "test", _nLoads::incrementAndGet ) );
+
+        assertEquals( Integer.valueOf( 1 ), cache.get( KEY, snapshot ) );
+        assertEquals( Integer.valueOf( 1 ), cache.get( KEY, snapshot ) );
+        assertEquals( 1, cache.getCacheSize( ) );
+
+        cache.resetCache( );
+        assertEquals( Integer.valueOf( 2 ), cache.get( KEY, snapshot ) );
+        assertEquals( Integer.valueOf( 2 ), cache.get( KEY, snapshot ) );
+
+        cache.invalidate( KEY, snapshot );
+        assertEquals( Integer.valueOf( 3 ), cache.get( KEY, snapshot ) );
+
+        // A refresh publishes the new value in the cache
+        assertTrue( snapshot.refresh( ) );
+        assertEquals( Integer.valueOf( 4 ), cache.get( KEY, snapshot ) );
+
+        // Disabling the cache flushes it : the snapshot is reloaded once, then served directly
+        cache.enableCache( false );
+        assertEquals( Integer.valueOf( 5 ), cache.get( KEY, snapshot ) );
+        assertEquals( Integer.valueOf( 5 ), cache.get( KEY, snapshot ) );
+
+        // The value loaded while the cache was disabled is put back in the cache
+        cache.enableCache( true );
+        assertEquals( Integer.valueOf( 5 ), cache.get( KEY, snapshot ) );
+        assertEquals( 1, cache.getCacheSize( ) );
+        assertEquals( Integer.valueOf( 5 ), cache.get( KEY, snapshot ) );
+        cache.resetCache( );
+    }
+
+    /**
+     * An entry removed from the cache by ehcache invalidates its snapshot
+     */
+    public void testEviction( )
+    {
+        CampaignCacheService cache = CampaignCacheService.getInstance( CACHE_NAME );
+        ReloadableSnapshot<Integer> snapshot = cache.bind( KEY_EVICTION, new ReloadableSnapshot<>( "test", _nLoads::incrementAndGet ) );
+
+        assertEquals( Integer.valueOf( 1 ), cache.get( KEY_EVICTION, snapshot ) );
+        assertTrue( snapshot.isCurrent( 1 ) );
+
+        cache.getCache( ).remove( KEY_EVICTION );
+        assertFalse( snapshot.isCurrent( 1 ) );
+        assertEquals( Integer.valueOf( 2 ), cache.get( KEY_EVICTION, snapshot ) );
+        assertEquals( Integer.valueOf( 2 ), cache.get( KEY_EVICTION, snapshot ) );
+
+        // An unbound snapshot no longer follows its entry
+        cache.unbind( KEY_EVICTION, snapshot );
+        assertEquals( Integer.valueOf( 3 ), snapshot.get( ) );
+        cache.getCache( ).remove( KEY_EVICTION );
+        assertTrue( snapshot.isCurrent( 3 ) );
+        cache.resetCache( );
+    }
+
+    /**
+     * A snapshot read directly is mirrored in the cache, and a flush of the cache still reloads it
+     */
+    public void testDirectRead( )
+    {
+        CampaignCacheService cache = CampaignCacheService.getInstance( CACHE_NAME );
+        ReloadableSnapshot<Integer> snapshot = cache.bind( KEY_DIRECT, new ReloadableSnapshot<>( "test", _nLoads::incrementAndGet ) );
+
+        assertEquals( Integer.valueOf( 1 ), snapshot.get( ) );
+        assertEquals( Integer.valueOf( 1 ), cache.getFromCache( KEY_DIRECT ) );
+
+        cache.resetCache( );
+        assertEquals( Integer.valueOf( 2 ), snapshot.get( ) );
+        assertEquals( Integer.valueOf( 2 ), snapshot.get( ) );
+        assertEquals( Integer.valueOf( 2 ), cache.getFromCache( KEY_DIRECT ) );
+        cache.unbind( KEY_DIRECT, snapshot );
+        cache.resetCache( );
+    }
+
+    /**
+     * An unregistered cache serves the snapshot directly
+     */
+    public void testUnregisteredCache( )
+    {
+        CampaignCacheService cache = CampaignCacheService.unregistered( CACHE_NAME );
+        ReloadableSnapshot<Integer> snapshot = cache.bind( KEY, new ReloadableSnapshot<>( "test", _nLoads::incrementAndGet ) );
+
+        assertEquals( Integer.valueOf( 1 ), cache.get( KEY, snapshot ) );
+        assertEquals( Integer.valueOf( 1 ), cache.get( KEY, snapshot ) );
+
+        cache.invalidate( KEY, snapshot );
+        assertEquals( Integer.valueOf( 2 ), cache.get( KEY, snapshot ) );
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.test.LuteceTestCase;
+import fr.paris.lutece.util.ReferenceList;
+
+/**
+ * This is the test class for the CampaignCatalog
+ */
+public class CampaignCatalogTest extends LuteceTestCase
+{
+    /**
+     * test CampaignCatalog
+     */
+    public void testCatalog( )
+    {
+        List<Campaign> listCampaigns = new ArrayList<>( );
+        listCampaigns.add( newCampaign( 1, "B", "Title B" ) );
+        listCampaigns.add( newCampaign( 2, "A", "Title A" ) );
+        CampaignCatalog catalog = CampaignCatalog.build( listCampaigns );
+
+        assertEquals( "B", catalog.getById( 1 ).getCampaignCode( ) );
+        assertEquals( "Title A", catalog.getByCode( "A" ).getTitle( ) );
+        assertTrue( catalog.containsCode( "A" ) );
+        assertFalse( catalog.containsCode( "C" ) );
+        assertNull( catalog.getById( 3 ) );
+        assertNull( catalog.getByCode( "C" ) );
+
+        assertEquals( 2, catalog.getCampaigns( ).size( ) );
+        assertEquals( "A", catalog.getCampaigns( ).get( 0 ).getCampaignCode( ) );
+
+        // A new reference list is returned on each call
+        ReferenceList list = catalog.getReferenceList( );
+        assertEquals( 2, list.size( ) );
+        assertNotSame( list, catalog.getReferenceList( ) );
+    }
+
+    /**
+     * test that the campaigns of the catalog cannot be modified by its readers
+     */
+    public void testCopies( )
+    {
+        List<Campaign> listCampaigns = new ArrayList<>( );
+        listCampaigns.add( newCampaign( 1, "A", "Title A" ) );
+        CampaignCatalog catalog = CampaignCatalog.build( listCampaigns );
+
+        // The catalog does not keep the loaded campaign
+        listCampaigns.get( 0 ).setTitle( "Changed" );
+        assertEquals( "Title A", catalog.getById( 1 ).getTitle( ) );
+
+        // A single lookup returns a new modifiable copy
+        Campaign campaign = catalog.getByCode( "A" );
+        assertNotSame( campaign, catalog.getByCode( "A" ) );
+        campaign.setTitle( "Changed" );
+        campaign.setDescription( "Description" );
+        assertEquals( "Description", campaign.getDescription( ) );
+        assertEquals( "Title A", catalog.getByCode( "A" ).getTitle( ) );
+        assertEquals( "Title A", catalog.getCampaigns( ).get( 0 ).getTitle( ) );
+
+        // The copies of the campaigns are new and modifiable
+        List<Campaign> listCopies = catalog.copyCampaigns( );
+        assertNotSame( listCopies, catalog.copyCampaigns( ) );
+        listCopies.get( 0 ).setTitle( "Changed" );
+        listCopies.add( newCampaign( 2, "B", "Title B" ) );
+        assertEquals( "Title A", catalog.getById( 1 ).getTitle( ) );
+        assertEquals( 1, catalog.copyCampaigns( ).size( ) );
+
+        // The campaigns of the shared list cannot be modified
+        try
+        {
+            catalog.getCampaigns( ).get( 0 ).setTitle( "Changed" );
+            fail( "The campaigns of the list must not be modifiable" );
+        }
+        catch( UnsupportedOperationException e )
+        {
+            assertEquals( "Title A", catalog.getCampaigns( ).get( 0 ).getTitle( ) );
+        }
+        try
+        {
+            catalog.getCampaigns( ).get( 0 ).setDescription( "Description" );
+            fail( "The campaigns of the list must not be modifiable" );
+        }
+        catch( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    /**
+     * test the last campaign of the CampaignCatalog
+     */
+    public void testLastCampaign( )
+    {
+        List<Campaign> listCampaigns = new ArrayList<>( );
+        listCampaigns.add( newCampaign( 1, "A", "Title A" ) );
+        listCampaigns.add( newCampaign( 2, "B", "Title B" ) );
+
+        CampaignCatalog catalog = CampaignCatalog.build( listCampaigns, 2 );
+        assertEquals( "B", catalog.getLastCampaignCode( ) );
+        assertEquals( "Title B", catalog.getLastCampaign( ).getTitle( ) );
+        assertNotSame( catalog.getLastCampaign( ), catalog.getLastCampaign( ) );
+
+        catalog = CampaignCatalog.build( listCampaigns, 3 );
+        assertNull( catalog.getLastCampaignCode( ) );
+        assertNull( catalog.getLastCampaign( ) );
+    }
+
+    private static Campaign newCampaign( int nId, String strCode, String strTitle )
+    {
+        Campaign campaign = new Campaign( );
+        campaign.setId( nId );
+        campaign.setCampaignCode( strCode );
+        campaign.setTitle( strTitle );
+
+        return campaign;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.business.DataVersionHome;
+import fr.paris.lutece.plugins.campaign.business.IPhaseDAO;
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.plugins.campaign.business.PhaseHome;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.test.LuteceTestCase;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * Test of the coherence of the phases between two nodes sharing the same database
+ */
+public class CampaignCoherenceServiceTest extends LuteceTestCase
+{
+    private static final String CODECAMPAIGN = "COHERENCE";
+    private static final String CODEPHASETYPE = "COHERENCE_PHASE";
+    private static final String LABEL = "Label1";
+    private static final String SQL_INSERT_PHASE_TYPE = "INSERT INTO campaign_phase_types ( id_phase_type, phase_type_code, label ) VALUES ( 9999, ?, ? )";
+    private static final String SQL_DELETE_PHASE_TYPE = "DELETE FROM campaign_phase_types WHERE phase_type_code = ?";
+
+    private Plugin _plugin;
+    private Campaign _campaign;
+    private Phase _phase;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp( ) throws Exception
+    {
+        super.setUp( );
+        _plugin = PluginService.getPlugin( "campaign" );
+
+        _campaign = new Campaign( );
+        _campaign.setCampaignCode( CODECAMPAIGN );
+        _campaign.setTitle( CODECAMPAIGN );
+        _campaign.setDescription( CODECAMPAIGN );
+        CampaignHome.create( _campaign );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_INSERT_PHASE_TYPE, _plugin ) )
+        {
+            daoUtil.setString( 1, CODEPHASETYPE );
+            daoUtil.setString( 2, CODEPHASETYPE );
+            daoUtil.executeUpdate( );
+        }
+
+        _phase = new Phase( );
+        _phase.setCampaignCode( CODECAMPAIGN );
+        _phase.setCodePhaseType( CODEPHASETYPE );
+        _phase.setLabel( LABEL );
+        _phase.setStartingDate( LocalDateTime.now( ).minusDays( 1 ) );
+        _phase.setEndingDate( LocalDateTime.now( ).plusDays( 1 ) );
+        PhaseHome.create( _phase );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown( ) throws Exception
+    {
+        PhaseHome.remove( _phase.getId( ) );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_DELETE_PHASE_TYPE, _plugin ) )
+        {
+            daoUtil.setString( 1, CODEPHASETYPE );
+            daoUtil.executeUpdate( );
+        }
+        CampaignHome.remove( _campaign.getId( ) );
+        super.tearDown( );
+    }
+
+    /**
+     * A change made by another node is seen by each node once it has polled the data version
+     */
+    public void testCoherence( )
+    {
+        CampaignCoherenceService coherence1 = new CampaignCoherenceService( );
+        CampaignService node1 = new CampaignService( coherence1, Clock.systemDefaultZone( ) );
+        CampaignCoherenceService coherence2 = new CampaignCoherenceService( );
+        CampaignService node2 = new CampaignService( coherence2, Clock.systemDefaultZone( ) );
+
+        // The first check reads the version this node starts from
+        assertTrue( coherence1.checkVersion( ) );
+        assertTrue( coherence2.checkVersion( ) );
+        assertTrue( node1.isDuring( CODECAMPAIGN, LABEL ) );
+        assertTrue( node2.isDuring( CODECAMPAIGN, LABEL ) );
+        assertFalse( coherence1.checkVersion( ) );
+
+        // Another node ends the phase : the write does not go through the PhaseHome of this JVM
+        IPhaseDAO dao = SpringContextService.getBean( "campaign.phaseDAO" );
+        _phase.setEndingDate( LocalDateTime.now( ).minusHours( 1 ) );
+        dao.store( _phase, _plugin );
+        DataVersionHome.increment( );
+
+        assertTrue( node1.isDuring( CODECAMPAIGN, LABEL ) );
+
+        assertTrue( coherence1.checkVersion( ) );
+        assertFalse( node1.isDuring( CODECAMPAIGN, LABEL ) );
+        assertTrue( node1.isAfterEnd( CODECAMPAIGN, LABEL ) );
+        assertTrue( node2.isDuring( CODECAMPAIGN, LABEL ) );
+
+        assertTrue( coherence2.checkVersion( ) );
+        assertFalse( node2.isDuring( CODECAMPAIGN, LABEL ) );
+
+        assertFalse( coherence1.checkVersion( ) );
+        assertFalse( coherence2.checkVersion( ) );
+    }
+
+    /**
+     * A change made by this node is applied to its caches by the write itself, and does not invalidate them at the next poll
+     */
+    public void testOwnWrite( )
+    {
+        CampaignCoherenceService coherence = new CampaignCoherenceService( );
+        CampaignService node = new CampaignService( coherence, Clock.systemDefaultZone( ) );
+        coherence.checkVersion( );
+        assertTrue( node.isDuring( CODECAMPAIGN, LABEL ) );
+
+        _phase.setEndingDate( LocalDateTime.now( ).minusHours( 1 ) );
+        PhaseHome.update( _phase );
+
+        assertFalse( node.isDuring( CODECAMPAIGN, LABEL ) );
+        assertFalse( coherence.checkVersion( ) );
+
+        // A write of another node between two writes of this node is still detected
+        DataVersionHome.increment( );
+        PhaseHome.update( _phase );
+        assertTrue( coherence.checkVersion( ) );
+        assertFalse( coherence.checkVersion( ) );
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.plugins.campaign.business.DataVersionHome;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.test.LuteceTestCase;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * Test of the import of the campaign configuration
+ */
+public class CampaignImportServiceTest extends LuteceTestCase
+{
+    private static final String CODECAMPAIGN = "IMPORT";
+    private static final String CODEPHASETYPE = "IMPORT_PHASE";
+    private static final String LABEL = "Label1";
+    private static final String CODETHEME = "IMPORT_THEME";
+    private static final String SQL_INSERT_PHASE_TYPE = "INSERT INTO campaign_phase_types ( id_phase_type, phase_type_code, label ) VALUES ( 9998, ?, ? )";
+    private static final String SQL_DELETE_PHASE_TYPE = "DELETE FROM campaign_phase_types WHERE phase_type_code = ?";
+
+    private Plugin _plugin;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp( ) throws Exception
+    {
+        super.setUp( );
+        _plugin = PluginService.getPlugin( "campaign" );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_INSERT_PHASE_TYPE, _plugin ) )
+        {
+            daoUtil.setString( 1, CODEPHASETYPE );
+            daoUtil.setString( 2, CODEPHASETYPE );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown( ) throws Exception
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_DELETE_PHASE_TYPE, _plugin ) )
+        {
+            daoUtil.setString( 1, CODEPHASETYPE );
+            daoUtil.executeUpdate( );
+        }
+        super.tearDown( );
+    }
+
+    /**
+     * A rolled back import leaves neither its data in the database nor in the caches, even when they have been reloaded during the import
+     */
+    public void testRollBack( )
+    {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern( Utils.dateFormat );
+        String strCampaignCode = CODECAMPAIGN + 0;
+        List<Map<String, String>> listRows = new ArrayList<>( );
+
+        listRows.add( newCampaignRow( strCampaignCode ) );
+
+        Map<String, String> mapPhase = newRow( "phase", strCampaignCode );
+        mapPhase.put( ImportRowMapper.COLUMN_CODE_PHASE_TYPE, CODEPHASETYPE );
+        mapPhase.put( ImportRowMapper.COLUMN_LABEL, LABEL );
+        mapPhase.put( ImportRowMapper.COLUMN_ORDER_NUM, "1" );
+        mapPhase.put( ImportRowMapper.COLUMN_START_DATE_TIME, LocalDateTime.now( ).minusDays( 1 ).format( formatter ) );
+        mapPhase.put( ImportRowMapper.COLUMN_END_DATE_TIME, LocalDateTime.now( ).plusDays( 1 ).format( formatter ) );
+        listRows.add( mapPhase );
+
+        Map<String, String> mapTheme = newRow( "theme", strCampaignCode );
+        mapTheme.put( ImportRowMapper.COLUMN_CODE, CODETHEME );
+        mapTheme.put( ImportRowMapper.COLUMN_TITLE, CODETHEME );
+        mapTheme.put( ImportRowMapper.COLUMN_DESCRIPTION, CODETHEME );
+        mapTheme.put( ImportRowMapper.COLUMN_FRONT_RGB, "#000000" );
+        listRows.add( mapTheme );
+
+        // Fills a whole batch, so that the rows above are written before the bad row
+        for ( int i = 1; i < CampaignImportService.BATCH_SIZE; i++ )
+        {
+            listRows.add( newCampaignRow( CODECAMPAIGN + i ) );
+        }
+
+        listRows.add( newRow( "unknown", strCampaignCode ) );
+
+        CampaignImportResult result = CampaignImportService.importRows( new ListRowReader( listRows, strCampaignCode ), Locale.FRENCH );
+
+        assertFalse( result.getErrors( ).isEmpty( ) );
+        assertFalse( result.isImported( ) );
+        assertNull( CampaignHome.findByCampaignCode( strCampaignCode ) );
+        assertNull( CampaignService.getInstance( ).findCampaignByCode( strCampaignCode ) );
+        assertFalse( CampaignService.getInstance( ).isDuring( strCampaignCode, LABEL ) );
+        assertNull( CampaignThemeService.getInstance( ).findByCodeTheme( CODETHEME ) );
+    }
+
+    /**
+     * An import stopped by an Error rolls back its transaction and releases the deferred writes of the thread
+     */
+    public void testError( )
+    {
+        String strCampaignCode = CODECAMPAIGN + 0;
+        try
+        {
+            CampaignImportService.importRows( new ErrorRowReader( newCampaignRow( strCampaignCode ) ), Locale.FRENCH );
+            fail( "The error should be thrown" );
+        }
+        catch( ImportError e )
+        {
+            // Expected
+        }
+
+        assertNull( CampaignHome.findByCampaignCode( strCampaignCode ) );
+        DataVersionHome.beginDeferredWrites( );
+        DataVersionHome.rollBackDeferredWrites( );
+    }
+
+    /**
+     * Creates a campaign row
+     * 
+     * @param strCampaignCode
+     *            the code of the campaign
+     * @return the row
+     */
+    private static Map<String, String> newCampaignRow( String strCampaignCode )
+    {
+        Map<String, String> mapRow = newRow( "campaign", strCampaignCode );
+        mapRow.put( ImportRowMapper.COLUMN_TITLE, strCampaignCode );
+        mapRow.put( ImportRowMapper.COLUMN_DESCRIPTION, strCampaignCode );
+        return mapRow;
+    }
+
+    /**
+     * Creates a row
+     * 
+     * @param strEntity
+     *            the entity of the row
+     * @param strCampaignCode
+     *            the code of the campaign
+     * @return the row
+     */
+    private static Map<String, String> newRow( String strEntity, String strCampaignCode )
+    {
+        Map<String, String> mapRow = new HashMap<>( );
+        mapRow.put( ImportRowMapper.COLUMN_ENTITY, strEntity );
+        mapRow.put( ImportRowMapper.COLUMN_CAMPAIGN_CODE, strCampaignCode );
+        return mapRow;
+    }
+
+    /**
+     * Reader of rows held in memory, which reloads the caches from the uncommitted data before returning the last row
+     */
+    private static final class ListRowReader implements ImportRowReader
+    {
+        private final Iterator<Map<String, String>> _iterator;
+        private final int _nRowCount;
+        private final String _strCampaignCode;
+        private int _nRow;
+
+        /**
+         * Constructor
+         * 
+         * @param listRows
+         *            the rows
+         * @param strCampaignCode
+         *            the code of the campaign read before the last row
+         */
+        ListRowReader( List<Map<String, String>> listRows, String strCampaignCode )
+        {
+            _iterator = listRows.iterator( );
+            _nRowCount = listRows.size( );
+            _strCampaignCode = strCampaignCode;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map<String, String> nextRow( )
+        {
+            if ( !_iterator.hasNext( ) )
+            {
+                return null;
+            }
+
+            _nRow++;
+            if ( _nRow == _nRowCount )
+            {
+                // The importing thread reads its own uncommitted writes
+                CampaignCoherenceService.getInstance( ).invalidateAll( );
+                assertNotNull( CampaignService.getInstance( ).findCampaignByCode( _strCampaignCode ) );
+                assertTrue( CampaignService.getInstance( ).isDuring( _strCampaignCode, LABEL ) );
+                assertNotNull( CampaignThemeService.getInstance( ).findByCodeTheme( CODETHEME ) );
+            }
+            return _iterator.next( );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getRowNumber( )
+        {
+            return _nRow;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close( )
+        {
+            // Nothing to close
+        }
+    }
+
+    /**
+     * Reader returning a single row, then stopped by an Error
+     */
+    private static final class ErrorRowReader implements ImportRowReader
+    {
+        private final Map<String, String> _mapRow;
+        private int _nRow;
+
+        /**
+         * Constructor
+         * 
+         * @param mapRow
+         *            the row returned before the error
+         */
+        ErrorRowReader( Map<String, String> mapRow )
+        {
+            _mapRow = mapRow;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map<String, String> nextRow( )
+        {
+            if ( _nRow++ > 0 )
+            {
+                throw new ImportError( );
+            }
+            return _mapRow;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getRowNumber( )
+        {
+            return _nRow;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close( )
+        {
+            // Nothing to close
+        }
+    }
+
+    /**
+     * Error thrown by the reader
+     */
+    private static final class ImportError extends Error
+    {
+        private static final long serialVersionUID = 1L;
+    }
+}
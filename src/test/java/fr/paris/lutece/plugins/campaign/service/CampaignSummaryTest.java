@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import fr.paris.lutece.plugins.campaign.business.Campaign;
+import fr.paris.lutece.plugins.campaign.business.CampaignHome;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the descriptions read on demand by the summaries
+ */
+public class CampaignSummaryTest extends LuteceTestCase
+{
+    private static final String CODECAMPAIGN = "SUMMARY";
+    private static final String DESCRIPTION1 = "Description1";
+    private static final String DESCRIPTION2 = "Description2";
+
+    /**
+     * The description of a summary is read on demand, and follows the updates of the campaign
+     */
+    public void testDescription( )
+    {
+        Campaign campaign = new Campaign( );
+        campaign.setCampaignCode( CODECAMPAIGN );
+        campaign.setTitle( CODECAMPAIGN );
+        campaign.setDescription( DESCRIPTION1 );
+        CampaignHome.create( campaign );
+
+        try
+        {
+            Campaign summary = new CampaignSummary( campaign );
+            assertEquals( CODECAMPAIGN, summary.getCampaignCode( ) );
+            assertEquals( DESCRIPTION1, summary.getDescription( ) );
+
+            campaign.setDescription( DESCRIPTION2 );
+            CampaignHome.update( campaign );
+            assertEquals( DESCRIPTION2, summary.getDescription( ) );
+        }
+        finally
+        {
+            CampaignHome.remove( campaign.getId( ) );
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the CampaignWarmUp
+ */
+public class CampaignWarmUpTest extends LuteceTestCase
+{
+    private final List<String> _listRuns = new ArrayList<>( );
+
+    /**
+     * The warm-up is done once every step has run
+     */
+    public void testSuccess( )
+    {
+        Map<String, Runnable> mapSteps = new LinkedHashMap<>( );
+        mapSteps.put( "phases", ( ) -> _listRuns.add( "phases" ) );
+        mapSteps.put( "campaigns", ( ) -> _listRuns.add( "campaigns" ) );
+        CampaignWarmUp warmUp = new CampaignWarmUp( mapSteps );
+
+        assertFalse( warmUp.isDone( ) );
+        assertTrue( warmUp.run( ) );
+        assertTrue( warmUp.isDone( ) );
+        assertEquals( 2, _listRuns.size( ) );
+        assertEquals( "phases", _listRuns.get( 0 ) );
+
+        // Nothing is run again
+        assertTrue( warmUp.run( ) );
+        assertEquals( 2, _listRuns.size( ) );
+    }
+
+    /**
+     * A failed step leaves the warm-up undone, the next steps still run, and only the failed step is retried
+     */
+    public void testFailure( )
+    {
+        AtomicBoolean bFail = new AtomicBoolean( true );
+        Map<String, Runnable> mapSteps = new LinkedHashMap<>( );
+        mapSteps.put( "phases", ( ) -> {
+            _listRuns.add( "phases" );
+            if ( bFail.get( ) )
+            {
+                throw new IllegalStateException( "database unavailable" );
+            }
+        } );
+        mapSteps.put( "campaigns", ( ) -> _listRuns.add( "campaigns" ) );
+        CampaignWarmUp warmUp = new CampaignWarmUp( mapSteps );
+
+        assertFalse( warmUp.run( ) );
+        assertFalse( warmUp.isDone( ) );
+        assertEquals( 2, _listRuns.size( ) );
+
+        assertFalse( warmUp.run( ) );
+        assertEquals( 3, _listRuns.size( ) );
+        assertEquals( "phases", _listRuns.get( 2 ) );
+
+        bFail.set( false );
+        assertTrue( warmUp.run( ) );
+        assertTrue( warmUp.isDone( ) );
+        assertEquals( 4, _listRuns.size( ) );
+        assertEquals( "phases", _listRuns.get( 3 ) );
+    }
+
+    /**
+     * A linkage error of a step, such as the failed initialization of a service, is caught like a runtime exception
+     */
+    public void testLinkageError( )
+    {
+        Map<String, Runnable> mapSteps = new LinkedHashMap<>( );
+        mapSteps.put( "phases", ( ) -> {
+            throw new NoClassDefFoundError( "CampaignService" );
+        } );
+        mapSteps.put( "campaigns", ( ) -> _listRuns.add( "campaigns" ) );
+        CampaignWarmUp warmUp = new CampaignWarmUp( mapSteps );
+
+        assertFalse( warmUp.run( ) );
+        assertEquals( 1, _listRuns.size( ) );
+    }
+
+    /**
+     * A retry runs the failed steps at most once per retry interval
+     */
+    public void testRetry( )
+    {
+        AtomicBoolean bFail = new AtomicBoolean( true );
+        AtomicLong lNow = new AtomicLong( 1000L );
+        Map<String, Runnable> mapSteps = new LinkedHashMap<>( );
+        mapSteps.put( "phases", ( ) -> {
+            _listRuns.add( "phases" );
+            if ( bFail.get( ) )
+            {
+                throw new IllegalStateException( "database unavailable" );
+            }
+        } );
+        CampaignWarmUp warmUp = new CampaignWarmUp( mapSteps, 10000L, lNow::get );
+
+        assertFalse( warmUp.retry( ) );
+        assertEquals( 1, _listRuns.size( ) );
+
+        bFail.set( false );
+        lNow.addAndGet( 5000L );
+        assertFalse( warmUp.retry( ) );
+        assertEquals( 1, _listRuns.size( ) );
+
+        lNow.addAndGet( 5000L );
+        assertTrue( warmUp.retry( ) );
+        assertEquals( 2, _listRuns.size( ) );
+
+        // Nothing is run again once the warm-up is done
+        assertTrue( warmUp.retry( ) );
+        assertEquals( 2, _listRuns.size( ) );
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the CoarseClock
+ */
+public class CoarseClockTest extends LuteceTestCase
+{
+    private static final long RESOLUTION = 20L;
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * The coarse clock follows its source at its resolution
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testCoarseClock( ) throws Exception
+    {
+        Clock source = Clock.offset( Clock.systemUTC( ), Duration.ofDays( 2 ) );
+        Clock clock = new CoarseClock( source, RESOLUTION );
+
+        long lStart = clock.millis( );
+        assertTrue( Math.abs( source.millis( ) - lStart ) < TIMEOUT );
+        assertEquals( lStart, clock.millis( ) );
+        assertEquals( source.getZone( ), clock.getZone( ) );
+
+        long lDeadline = System.currentTimeMillis( ) + TIMEOUT;
+        while ( clock.millis( ) == lStart )
+        {
+            assertTrue( "coarse clock not refreshed", System.currentTimeMillis( ) < lDeadline );
+            Thread.sleep( RESOLUTION / 2 );
+        }
+        assertTrue( clock.millis( ) > lStart );
+        assertTrue( clock.millis( ) <= source.millis( ) );
+    }
+
+    /**
+     * A fixed source gives a fixed coarse clock
+     */
+    public void testFixedSource( )
+    {
+        Instant instant = Instant.parse( "2021-06-16T10:00:00Z" );
+        Clock clock = new CoarseClock( Clock.fixed( instant, ZoneId.of( "UTC" ) ), RESOLUTION );
+
+        assertEquals( instant, clock.instant( ) );
+        assertEquals( ZoneId.of( "Europe/Paris" ), clock.withZone( ZoneId.of( "Europe/Paris" ) ).getZone( ) );
+    }
+
+    /**
+     * The clocks in other zones share the time of the clock, without scheduling other refreshes
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testWithZone( ) throws Exception
+    {
+        AtomicInteger nReads = new AtomicInteger( );
+        Clock source = new Clock( )
+        {
+            @Override
+            public ZoneId getZone( )
+            {
+                return ZoneId.of( "UTC" );
+            }
+
+            @Override
+            public Clock withZone( ZoneId zone )
+            {
+                throw new UnsupportedOperationException( );
+            }
+
+            @Override
+            public Instant instant( )
+            {
+                nReads.incrementAndGet( );
+                return Instant.EPOCH;
+            }
+        };
+        Clock clock = new CoarseClock( source, RESOLUTION );
+
+        for ( int i = 0; i < 50; i++ )
+        {
+            Clock zoned = clock.withZone( ZoneId.of( ( i % 2 == 0 ) ? "Europe/Paris" : "America/New_York" ) );
+            assertEquals( clock.millis( ), zoned.millis( ) );
+            assertNotSame( clock.getZone( ), zoned.getZone( ) );
+        }
+        assertSame( clock, clock.withZone( ZoneId.of( "UTC" ) ) );
+
+        // A single refresh task reads the source : about one read per resolution
+        Thread.sleep( 10 * RESOLUTION );
+        assertTrue( nReads.get( ) + " reads of the source", nReads.get( ) < 30 );
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the CsvImportRowReader
+ */
+public class CsvImportRowReaderTest extends LuteceTestCase
+{
+    /**
+     * The rows are mapped by the lower case names of the header columns
+     * 
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testRows( ) throws IOException
+    {
+        String strFile = "\uFEFFEntity;Campaign_Code;Title\r\ncampaign;A;First\r\n\r\ntheme;A;\"Second; \"\"quoted\"\"\nline\"\narea;A\n";
+        try ( CsvImportRowReader reader = new CsvImportRowReader( new StringReader( strFile ), ';' ) )
+        {
+            Map<String, String> mapRow = reader.nextRow( );
+            assertEquals( 2, reader.getRowNumber( ) );
+            assertEquals( "campaign", mapRow.get( "entity" ) );
+            assertEquals( "A", mapRow.get( "campaign_code" ) );
+            assertEquals( "First", mapRow.get( "title" ) );
+
+            // The blank line is skipped, the quoted field spans two lines
+            mapRow = reader.nextRow( );
+            assertEquals( 4, reader.getRowNumber( ) );
+            assertEquals( "Second; \"quoted\"\nline", mapRow.get( "title" ) );
+
+            mapRow = reader.nextRow( );
+            assertEquals( 6, reader.getRowNumber( ) );
+            assertFalse( mapRow.containsKey( "title" ) );
+
+            assertNull( reader.nextRow( ) );
+        }
+    }
+
+    /**
+     * A quoted field must be closed
+     */
+    public void testUnclosedQuote( )
+    {
+        try ( CsvImportRowReader reader = new CsvImportRowReader( new StringReader( "entity;title\ntheme;\"open\n" ), ';' ) )
+        {
+            reader.nextRow( );
+            fail( "An unclosed quote must be reported" );
+        }
+        catch( IOException e )
+        {
+            // expected
+        }
+    }
+}
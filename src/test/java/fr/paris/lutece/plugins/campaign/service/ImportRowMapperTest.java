@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.campaign.business.Area;
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the ImportRowMapper
+ */
+public class ImportRowMapperTest extends LuteceTestCase
+{
+    /**
+     * The values are converted to the fields of the objects
+     */
+    public void testMapping( )
+    {
+        Map<String, String> mapRow = new HashMap<>( );
+        mapRow.put( ImportRowMapper.COLUMN_CAMPAIGN_CODE, " A " );
+        mapRow.put( ImportRowMapper.COLUMN_LABEL, "Vote" );
+        mapRow.put( ImportRowMapper.COLUMN_ORDER_NUM, "3" );
+        mapRow.put( ImportRowMapper.COLUMN_START_DATE_TIME, "2021-06-16 12:00:00" );
+        mapRow.put( ImportRowMapper.COLUMN_END_DATE_TIME, "" );
+
+        Phase phase = ImportRowMapper.toPhase( mapRow );
+        assertEquals( "A", phase.getCampaignCode( ) );
+        assertEquals( "Vote", phase.getLabel( ) );
+        assertEquals( 3, phase.getOrderNum( ) );
+        assertEquals( LocalDateTime.of( 2021, 6, 16, 12, 0 ), phase.getStartingDate( ) );
+        assertNull( phase.getEndingDate( ) );
+        assertNull( phase.getCodePhaseType( ) );
+
+        mapRow.clear( );
+        mapRow.put( ImportRowMapper.COLUMN_ACTIVE, "1" );
+        Area area = ImportRowMapper.toArea( mapRow );
+        assertTrue( area.getActive( ) );
+        assertEquals( 0, area.getNumberVotes( ) );
+    }
+
+    /**
+     * The values which cannot be converted are reported with their column
+     */
+    public void testInvalidValues( )
+    {
+        assertInvalid( ImportRowMapper.COLUMN_ORDER_NUM, "first" );
+        assertInvalid( ImportRowMapper.COLUMN_START_DATE_TIME, "16/06/2021" );
+        assertInvalid( ImportRowMapper.COLUMN_ACTIVE, "yes" );
+    }
+
+    /**
+     * Checks that a value of a phase row is reported as invalid
+     * 
+     * @param strColumn
+     *            the column
+     * @param strValue
+     *            the invalid value
+     */
+    private void assertInvalid( String strColumn, String strValue )
+    {
+        Map<String, String> mapRow = new HashMap<>( );
+        mapRow.put( strColumn, strValue );
+        try
+        {
+            if ( ImportRowMapper.COLUMN_ACTIVE.equals( strColumn ) )
+            {
+                ImportRowMapper.toArea( mapRow );
+            }
+            else
+            {
+                ImportRowMapper.toPhase( mapRow );
+            }
+            fail( "The value " + strValue + " must be rejected" );
+        }
+        catch( ImportRowMapper.InvalidValueException e )
+        {
+            assertEquals( strColumn, e.getColumn( ) );
+            assertEquals( strValue, e.getValue( ) );
+        }
+    }
+}
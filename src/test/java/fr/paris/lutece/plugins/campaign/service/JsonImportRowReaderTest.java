@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the JsonImportRowReader
+ */
+public class JsonImportRowReaderTest extends LuteceTestCase
+{
+    /**
+     * The objects of the array are read one by one, their scalar values as text
+     * 
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testRows( ) throws IOException
+    {
+        String strFile = "[ { \"Entity\" : \"area\", \"campaign_code\" : \"A\", \"number_votes\" : 3, \"active\" : true, \"type\" : null }, { \"entity\" : \"theme\" } ]";
+        try ( JsonImportRowReader reader = new JsonImportRowReader( new ByteArrayInputStream( strFile.getBytes( StandardCharsets.UTF_8 ) ) ) )
+        {
+            Map<String, String> mapRow = reader.nextRow( );
+            assertEquals( 1, reader.getRowNumber( ) );
+            assertEquals( "area", mapRow.get( "entity" ) );
+            assertEquals( "3", mapRow.get( "number_votes" ) );
+            assertEquals( "true", mapRow.get( "active" ) );
+            assertTrue( mapRow.containsKey( "type" ) );
+            assertNull( mapRow.get( "type" ) );
+
+            mapRow = reader.nextRow( );
+            assertEquals( 2, reader.getRowNumber( ) );
+            assertEquals( "theme", mapRow.get( "entity" ) );
+
+            assertNull( reader.nextRow( ) );
+        }
+    }
+
+    /**
+     * The file must hold an array of flat objects
+     * 
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testMalformed( ) throws IOException
+    {
+        for ( String strFile : new String [ ] {
+                "{ \"entity\" : \"area\" }", "[ 1 ]", "[ { \"entity\" : [ \"area\" ] } ]"
+        } )
+        {
+            try ( JsonImportRowReader reader = new JsonImportRowReader( new ByteArrayInputStream( strFile.getBytes( StandardCharsets.UTF_8 ) ) ) )
+            {
+                reader.nextRow( );
+                fail( "The malformed file " + strFile + " must be reported" );
+            }
+            catch( IOException e )
+            {
+                // expected
+            }
+        }
+    }
+}
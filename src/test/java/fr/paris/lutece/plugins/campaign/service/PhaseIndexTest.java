@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the PhaseIndex
+ */
+public class PhaseIndexTest extends LuteceTestCase
+{
+    private static final String CODECAMPAIGN1 = "A";
+    private static final String CODECAMPAIGN2 = "B";
+    private static final String LABEL1 = "Label1";
+    private static final String LABEL2 = "Label2";
+    private static final LocalDateTime STARTINGDATE1 = LocalDateTime.of( 2021, 6, 16, 12, 00 );
+    private static final LocalDateTime ENDINGDATE1 = LocalDateTime.of( 2021, 9, 16, 12, 00 );
+    private static final long NOW = System.currentTimeMillis( );
+
+    /**
+     * test PhaseIndex
+     */
+    public void testIndex( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN2, LABEL1, STARTINGDATE1.plusYears( 1 ), ENDINGDATE1.plusYears( 1 ) ) );
+        listPhases.add( newPhase( 3, CODECAMPAIGN1, LABEL2, null, ENDINGDATE1 ) );
+
+        PhaseIndex index = PhaseIndex.build( listPhases, NOW );
+        assertEquals( 2, index.size( ) );
+
+        PhaseWindow window = index.getWindow( CODECAMPAIGN1, LABEL1 );
+        assertNotNull( window );
+        assertEquals( listPhases.get( 0 ).getStartingTimeStampDate( ).getTime( ), window.getStart( ) );
+        assertEquals( listPhases.get( 0 ).getEndingTimeStampDate( ).getTime( ), window.getEnd( ) );
+        assertNotSame( window, index.getWindow( CODECAMPAIGN2, LABEL1 ) );
+
+        // Unknown or incomplete phases are not indexed
+        assertNull( index.getWindow( CODECAMPAIGN1, LABEL2 ) );
+        assertNull( index.getWindow( CODECAMPAIGN2, LABEL2 ) );
+        assertNull( index.getWindow( "unknown", LABEL1 ) );
+    }
+
+    /**
+     * test the copy-on-write changes of the PhaseIndex
+     */
+    public void testChanges( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        PhaseIndex index = PhaseIndex.build( listPhases, NOW );
+
+        // Create
+        Phase phase = newPhase( 2, CODECAMPAIGN1, LABEL2, STARTINGDATE1, ENDINGDATE1 );
+        PhaseIndex indexCreated = index.withPhase( phase, NOW );
+        assertNull( index.getWindow( CODECAMPAIGN1, LABEL2 ) );
+        assertEquals( 2, indexCreated.getWindow( CODECAMPAIGN1, LABEL2 ).getIdPhase( ) );
+        assertSame( index.getWindow( CODECAMPAIGN1, LABEL1 ), indexCreated.getWindow( CODECAMPAIGN1, LABEL1 ) );
+
+        // Update, moving the phase to another campaign
+        phase.setCampaignCode( CODECAMPAIGN2 );
+        phase.setEndingDate( ENDINGDATE1.plusDays( 1 ) );
+        PhaseIndex indexUpdated = indexCreated.withPhase( phase, NOW );
+        assertNull( indexUpdated.getWindow( CODECAMPAIGN1, LABEL2 ) );
+        assertEquals( phase.getEndingTimeStampDate( ).getTime( ), indexUpdated.getWindow( CODECAMPAIGN2, LABEL2 ).getEnd( ) );
+        assertEquals( 2, indexUpdated.size( ) );
+
+        // Remove
+        PhaseIndex indexRemoved = indexUpdated.withoutPhase( 2, NOW );
+        assertNull( indexRemoved.getWindow( CODECAMPAIGN2, LABEL2 ) );
+        assertNotNull( indexRemoved.getWindow( CODECAMPAIGN1, LABEL1 ) );
+        assertEquals( 1, indexRemoved.size( ) );
+        assertSame( indexRemoved, indexRemoved.withoutPhase( 2, NOW ) );
+    }
+
+    /**
+     * test PhaseWindow predicates
+     */
+    public void testWindow( )
+    {
+        PhaseWindow window = new PhaseWindow( 1, 1000L, 2000L, 0L );
+
+        assertTrue( window.isBeforeBeginning( 999L ) );
+        assertFalse( window.isAfterBeginning( 999L ) );
+        assertFalse( window.isDuring( 1000L ) );
+        assertTrue( window.isDuring( 1500L ) );
+        assertTrue( window.isBeforeEnd( 1500L ) );
+        assertFalse( window.isAfterEnd( 2000L ) );
+        assertTrue( window.isAfterEnd( 2001L ) );
+        assertFalse( window.isBeforeEnd( 2001L ) );
+    }
+
+    /**
+     * test the states of the windows and the transitions of the PhaseIndex
+     */
+    public void testTransitions( )
+    {
+        PhaseWindow window = new PhaseWindow( 1, 1000L, 2000L, 1000L );
+        assertEquals( PhaseState.BEFORE, window.getState( ) );
+        assertSame( window, window.at( 999L ) );
+        assertEquals( PhaseState.DURING, window.at( 1001L ).getState( ) );
+        assertEquals( PhaseState.DURING, window.at( 1999L ).getState( ) );
+        assertEquals( PhaseState.AFTER, window.at( 2000L ).getState( ) );
+
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN1, LABEL2, ENDINGDATE1, ENDINGDATE1.plusDays( 1 ) ) );
+        long lStart = listPhases.get( 0 ).getStartingTimeStampDate( ).getTime( );
+        long lEnd = listPhases.get( 0 ).getEndingTimeStampDate( ).getTime( );
+        long lEnd2 = listPhases.get( 1 ).getEndingTimeStampDate( ).getTime( );
+
+        PhaseIndex index = PhaseIndex.build( listPhases, lStart - 1 );
+        assertEquals( PhaseState.BEFORE, index.getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+        assertEquals( lStart, index.getNextTransition( ) );
+
+        // The predicates change at the beginning, the state just after it
+        index = index.at( index.getNextTransition( ) );
+        assertEquals( PhaseState.BEFORE, index.getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+        assertEquals( lStart + 1, index.getNextTransition( ) );
+
+        index = index.at( index.getNextTransition( ) );
+        assertEquals( PhaseState.DURING, index.getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+        assertEquals( PhaseState.BEFORE, index.getWindow( CODECAMPAIGN1, LABEL2 ).getState( ) );
+        assertEquals( lEnd, index.getNextTransition( ) );
+
+        // The second phase begins when the first one ends
+        index = index.at( index.getNextTransition( ) );
+        assertEquals( PhaseState.AFTER, index.getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+        assertEquals( PhaseState.BEFORE, index.getWindow( CODECAMPAIGN1, LABEL2 ).getState( ) );
+        assertEquals( lEnd + 1, index.getNextTransition( ) );
+
+        index = index.at( lEnd2 );
+        assertEquals( PhaseState.AFTER, index.getWindow( CODECAMPAIGN1, LABEL2 ).getState( ) );
+        assertEquals( lEnd2 + 1, index.getNextTransition( ) );
+        index = index.at( lEnd2 + 1 );
+        assertEquals( PhaseIndex.NO_TRANSITION, index.getNextTransition( ) );
+
+        // Patches are evaluated at the given instant
+        Phase phase = newPhase( 3, CODECAMPAIGN2, LABEL1, STARTINGDATE1, ENDINGDATE1.plusYears( 1 ) );
+        index = index.withPhase( phase, lEnd2 + 1 );
+        assertEquals( PhaseState.DURING, index.getWindow( CODECAMPAIGN2, LABEL1 ).getState( ) );
+        assertEquals( phase.getEndingTimeStampDate( ).getTime( ), index.getNextTransition( ) );
+    }
+
+    /**
+     * test that a patch evaluates the whole index at the current instant, and not at the instant of the last evaluation
+     */
+    public void testPatchInstant( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN1, LABEL2, STARTINGDATE1, ENDINGDATE1 ) );
+        long lStart = listPhases.get( 0 ).getStartingTimeStampDate( ).getTime( );
+        long lEnd = listPhases.get( 0 ).getEndingTimeStampDate( ).getTime( );
+
+        // The index was evaluated before the phases began
+        PhaseIndex index = PhaseIndex.build( listPhases, lStart - 1 );
+        Phase phase = newPhase( 2, CODECAMPAIGN1, LABEL2, STARTINGDATE1, ENDINGDATE1.plusDays( 1 ) );
+        PhaseIndex indexUpdated = index.withPhase( phase, lStart + 1 );
+        assertEquals( lStart + 1, indexUpdated.getInstant( ) );
+        assertEquals( PhaseState.DURING, indexUpdated.getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+        assertEquals( PhaseState.DURING, indexUpdated.getWindow( CODECAMPAIGN1, LABEL2 ).getState( ) );
+        assertEquals( lEnd, indexUpdated.getNextTransition( ) );
+        assertEquals( 2, indexUpdated.getTransitionsSince( index ).size( ) );
+
+        PhaseIndex indexRemoved = indexUpdated.withoutPhase( 2, lEnd );
+        assertEquals( PhaseState.AFTER, indexRemoved.getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+        assertNull( indexRemoved.getWindow( CODECAMPAIGN1, LABEL2 ) );
+
+        // An earlier instant does not move the states backwards
+        assertEquals( lEnd, indexRemoved.withPhase( phase, lStart - 1 ).getInstant( ) );
+        assertEquals( PhaseState.AFTER, indexRemoved.withPhase( phase, lStart - 1 ).getWindow( CODECAMPAIGN1, LABEL1 ).getState( ) );
+    }
+
+    /**
+     * test the phase predicates at the beginning and at the end of a phase, and for a phase ending before it begins : the predicates keep the
+     * strict comparisons of the current instant with the beginning and the end, whatever the state
+     */
+    public void testBoundaries( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN1, LABEL2, ENDINGDATE1, STARTINGDATE1 ) );
+        long lStart = listPhases.get( 0 ).getStartingTimeStampDate( ).getTime( );
+        long lEnd = listPhases.get( 0 ).getEndingTimeStampDate( ).getTime( );
+
+        PhaseIndex index = PhaseIndex.build( listPhases, lStart - 1 );
+        assertPredicates( index, LABEL1, PhaseState.BEFORE, true, false, false, true, false );
+        assertPredicates( index, LABEL2, PhaseState.BEFORE, true, false, false, true, false );
+
+        index = index.at( lStart );
+        assertEquals( lStart, index.getInstant( ) );
+        assertPredicates( index, LABEL1, PhaseState.BEFORE, false, false, false, true, false );
+        assertPredicates( index, LABEL2, PhaseState.BEFORE, true, false, false, false, false );
+
+        index = index.at( lStart + 1 );
+        assertPredicates( index, LABEL1, PhaseState.DURING, false, true, true, true, false );
+        assertPredicates( index, LABEL2, PhaseState.BEFORE, true, false, false, false, true );
+
+        index = index.at( lEnd );
+        assertPredicates( index, LABEL1, PhaseState.AFTER, false, true, false, false, false );
+        assertPredicates( index, LABEL2, PhaseState.BEFORE, false, false, false, false, true );
+
+        index = index.at( lEnd + 1 );
+        assertPredicates( index, LABEL1, PhaseState.AFTER, false, true, false, false, true );
+        assertPredicates( index, LABEL2, PhaseState.AFTER, false, true, false, false, true );
+        assertEquals( PhaseIndex.NO_TRANSITION, index.getNextTransition( ) );
+    }
+
+    /**
+     * test the transitions between two evaluations of the PhaseIndex
+     */
+    public void testTransitionsSince( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN1, LABEL2, ENDINGDATE1, ENDINGDATE1.plusDays( 1 ) ) );
+        long lStart = listPhases.get( 0 ).getStartingTimeStampDate( ).getTime( );
+        long lEnd = listPhases.get( 0 ).getEndingTimeStampDate( ).getTime( );
+        long lEnd2 = listPhases.get( 1 ).getEndingTimeStampDate( ).getTime( );
+
+        PhaseIndex index = PhaseIndex.build( listPhases, lStart );
+        assertTrue( index.getTransitionsSince( index ).isEmpty( ) );
+
+        PhaseIndex indexStarted = index.at( lStart + 1 );
+        List<PhaseTransitionEvent> listEvents = indexStarted.getTransitionsSince( index );
+        assertEquals( 1, listEvents.size( ) );
+        assertEquals( PhaseTransitionEvent.Type.STARTED, listEvents.get( 0 ).getType( ) );
+        assertEquals( LABEL1, listEvents.get( 0 ).getPhaseLabel( ) );
+        assertEquals( lStart + 1, listEvents.get( 0 ).getInstant( ).getTime( ) );
+        assertTrue( index.getTransitionsSince( indexStarted ).isEmpty( ) );
+
+        // The first phase ends and the second one begins and ends between the two evaluations
+        listEvents = indexStarted.at( lEnd2 ).getTransitionsSince( indexStarted );
+        assertEquals( 3, listEvents.size( ) );
+        assertEquals( PhaseTransitionEvent.Type.STARTED, listEvents.get( 0 ).getType( ) );
+        assertEquals( LABEL2, listEvents.get( 0 ).getPhaseLabel( ) );
+        assertEquals( PhaseTransitionEvent.Type.ENDED, listEvents.get( 1 ).getType( ) );
+        assertEquals( PhaseTransitionEvent.Type.ENDED, listEvents.get( 2 ).getType( ) );
+
+        // A new phase produces no transition
+        PhaseIndex indexCreated = indexStarted.withPhase( newPhase( 3, CODECAMPAIGN2, LABEL1, STARTINGDATE1, ENDINGDATE1 ), lStart + 1 );
+        assertTrue( indexCreated.getTransitionsSince( indexStarted ).isEmpty( ) );
+        assertEquals( 1, indexCreated.at( lEnd ).getTransitionsSince( indexStarted ).size( ) );
+    }
+
+    /**
+     * test the status of the phases of a campaign
+     */
+    public void testCampaignStatus( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN1, LABEL2, ENDINGDATE1, ENDINGDATE1.plusDays( 1 ) ) );
+        long lEnd = listPhases.get( 0 ).getEndingTimeStampDate( ).getTime( );
+        PhaseIndex index = PhaseIndex.build( listPhases, NOW );
+
+        CampaignStatus status = new CampaignStatus( CODECAMPAIGN1, index.getWindows( CODECAMPAIGN1 ), lEnd - 1 );
+        assertEquals( 2, status.getPhases( ).size( ) );
+        assertEquals( lEnd - 1, status.getInstant( ).getTime( ) );
+        assertTrue( status.getPhase( LABEL1 ).isDuring( ) );
+        assertTrue( status.getPhase( LABEL1 ).isAfterBeginning( ) );
+        assertTrue( status.getPhase( LABEL2 ).isBeforeBeginning( ) );
+        assertEquals( listPhases.get( 1 ).getEndingTimeStampDate( ), status.getPhase( LABEL2 ).getEnd( ) );
+        assertNull( status.getPhase( "unknown" ) );
+
+        // At the end instant, the first phase is over but not after its end, the second one is neither before nor after its beginning
+        status = new CampaignStatus( CODECAMPAIGN1, index.getWindows( CODECAMPAIGN1 ), lEnd );
+        assertEquals( PhaseState.AFTER, status.getPhase( LABEL1 ).getState( ) );
+        assertFalse( status.getPhase( LABEL1 ).isAfterEnd( ) );
+        assertFalse( status.getPhase( LABEL1 ).isBeforeEnd( ) );
+        assertEquals( PhaseState.BEFORE, status.getPhase( LABEL2 ).getState( ) );
+        assertFalse( status.getPhase( LABEL2 ).isBeforeBeginning( ) );
+        assertFalse( status.getPhase( LABEL2 ).isAfterBeginning( ) );
+        assertTrue( status.getPhase( LABEL2 ).isBeforeEnd( ) );
+
+        status = new CampaignStatus( CODECAMPAIGN1, index.getWindows( CODECAMPAIGN1 ), lEnd + 1 );
+        assertTrue( status.getPhase( LABEL1 ).isAfterEnd( ) );
+        assertTrue( status.getPhase( LABEL2 ).isDuring( ) );
+
+        assertTrue( new CampaignStatus( "unknown", index.getWindows( "unknown" ), NOW ).getPhases( ).isEmpty( ) );
+    }
+
+    /**
+     * test the catalog of the phases by campaign and by phase type
+     */
+    public void testCatalog( )
+    {
+        List<Phase> listPhases = new ArrayList<>( );
+        listPhases.add( newPhase( 1, CODECAMPAIGN1, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.add( newPhase( 2, CODECAMPAIGN1, LABEL2, null, null ) );
+        listPhases.add( newPhase( 3, CODECAMPAIGN2, LABEL1, STARTINGDATE1, ENDINGDATE1 ) );
+        listPhases.get( 0 ).setCodePhaseType( "SUBMIT" );
+        listPhases.get( 0 ).setOrderNum( 2 );
+        listPhases.get( 1 ).setCodePhaseType( "VOTE" );
+        listPhases.get( 1 ).setOrderNum( 1 );
+        PhaseIndex index = PhaseIndex.build( listPhases, NOW );
+
+        // Phases without dates are in the catalog, ordered by order number
+        List<Phase> listCampaign = index.getPhases( CODECAMPAIGN1 );
+        assertEquals( 2, listCampaign.size( ) );
+        assertEquals( 2, listCampaign.get( 0 ).getId( ) );
+        assertEquals( 1, listCampaign.get( 1 ).getId( ) );
+        assertTrue( index.getPhases( "unknown" ).isEmpty( ) );
+
+        Phase phase = index.getPhaseByType( CODECAMPAIGN1, "VOTE" );
+        assertEquals( 2, phase.getId( ) );
+        assertNull( index.getPhaseByType( CODECAMPAIGN2, "VOTE" ) );
+
+        // The returned phases are copies
+        phase.setCodePhaseType( "OTHER" );
+        assertNotNull( index.getPhaseByType( CODECAMPAIGN1, "VOTE" ) );
+
+        // Changes
+        phase = newPhase( 2, CODECAMPAIGN2, LABEL2, null, null );
+        phase.setCodePhaseType( "VOTE" );
+        PhaseIndex indexUpdated = index.withPhase( phase, NOW );
+        assertNull( indexUpdated.getPhaseByType( CODECAMPAIGN1, "VOTE" ) );
+        assertEquals( 2, indexUpdated.getPhaseByType( CODECAMPAIGN2, "VOTE" ).getId( ) );
+        assertEquals( 1, indexUpdated.getPhases( CODECAMPAIGN1 ).size( ) );
+        assertEquals( 1, indexUpdated.withoutPhase( 2, NOW ).getPhases( CODECAMPAIGN2 ).size( ) );
+        assertEquals( 2, indexUpdated.at( NOW + 1 ).getPhases( CODECAMPAIGN2 ).size( ) );
+    }
+
+    private static void assertPredicates( PhaseIndex index, String strLabel, PhaseState state, boolean bBeforeBeginning, boolean bAfterBeginning,
+            boolean bDuring, boolean bBeforeEnd, boolean bAfterEnd )
+    {
+        PhaseWindow window = index.getWindow( CODECAMPAIGN1, strLabel );
+        long lNow = index.getInstant( );
+        assertEquals( state, window.getState( ) );
+        assertEquals( bBeforeBeginning, window.isBeforeBeginning( lNow ) );
+        assertEquals( bAfterBeginning, window.isAfterBeginning( lNow ) );
+        assertEquals( bDuring, window.isDuring( lNow ) );
+        assertEquals( bBeforeEnd, window.isBeforeEnd( lNow ) );
+        assertEquals( bAfterEnd, window.isAfterEnd( lNow ) );
+    }
+
+    private static Phase newPhase( int nId, String strCampaignCode, String strLabel, LocalDateTime start, LocalDateTime end )
+    {
+        Phase phase = new Phase( );
+        phase.setId( nId );
+        phase.setCampaignCode( strCampaignCode );
+        phase.setLabel( strLabel );
+        phase.setStartingDate( start );
+        phase.setEndingDate( end );
+
+        return phase;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import fr.paris.lutece.plugins.campaign.business.Phase;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the PhaseTimeline
+ */
+public class PhaseTimelineTest extends LuteceTestCase
+{
+    private static final String CODECAMPAIGN = "A";
+    private static final String LABEL = "Label1";
+    private static final long PHASE_DELAY = 300L;
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * The state of a phase flips when the armed timer fires, without any reload, and each transition is notified once
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testStateFlips( ) throws Exception
+    {
+        LocalDateTime start = LocalDateTime.now( ).plusNanos( PHASE_DELAY * 1000000L );
+        LocalDateTime end = start.plusNanos( PHASE_DELAY * 1000000L );
+        List<Phase> listPhases = new ArrayList<>( );
+        Phase phase = new Phase( );
+        phase.setId( 1 );
+        phase.setCampaignCode( CODECAMPAIGN );
+        phase.setLabel( LABEL );
+        phase.setStartingDate( start );
+        phase.setEndingDate( end );
+        listPhases.add( phase );
+
+        ReloadableSnapshot<PhaseIndex> snapshot = new ReloadableSnapshot<>( "test", ( ) -> PhaseIndex.build( listPhases, System.currentTimeMillis( ) ) );
+        PhaseTimeline timeline = new PhaseTimeline( snapshot, System::currentTimeMillis );
+        List<PhaseTransitionEvent> listEvents = new CopyOnWriteArrayList<>( );
+        timeline.register( new IPhaseTransitionListener( )
+        {
+            @Override
+            public void phaseStarted( PhaseTransitionEvent event )
+            {
+                listEvents.add( event );
+            }
+
+            @Override
+            public void phaseEnded( PhaseTransitionEvent event )
+            {
+                listEvents.add( event );
+            }
+        } );
+
+        assertEquals( PhaseState.BEFORE, snapshot.get( ).getWindow( CODECAMPAIGN, LABEL ).getState( ) );
+        assertEquals( phase.getStartingTimeStampDate( ).getTime( ), timeline.getArmedTransition( ) );
+
+        waitFor( snapshot, PhaseState.DURING );
+        assertEquals( phase.getEndingTimeStampDate( ).getTime( ), timeline.getArmedTransition( ) );
+
+        waitFor( snapshot, PhaseState.AFTER );
+        long lDeadline = System.currentTimeMillis( ) + TIMEOUT;
+        while ( timeline.getArmedTransition( ) != PhaseIndex.NO_TRANSITION )
+        {
+            assertTrue( "last transition not fired", System.currentTimeMillis( ) < lDeadline );
+            Thread.sleep( 10L );
+        }
+
+        // Reloads and patches do not notify the transitions again
+        snapshot.invalidate( );
+        snapshot.get( );
+        snapshot.update( index -> index.withPhase( phase, System.currentTimeMillis( ) ) );
+        Thread.sleep( PHASE_DELAY );
+        assertEquals( 2, listEvents.size( ) );
+        assertEquals( PhaseTransitionEvent.Type.STARTED, listEvents.get( 0 ).getType( ) );
+        assertEquals( PhaseTransitionEvent.Type.ENDED, listEvents.get( 1 ).getType( ) );
+        assertEquals( 1, listEvents.get( 1 ).getIdPhase( ) );
+    }
+
+    private static void waitFor( ReloadableSnapshot<PhaseIndex> snapshot, PhaseState state ) throws InterruptedException
+    {
+        long lDeadline = System.currentTimeMillis( ) + TIMEOUT;
+        while ( snapshot.get( ).getWindow( CODECAMPAIGN, LABEL ).getState( ) != state )
+        {
+            assertTrue( "state " + state + " not reached", System.currentTimeMillis( ) < lDeadline );
+            Thread.sleep( 10L );
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Concurrency test of the ReloadableSnapshot
+ */
+public class ReloadableSnapshotTest extends LuteceTestCase
+{
+    private static final int THREADS = 32;
+    private static final long LOAD_DURATION = 200L;
+    private static final int INVALIDATIONS = 500;
+
+    private final AtomicInteger _nLoads = new AtomicInteger( );
+    private volatile boolean _bFail;
+
+    private final ReloadableSnapshot<Integer> _snapshot = new ReloadableSnapshot<>( "test", ( ) -> {
+        int nLoad = _nLoads.incrementAndGet( );
+        try
+        {
+            Thread.sleep( LOAD_DURATION );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+        }
+        if ( _bFail )
+        {
+            throw new IllegalStateException( "load failure" );
+        }
+        return nLoad;
+    } );
+
+    /**
+     * At cold start, all the concurrent readers share a single load
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testColdStart( ) throws Exception
+    {
+        for ( Integer nValue : readConcurrently( ) )
+        {
+            assertEquals( Integer.valueOf( 1 ), nValue );
+        }
+        assertEquals( 1, _nLoads.get( ) );
+    }
+
+    /**
+     * After an invalidation, only one reader reloads while the others read the previous snapshot
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testInvalidation( ) throws Exception
+    {
+        assertEquals( Integer.valueOf( 1 ), _snapshot.get( ) );
+
+        for ( int i = 2; i <= 4; i++ )
+        {
+            _snapshot.invalidate( );
+
+            int nNewValues = 0;
+            for ( Integer nValue : readConcurrently( ) )
+            {
+                assertTrue( "unexpected value " + nValue, nValue == i - 1 || nValue == i );
+                if ( nValue == i )
+                {
+                    nNewValues++;
+                }
+            }
+            assertTrue( nNewValues >= 1 );
+            assertEquals( i, _nLoads.get( ) );
+            assertEquals( Integer.valueOf( i ), _snapshot.get( ) );
+            assertEquals( i, _nLoads.get( ) );
+        }
+    }
+
+    /**
+     * A failed reload keeps the previous snapshot
+     */
+    public void testFailedReload( )
+    {
+        assertEquals( Integer.valueOf( 1 ), _snapshot.get( ) );
+
+        _bFail = true;
+        _snapshot.invalidate( );
+        assertEquals( Integer.valueOf( 1 ), _snapshot.get( ) );
+
+        _bFail = false;
+        assertEquals( Integer.valueOf( 3 ), _snapshot.get( ) );
+    }
+
+    /**
+     * A patch replaces the loaded snapshot without any load
+     */
+    public void testUpdate( )
+    {
+        _snapshot.update( nValue -> nValue + 100 );
+        assertEquals( Integer.valueOf( 1 ), _snapshot.get( ) );
+
+        _snapshot.update( nValue -> nValue + 100 );
+        assertEquals( Integer.valueOf( 101 ), _snapshot.get( ) );
+        assertEquals( 1, _nLoads.get( ) );
+    }
+
+    /**
+     * A background refresh swaps the snapshot while the readers keep reading the previous one, and keeps it on failure
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testRefresh( ) throws Exception
+    {
+        assertEquals( Integer.valueOf( 1 ), _snapshot.get( ) );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor( );
+        Future<Boolean> refresh = executor.submit( _snapshot::refresh );
+        Thread.sleep( LOAD_DURATION / 2 );
+        long lStart = System.currentTimeMillis( );
+        assertEquals( Integer.valueOf( 1 ), _snapshot.get( ) );
+        assertTrue( System.currentTimeMillis( ) - lStart < LOAD_DURATION / 2 );
+        assertFalse( _snapshot.refresh( ) );
+        assertTrue( refresh.get( ) );
+        assertEquals( Integer.valueOf( 2 ), _snapshot.get( ) );
+
+        _bFail = true;
+        assertFalse( _snapshot.refresh( ) );
+        assertEquals( Integer.valueOf( 2 ), _snapshot.get( ) );
+        executor.shutdown( );
+    }
+
+    /**
+     * With an instant loader, a reader which found the snapshot stale does not reload it again once another reader has reloaded it : every load
+     * after the first one is caused by a distinct invalidation
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    public void testNoDuplicateLoad( ) throws Exception
+    {
+        AtomicInteger nLoads = new AtomicInteger( );
+        ReloadableSnapshot<Integer> snapshot = new ReloadableSnapshot<>( "instant", nLoads::incrementAndGet );
+        snapshot.get( );
+
+        ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+        CyclicBarrier barrier = new CyclicBarrier( THREADS + 1 );
+        AtomicInteger nInvalidations = new AtomicInteger( );
+        List<Future<?>> listFutures = new ArrayList<>( );
+        try
+        {
+            for ( int i = 0; i < THREADS; i++ )
+            {
+                Callable<Void> reader = ( ) -> {
+                    barrier.await( );
+                    while ( nInvalidations.get( ) < INVALIDATIONS )
+                    {
+                        assertNotNull( snapshot.get( ) );
+                    }
+                    return null;
+                };
+                listFutures.add( executor.submit( reader ) );
+            }
+
+            barrier.await( );
+            while ( nInvalidations.get( ) < INVALIDATIONS )
+            {
+                snapshot.invalidate( );
+                nInvalidations.incrementAndGet( );
+                Thread.sleep( 1 );
+            }
+            for ( Future<?> future : listFutures )
+            {
+                future.get( 30, TimeUnit.SECONDS );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow( );
+        }
+
+        assertTrue( nLoads.get( ) + " loads for " + INVALIDATIONS + " invalidations", nLoads.get( ) <= INVALIDATIONS + 1 );
+    }
+
+    private List<Integer> readConcurrently( ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+        CyclicBarrier barrier = new CyclicBarrier( THREADS );
+        List<Future<Integer>> listFutures = new ArrayList<>( );
+
+        try
+        {
+            for ( int i = 0; i < THREADS; i++ )
+            {
+                Callable<Integer> reader = ( ) -> {
+                    barrier.await( );
+                    return _snapshot.get( );
+                };
+                listFutures.add( executor.submit( reader ) );
+            }
+
+            List<Integer> listValues = new ArrayList<>( );
+            for ( Future<Integer> future : listFutures )
+            {
+                listValues.add( future.get( 10, TimeUnit.SECONDS ) );
+            }
+            return listValues;
+        }
+        finally
+        {
+            executor.shutdownNow( );
+        }
+    }
+}
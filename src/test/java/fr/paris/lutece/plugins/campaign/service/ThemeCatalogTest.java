@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.campaign.business.Theme;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the ThemeCatalog
+ */
+public class ThemeCatalogTest extends LuteceTestCase
+{
+    private static final String CODECAMPAIGN1 = "A";
+    private static final String CODECAMPAIGN2 = "B";
+
+    /**
+     * test ThemeCatalog
+     */
+    public void testCatalog( )
+    {
+        List<Theme> listThemes = new ArrayList<>( );
+        listThemes.add( newTheme( 3, CODECAMPAIGN1, "THEME3" ) );
+        listThemes.add( newTheme( 1, CODECAMPAIGN1, "THEME1" ) );
+        listThemes.add( newTheme( 2, CODECAMPAIGN2, "THEME2" ) );
+        ThemeCatalog catalog = ThemeCatalog.build( listThemes );
+
+        assertEquals( 3, catalog.size( ) );
+        assertEquals( "THEME1", catalog.getById( 1 ).getCode( ) );
+        assertEquals( 2, catalog.getByCode( "THEME2" ).getId( ) );
+        assertNull( catalog.getByCode( "unknown" ) );
+        assertNull( catalog.getById( 4 ) );
+
+        List<Theme> listCampaign = catalog.getByCampaign( CODECAMPAIGN1 );
+        assertEquals( 2, listCampaign.size( ) );
+        assertEquals( 1, listCampaign.get( 0 ).getId( ) );
+        assertEquals( 3, listCampaign.get( 1 ).getId( ) );
+        assertTrue( catalog.getByCampaign( "unknown" ).isEmpty( ) );
+
+        try
+        {
+            listCampaign.clear( );
+            fail( "the themes of a campaign must be unmodifiable" );
+        }
+        catch( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    /**
+     * test the themes by campaign map of the ThemeCatalog
+     */
+    public void testMapByCampaign( )
+    {
+        List<Theme> listThemes = new ArrayList<>( );
+        listThemes.add( newTheme( 1, CODECAMPAIGN1, "THEME1" ) );
+        listThemes.add( newTheme( 2, CODECAMPAIGN2, "THEME2" ) );
+        ThemeCatalog catalog = ThemeCatalog.build( listThemes );
+
+        Map<String, List<Theme>> mapThemes = catalog.getByCampaign( );
+        assertEquals( 2, mapThemes.size( ) );
+        assertSame( mapThemes, catalog.getByCampaign( ) );
+        assertSame( catalog.getByCampaign( CODECAMPAIGN2 ), mapThemes.get( CODECAMPAIGN2 ) );
+
+        try
+        {
+            mapThemes.remove( CODECAMPAIGN1 );
+            fail( "the themes map must be unmodifiable" );
+        }
+        catch( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    /**
+     * test that the themes of the catalog cannot be modified by its readers
+     */
+    public void testCopies( )
+    {
+        List<Theme> listThemes = new ArrayList<>( );
+        listThemes.add( newTheme( 1, CODECAMPAIGN1, "THEME1" ) );
+        ThemeCatalog catalog = ThemeCatalog.build( listThemes );
+
+        // The catalog does not keep the loaded theme
+        listThemes.get( 0 ).setTitle( "Changed" );
+        assertNull( catalog.getById( 1 ).getTitle( ) );
+
+        // A single lookup returns a new modifiable copy
+        Theme theme = catalog.getByCode( "THEME1" );
+        assertNotSame( theme, catalog.getByCode( "THEME1" ) );
+        theme.setTitle( "Changed" );
+        theme.setDescription( "Description" );
+        assertEquals( "Description", theme.getDescription( ) );
+        assertNull( catalog.getById( 1 ).getTitle( ) );
+
+        // The copies of the themes of a campaign are new and modifiable
+        List<Theme> listCopies = catalog.copyByCampaign( CODECAMPAIGN1 );
+        assertNotSame( listCopies, catalog.copyByCampaign( CODECAMPAIGN1 ) );
+        listCopies.get( 0 ).setTitle( "Changed" );
+        listCopies.add( newTheme( 2, CODECAMPAIGN1, "THEME2" ) );
+        assertNull( catalog.getById( 1 ).getTitle( ) );
+        assertEquals( 1, catalog.copyByCampaign( CODECAMPAIGN1 ).size( ) );
+        assertTrue( catalog.copyByCampaign( "unknown" ).isEmpty( ) );
+
+        // The themes of the shared map cannot be modified
+        try
+        {
+            catalog.getByCampaign( CODECAMPAIGN1 ).get( 0 ).setTitle( "Changed" );
+            fail( "the themes of a campaign must not be modifiable" );
+        }
+        catch( UnsupportedOperationException e )
+        {
+            assertNull( catalog.getByCampaign( ).get( CODECAMPAIGN1 ).get( 0 ).getTitle( ) );
+        }
+        try
+        {
+            catalog.getByCampaign( ).get( CODECAMPAIGN1 ).get( 0 ).setDescription( "Description" );
+            fail( "the themes of a campaign must not be modifiable" );
+        }
+        catch( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    private static Theme newTheme( int nId, String strCampaignCode, String strCode )
+    {
+        Theme theme = new Theme( );
+        theme.setId( nId );
+        theme.setCampaignCode( strCampaignCode );
+        theme.setCode( strCode );
+
+        return theme;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the UnknownPhaseTracker
+ */
+public class UnknownPhaseTrackerTest extends LuteceTestCase
+{
+    private static final long LOG_INTERVAL = 1000L;
+
+    /**
+     * The lookups of an unknown phase share a stackless exception and are counted
+     */
+    public void testLookup( )
+    {
+        AtomicLong clock = new AtomicLong( );
+        UnknownPhaseTracker tracker = new UnknownPhaseTracker( LOG_INTERVAL, clock::get );
+
+        NoSuchPhaseException exception = tracker.lookup( "A", "Label1" );
+        assertEquals( 0, exception.getStackTrace( ).length );
+        assertTrue( exception.getMessage( ).contains( "Label1" ) );
+
+        clock.addAndGet( LOG_INTERVAL / 2 );
+        assertSame( exception, tracker.lookup( "A", "Label1" ) );
+        assertNotSame( exception, tracker.lookup( "B", "Label1" ) );
+        clock.addAndGet( LOG_INTERVAL );
+        assertSame( exception, tracker.lookup( "A", "Label1" ) );
+        assertEquals( 4, tracker.getLookupCount( ) );
+
+        // Forgotten phases get a new exception, the count is kept
+        tracker.clear( );
+        assertNotSame( exception, tracker.lookup( "A", "Label1" ) );
+        assertEquals( 5, tracker.getLookupCount( ) );
+    }
+
+    /**
+     * Beyond the bound of tracked phases, the lookups share a generic exception
+     */
+    public void testBound( )
+    {
+        UnknownPhaseTracker tracker = new UnknownPhaseTracker( LOG_INTERVAL, System::currentTimeMillis );
+        NoSuchPhaseException exception = null;
+        for ( int i = 0; i < 2000; i++ )
+        {
+            NoSuchPhaseException next = tracker.lookup( "A", "Label" + i );
+            if ( i > 1000 )
+            {
+                assertSame( exception, next );
+            }
+            exception = next;
+        }
+        assertEquals( 0, exception.getStackTrace( ).length );
+        assertEquals( 2000, tracker.getLookupCount( ) );
+    }
+}
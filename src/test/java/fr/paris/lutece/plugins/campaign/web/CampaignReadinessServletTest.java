@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.campaign.web;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the test class for the CampaignReadinessServlet
+ */
+public class CampaignReadinessServletTest extends LuteceTestCase
+{
+    /**
+     * The servlet answers 200 when the campaign data is ready
+     * 
+     * @throws IOException
+     *             if the response cannot be written
+     */
+    public void testReady( ) throws IOException
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse( );
+        new CampaignReadinessServlet( ( ) -> true ).doGet( new MockHttpServletRequest( ), response );
+
+        assertEquals( HttpServletResponse.SC_OK, response.getStatus( ) );
+        assertEquals( "READY", response.getContentAsString( ) );
+        assertEquals( "no-store", response.getHeader( "Cache-Control" ) );
+    }
+
+    /**
+     * The servlet answers 503 while the campaign data is not ready, for instance after a failed warm-up
+     * 
+     * @throws IOException
+     *             if the response cannot be written
+     */
+    public void testNotReady( ) throws IOException
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse( );
+        new CampaignReadinessServlet( ( ) -> false ).doGet( new MockHttpServletRequest( ), response );
+
+        assertEquals( HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus( ) );
+        assertEquals( "NOT READY", response.getContentAsString( ) );
+    }
+}
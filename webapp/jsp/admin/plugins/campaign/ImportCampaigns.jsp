@@ -0,0 +1,9 @@
+<jsp:useBean id="managecampaignsImport" scope="session" class="fr.paris.lutece.plugins.campaign.web.CampaignImportJspBean" />
+<% String strContent = managecampaignsImport.processController ( request , response ); %>
+
+<%@ page errorPage="../../ErrorPage.jsp" %>
+<jsp:include page="../../AdminHeader.jsp" />
+
+<%= strContent %>
+
+<%@ include file="../../AdminFooter.jsp" %>